@@ -0,0 +1,73 @@
+package com.moviefeedback.apigateway.composite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The calls composite responses are built from. Every call goes through the service's circuit
+ * breaker and bulkhead, like routed requests, and has its own timeout; a call that fails or
+ * times out yields an empty part instead of failing the whole response.
+ */
+@Component
+public class CompositeCalls {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompositeCalls.class);
+
+    static final String MOVIE_SERVICE = "movie-service";
+    static final String FEEDBACK_SERVICE = "feedback-service";
+
+    private final WebClient webClient;
+    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    public CompositeCalls(WebClient.Builder webClientBuilder,
+                          ReactorLoadBalancerExchangeFilterFunction loadBalancer,
+                          ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                          BulkheadRegistry bulkheadRegistry) {
+        this.webClient = webClientBuilder.filter(loadBalancer).build();
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    // The caller's Authorization header, if any, is passed on to the service
+    Mono<JsonNode> get(String uri, String authorization, Object... variables) {
+        return webClient.get()
+                .uri(uri, variables)
+                .headers(headers -> {
+                    if (authorization != null) {
+                        headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                    }
+                })
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    // composite and name only label the warning logged when the part is left out
+    Mono<Optional<JsonNode>> part(String composite, String name, String service, Duration timeout, Mono<JsonNode> call) {
+        Mono<JsonNode> guarded = call
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(service)))
+                .timeout(timeout);
+        return circuitBreakerFactory.create(service)
+                .run(guarded, Mono::error)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> {
+                    logger.warn("Leaving {} out of the {}: {}", name, composite, e.toString());
+                    return Mono.just(Optional.empty());
+                });
+    }
+}
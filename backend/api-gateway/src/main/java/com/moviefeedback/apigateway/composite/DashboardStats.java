@@ -0,0 +1,110 @@
+package com.moviefeedback.apigateway.composite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The admin dashboard's figures, merged from movie-service's catalogue stats and
+ * feedback-service's feedback stats. The parts of a service that did not answer in time are
+ * left null and the service's part is named in unavailable.
+ */
+public class DashboardStats {
+
+    public static final String CATALOG = "catalog";
+    public static final String FEEDBACK = "feedback";
+
+    // From movie-service
+    private Long totalMovies;
+    private JsonNode genres;
+    private JsonNode topRated;
+    private JsonNode mostRated;
+    // From feedback-service
+    private Long totalFeedback;
+    private Long ratedMovies;
+    private Double averageRating;
+    private JsonNode ratingHistogram;
+    private JsonNode recentFeedback;
+    private List<String> unavailable = new ArrayList<>();
+
+    public Long getTotalMovies() {
+        return totalMovies;
+    }
+
+    public void setTotalMovies(Long totalMovies) {
+        this.totalMovies = totalMovies;
+    }
+
+    public JsonNode getGenres() {
+        return genres;
+    }
+
+    public void setGenres(JsonNode genres) {
+        this.genres = genres;
+    }
+
+    public JsonNode getTopRated() {
+        return topRated;
+    }
+
+    public void setTopRated(JsonNode topRated) {
+        this.topRated = topRated;
+    }
+
+    public JsonNode getMostRated() {
+        return mostRated;
+    }
+
+    public void setMostRated(JsonNode mostRated) {
+        this.mostRated = mostRated;
+    }
+
+    public Long getTotalFeedback() {
+        return totalFeedback;
+    }
+
+    public void setTotalFeedback(Long totalFeedback) {
+        this.totalFeedback = totalFeedback;
+    }
+
+    public Long getRatedMovies() {
+        return ratedMovies;
+    }
+
+    public void setRatedMovies(Long ratedMovies) {
+        this.ratedMovies = ratedMovies;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public JsonNode getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public void setRatingHistogram(JsonNode ratingHistogram) {
+        this.ratingHistogram = ratingHistogram;
+    }
+
+    public JsonNode getRecentFeedback() {
+        return recentFeedback;
+    }
+
+    public void setRecentFeedback(JsonNode recentFeedback) {
+        this.recentFeedback = recentFeedback;
+    }
+
+    public List<String> getUnavailable() {
+        return unavailable;
+    }
+
+    public void setUnavailable(List<String> unavailable) {
+        this.unavailable = unavailable;
+    }
+}
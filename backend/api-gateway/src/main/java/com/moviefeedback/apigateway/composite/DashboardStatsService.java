@@ -0,0 +1,74 @@
+package com.moviefeedback.apigateway.composite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Builds {@link DashboardStats} from one call to each service, made concurrently. Both services
+ * answer from in-memory counters, so the response has the same size and cost however many
+ * movies and feedback items there are.
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    private static final String COMPOSITE = "dashboard stats";
+
+    private final CompositeCalls calls;
+    private final Duration timeout;
+    private final int recentFeedbackLimit;
+
+    @Autowired
+    public DashboardStatsService(CompositeCalls calls,
+                                 @Value("${composite.dashboard.timeout:PT1S}") Duration timeout,
+                                 @Value("${composite.dashboard.recent-feedback-limit:10}") int recentFeedbackLimit) {
+        this.calls = calls;
+        this.timeout = timeout;
+        this.recentFeedbackLimit = recentFeedbackLimit;
+    }
+
+    // The caller's Authorization header, if any, is passed on to the services
+    public Mono<DashboardStats> getStats(String authorization) {
+        logger.debug("Building dashboard stats");
+
+        Mono<Optional<JsonNode>> catalog = calls.part(COMPOSITE, DashboardStats.CATALOG, CompositeCalls.MOVIE_SERVICE,
+                timeout, calls.get("http://movie-service/api/movies/stats", authorization));
+        Mono<Optional<JsonNode>> feedback = calls.part(COMPOSITE, DashboardStats.FEEDBACK,
+                CompositeCalls.FEEDBACK_SERVICE, timeout,
+                calls.get("http://feedback-service/api/feedback/stats?recent={recent}", authorization, recentFeedbackLimit));
+
+        return Mono.zip(catalog, feedback).map(parts -> {
+            DashboardStats stats = new DashboardStats();
+            parts.getT1().ifPresentOrElse(node -> applyCatalog(stats, node),
+                    () -> stats.getUnavailable().add(DashboardStats.CATALOG));
+            parts.getT2().ifPresentOrElse(node -> applyFeedback(stats, node),
+                    () -> stats.getUnavailable().add(DashboardStats.FEEDBACK));
+            return stats;
+        });
+    }
+
+    private static void applyCatalog(DashboardStats stats, JsonNode catalog) {
+        stats.setTotalMovies(catalog.path("totalMovies").asLong(0));
+        stats.setGenres(catalog.path("genres"));
+        stats.setTopRated(catalog.path("topRated"));
+        stats.setMostRated(catalog.path("mostRated"));
+    }
+
+    // The overall figures come from the feedback itself rather than the movies' copies of them
+    private static void applyFeedback(DashboardStats stats, JsonNode feedback) {
+        stats.setTotalFeedback(feedback.path("totalFeedback").asLong(0));
+        stats.setRatedMovies(feedback.path("ratedMovies").asLong(0));
+        stats.setAverageRating(feedback.path("averageRating").asDouble(0.0));
+        stats.setRatingHistogram(feedback.path("ratingHistogram"));
+        stats.setRecentFeedback(feedback.path("recentFeedback"));
+    }
+}
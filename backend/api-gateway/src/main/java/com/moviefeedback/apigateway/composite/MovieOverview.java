@@ -0,0 +1,74 @@
+package com.moviefeedback.apigateway.composite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A movie with its rating stats and newest feedback, merged from movie-service and
+ * feedback-service. Parts whose service did not answer in time are left null and named in
+ * unavailable, so a screen can render what it got.
+ */
+public class MovieOverview {
+
+    public static final String MOVIE = "movie";
+    public static final String RATINGS = "ratings";
+    public static final String RECENT_FEEDBACK = "recentFeedback";
+
+    private JsonNode movie;
+    private Double averageRating;
+    private Long feedbackCount;
+    // Index 0 holds the number of 1-star ratings, index 4 the number of 5-star ratings
+    private long[] ratingHistogram;
+    private JsonNode recentFeedback;
+    private List<String> unavailable = new ArrayList<>();
+
+    public JsonNode getMovie() {
+        return movie;
+    }
+
+    public void setMovie(JsonNode movie) {
+        this.movie = movie;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public Long getFeedbackCount() {
+        return feedbackCount;
+    }
+
+    public void setFeedbackCount(Long feedbackCount) {
+        this.feedbackCount = feedbackCount;
+    }
+
+    public long[] getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public void setRatingHistogram(long[] ratingHistogram) {
+        this.ratingHistogram = ratingHistogram;
+    }
+
+    public JsonNode getRecentFeedback() {
+        return recentFeedback;
+    }
+
+    public void setRecentFeedback(JsonNode recentFeedback) {
+        this.recentFeedback = recentFeedback;
+    }
+
+    public List<String> getUnavailable() {
+        return unavailable;
+    }
+
+    public void setUnavailable(List<String> unavailable) {
+        this.unavailable = unavailable;
+    }
+}
@@ -0,0 +1,93 @@
+package com.moviefeedback.apigateway.composite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Builds a {@link MovieOverview} by calling movie-service and feedback-service concurrently, so
+ * the overview takes as long as the slowest call rather than the sum. Every call has its own
+ * timeout and goes through the service's circuit breaker and bulkhead, like routed requests; a
+ * call that fails or times out leaves its part of the overview empty instead of failing it all.
+ */
+@Service
+public class MovieOverviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieOverviewService.class);
+
+    private static final String COMPOSITE = "movie overview";
+
+    private final CompositeCalls calls;
+    private final Duration movieTimeout;
+    private final Duration ratingsTimeout;
+    private final Duration recentFeedbackTimeout;
+    private final int recentFeedbackLimit;
+
+    @Autowired
+    public MovieOverviewService(CompositeCalls calls,
+                                @Value("${composite.movie-overview.movie-timeout:PT1S}") Duration movieTimeout,
+                                @Value("${composite.movie-overview.ratings-timeout:PT0.5S}") Duration ratingsTimeout,
+                                @Value("${composite.movie-overview.recent-feedback-timeout:PT0.5S}") Duration recentFeedbackTimeout,
+                                @Value("${composite.movie-overview.recent-feedback-limit:5}") int recentFeedbackLimit) {
+        this.calls = calls;
+        this.movieTimeout = movieTimeout;
+        this.ratingsTimeout = ratingsTimeout;
+        this.recentFeedbackTimeout = recentFeedbackTimeout;
+        this.recentFeedbackLimit = recentFeedbackLimit;
+    }
+
+    /**
+     * Returns the overview of the movie, or an empty Mono when movie-service does not know it.
+     * The caller's Authorization header, if any, is passed on to the services.
+     */
+    public Mono<MovieOverview> getOverview(Long movieId, String authorization) {
+        logger.debug("Building overview for movie {}", movieId);
+
+        Mono<Optional<JsonNode>> movie = calls.part(COMPOSITE, MovieOverview.MOVIE, CompositeCalls.MOVIE_SERVICE,
+                movieTimeout, calls.get("http://movie-service/api/movies/{id}", authorization, movieId)
+                        // An unknown movie is an answer, not a failure of the service
+                        .onErrorResume(WebClientResponseException.NotFound.class,
+                                e -> Mono.just(MissingNode.getInstance())));
+        Mono<Optional<JsonNode>> ratings = calls.part(COMPOSITE, MovieOverview.RATINGS, CompositeCalls.FEEDBACK_SERVICE,
+                ratingsTimeout, calls.get("http://feedback-service/api/feedback/ratings/summary?movieIds={id}", authorization, movieId));
+        Mono<Optional<JsonNode>> recentFeedback = calls.part(COMPOSITE, MovieOverview.RECENT_FEEDBACK,
+                CompositeCalls.FEEDBACK_SERVICE, recentFeedbackTimeout,
+                calls.get("http://feedback-service/api/feedback/movie/{id}/recent?limit={limit}", authorization,
+                        movieId, recentFeedbackLimit));
+
+        return Mono.zip(movie, ratings, recentFeedback).flatMap(parts -> {
+            if (parts.getT1().filter(JsonNode::isMissingNode).isPresent()) {
+                return Mono.empty();
+            }
+            MovieOverview overview = new MovieOverview();
+            parts.getT1().ifPresentOrElse(overview::setMovie,
+                    () -> overview.getUnavailable().add(MovieOverview.MOVIE));
+            parts.getT2().ifPresentOrElse(summaries -> applyRatings(overview, summaries),
+                    () -> overview.getUnavailable().add(MovieOverview.RATINGS));
+            parts.getT3().ifPresentOrElse(overview::setRecentFeedback,
+                    () -> overview.getUnavailable().add(MovieOverview.RECENT_FEEDBACK));
+            return Mono.just(overview);
+        });
+    }
+
+    // The summary endpoint answers movieIds= with one summary per movie, all zeros for a movie without feedback
+    private static void applyRatings(MovieOverview overview, JsonNode summaries) {
+        JsonNode summary = summaries.path(0);
+        overview.setAverageRating(summary.path("averageRating").asDouble(0.0));
+        overview.setFeedbackCount(summary.path("count").asLong(0));
+        long[] histogram = new long[5];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = summary.path("ratingHistogram").path(i).asLong(0);
+        }
+        overview.setRatingHistogram(histogram);
+    }
+}
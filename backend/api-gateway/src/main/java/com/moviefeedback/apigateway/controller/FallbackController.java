@@ -0,0 +1,57 @@
+package com.moviefeedback.apigateway.controller;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * Answers requests whose circuit breaker is open or whose call failed, so clients get a quick,
+ * explicit 503 or 504 instead of waiting on an unhealthy service.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FallbackController.class);
+
+    @RequestMapping("/{service}")
+    public ResponseEntity<Map<String, String>> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        logger.warn("Fallback for {}: {}", service, cause != null ? cause.toString() : "unknown failure");
+
+        if (isTimeout(cause)) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(Map.of("service", service, "error", "Service did not answer in time"));
+        }
+        String error = cause instanceof CallNotPermittedException
+                ? "Service is temporarily unavailable"
+                : "Service call failed";
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("service", service, "error", error));
+    }
+
+    // The gateway reports a response timeout as a 504 ResponseStatusException caused by a TimeoutException
+    private static boolean isTimeout(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException
+                    || t instanceof ResponseStatusException e && e.getStatusCode() == HttpStatus.GATEWAY_TIMEOUT) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
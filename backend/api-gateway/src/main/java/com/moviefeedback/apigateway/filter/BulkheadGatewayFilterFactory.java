@@ -0,0 +1,67 @@
+package com.moviefeedback.apigateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Caps the calls in flight to one backend service with a resilience4j semaphore bulkhead, named
+ * after the service so every route to it shares the cap. A slow service can then only hold its
+ * own share of gateway connections; calls over the cap get 503 at once.
+ */
+@Component
+public class BulkheadGatewayFilterFactory extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadGatewayFilterFactory.class);
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    public BulkheadGatewayFilterFactory(BulkheadRegistry bulkheadRegistry) {
+        super(Config.class);
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(config.getName());
+        return (exchange, chain) -> chain.filter(exchange)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(BulkheadFullException.class, e -> {
+                    logger.debug("Bulkhead {} is full, rejecting {}", bulkhead.getName(),
+                            exchange.getRequest().getURI().getRawPath());
+                    exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    public static class Config {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
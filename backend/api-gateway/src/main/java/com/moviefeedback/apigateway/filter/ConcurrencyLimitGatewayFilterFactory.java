@@ -0,0 +1,232 @@
+package com.moviefeedback.apigateway.filter;
+
+import com.moviefeedback.apigateway.ratelimit.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits how many requests of a route are in flight upstream, in total with an adaptive limit
+ * (see {@link AdaptiveConcurrencyLimit}) and per client with a fixed one. Requests over either
+ * limit get 429 with Retry-After, so one slow backend or one greedy client cannot take every
+ * gateway connection.
+ */
+@Component
+public class ConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitGatewayFilterFactory.class);
+
+    private final KeyResolver keyResolver;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ConcurrencyLimitGatewayFilterFactory(KeyResolver keyResolver, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.keyResolver = keyResolver;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new ConcurrencyLimitFilter(config);
+    }
+
+    private final class ConcurrencyLimitFilter implements GatewayFilter {
+
+        private final Config config;
+        private final String route;
+        private final AdaptiveConcurrencyLimit limit;
+        private final ConcurrentMap<String, Integer> clientInFlight = new ConcurrentHashMap<>();
+        private final Timer queueTime;
+
+        ConcurrencyLimitFilter(Config config) {
+            this.config = config;
+            this.route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+            this.limit = new AdaptiveConcurrencyLimit(config.getInitialLimit(), config.getMinLimit(),
+                    config.getMaxLimit(), config.getLatencyThreshold(), config.getBackoffRatio(),
+                    config.getMaxQueueSize(), config.getMaxQueueTime());
+            this.queueTime = Timer.builder("gateway.concurrency.queue")
+                    .description("Time requests waited for an upstream slot")
+                    .tag("route", route)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("route", route)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            return keyResolver.resolve(exchange)
+                    .defaultIfEmpty("unknown")
+                    .flatMap(client -> {
+                        if (!enterClient(client)) {
+                            return reject(exchange, client, "client-concurrency");
+                        }
+                        Timer.Sample waiting = Timer.start(meterRegistry);
+                        return limit.acquire()
+                                .flatMap(admitted -> {
+                                    waiting.stop(queueTime);
+                                    if (!admitted) {
+                                        return reject(exchange, client, "concurrency-limit");
+                                    }
+                                    long start = System.nanoTime();
+                                    return chain.filter(exchange).doFinally(signal ->
+                                            limit.release(System.nanoTime() - start, dropped(exchange, signal)));
+                                })
+                                .doFinally(signal -> leaveClient(client));
+                    });
+        }
+
+        private boolean enterClient(String client) {
+            int[] inFlight = new int[1];
+            clientInFlight.compute(client, (key, count) -> {
+                inFlight[0] = count == null ? 1 : count + 1;
+                return inFlight[0] > config.getMaxPerClient() ? count : inFlight[0];
+            });
+            return inFlight[0] <= config.getMaxPerClient();
+        }
+
+        private void leaveClient(String client) {
+            clientInFlight.computeIfPresent(client, (key, count) -> count > 1 ? count - 1 : null);
+        }
+
+        private Mono<Void> reject(ServerWebExchange exchange, String client, String reason) {
+            logger.debug("Rejecting request on route {} from {}: {}", route, client, reason);
+            meterRegistry.counter("gateway.requests.rejected", "route", route, "reason", reason).increment();
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, config.getRetryAfter().toSeconds())));
+            return exchange.getResponse().setComplete();
+        }
+    }
+
+    // Errors and gateway-side failures signal an overloaded upstream, unlike ordinary 5xx answers
+    private static boolean dropped(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.ON_ERROR) {
+            return true;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && (status.value() == 502 || status.value() == 503 || status.value() == 504);
+    }
+
+    public static class Config implements HasRouteId {
+
+        private int initialLimit = 50;
+        private int minLimit = 5;
+        private int maxLimit = 500;
+        // Upstream responses slower than this shrink the limit
+        private Duration latencyThreshold = Duration.ofMillis(500);
+        private double backoffRatio = 0.9;
+        private int maxQueueSize = 100;
+        private Duration maxQueueTime = Duration.ofMillis(200);
+        private int maxPerClient = 20;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private String routeId;
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public int getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        public void setMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+        }
+
+        public Duration getMaxQueueTime() {
+            return maxQueueTime;
+        }
+
+        public void setMaxQueueTime(Duration maxQueueTime) {
+            this.maxQueueTime = maxQueueTime;
+        }
+
+        public int getMaxPerClient() {
+            return maxPerClient;
+        }
+
+        public void setMaxPerClient(int maxPerClient) {
+            this.maxPerClient = maxPerClient;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.moviefeedback.apigateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviefeedback.apigateway.composite.DashboardStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers a route with the admin dashboard's stats instead of proxying it, so the stats still
+ * pass through the route's rate and concurrency limits.
+ */
+@Component
+public class DashboardStatsGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private final DashboardStatsService dashboardStatsService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public DashboardStatsGatewayFilterFactory(DashboardStatsService dashboardStatsService, ObjectMapper objectMapper) {
+        super(Object.class);
+        this.dashboardStatsService = dashboardStatsService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            ServerHttpResponse response = exchange.getResponse();
+            String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            return dashboardStatsService.getStats(authorization).flatMap(stats -> {
+                byte[] body;
+                try {
+                    body = objectMapper.writeValueAsBytes(stats);
+                } catch (JsonProcessingException e) {
+                    return Mono.error(e);
+                }
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                // Recent feedback carries visitor details, like the feedback endpoints
+                response.getHeaders().setCacheControl(CacheControl.noCache().cachePrivate());
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+            });
+        };
+    }
+}
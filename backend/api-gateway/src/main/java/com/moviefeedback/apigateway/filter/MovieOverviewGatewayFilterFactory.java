@@ -0,0 +1,72 @@
+package com.moviefeedback.apigateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviefeedback.apigateway.composite.MovieOverviewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Answers a route with the overview of the movie in its {id} path segment instead of proxying
+ * it, so the overview still passes through the route's rate and concurrency limits.
+ */
+@Component
+public class MovieOverviewGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private final MovieOverviewService movieOverviewService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public MovieOverviewGatewayFilterFactory(MovieOverviewService movieOverviewService, ObjectMapper objectMapper) {
+        super(Object.class);
+        this.movieOverviewService = movieOverviewService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            ServerHttpResponse response = exchange.getResponse();
+            Long movieId;
+            try {
+                movieId = Long.valueOf(ServerWebExchangeUtils.getUriTemplateVariables(exchange).get("id"));
+            } catch (NumberFormatException e) {
+                response.setStatusCode(HttpStatus.BAD_REQUEST);
+                return response.setComplete();
+            }
+
+            String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            return movieOverviewService.getOverview(movieId, authorization)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(overview -> {
+                        if (overview.isEmpty()) {
+                            response.setStatusCode(HttpStatus.NOT_FOUND);
+                            return response.setComplete();
+                        }
+                        byte[] body;
+                        try {
+                            body = objectMapper.writeValueAsBytes(overview.get());
+                        } catch (JsonProcessingException e) {
+                            return Mono.error(e);
+                        }
+                        response.setStatusCode(HttpStatus.OK);
+                        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                        // Recent feedback carries visitor details, like the feedback endpoints
+                        response.getHeaders().setCacheControl(CacheControl.noCache().cachePrivate());
+                        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+                    });
+        };
+    }
+}
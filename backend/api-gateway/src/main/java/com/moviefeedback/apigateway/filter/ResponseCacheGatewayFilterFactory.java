@@ -0,0 +1,310 @@
+package com.moviefeedback.apigateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caches GET responses of a route in memory and coalesces concurrent identical requests, so a
+ * burst of the same read reaches the backend once. Only 200 JSON responses that the backend
+ * allows shared caches to keep are stored (not private, no-store or no-cache), for the route's
+ * ttl or the response's s-maxage, whichever is shorter. Any other method through the route
+ * clears the route's cache, since it may have changed what the cached reads return.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String CACHE_STATUS_HEADER = "X-Gateway-Cache";
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+
+    private static final Pattern SHARED_MAX_AGE = Pattern.compile("s-maxage=(\\d+)");
+    private static final List<String> UNSHAREABLE = List.of("private", "no-store", "no-cache");
+    // Recomputed for every response written from the cache
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.DATE);
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "maxEntries");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Must wrap the response before NettyWriteResponseFilter writes the upstream body into it
+        return new OrderedGatewayFilter(new ResponseCacheFilter(config),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private final class ResponseCacheFilter implements GatewayFilter {
+
+        private final Config config;
+        private final Cache<String, CachedResponse> cache;
+        private final ConcurrentMap<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+        private final Counter coalesced;
+
+        ResponseCacheFilter(Config config) {
+            this.config = config;
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(config.getMaxEntries())
+                    .expireAfterWrite(config.getTtl())
+                    .recordStats()
+                    .build();
+            String route = config.getRouteId() != null ? config.getRouteId() : "unknown";
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response.cache", "route", route);
+            this.coalesced = Counter.builder("gateway.response.cache.coalesced")
+                    .description("Requests answered from another in-flight request for the same resource")
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                if (request.getMethod() == HttpMethod.HEAD || request.getMethod() == HttpMethod.OPTIONS) {
+                    return chain.filter(exchange);
+                }
+                return chain.filter(exchange).doOnSuccess(done -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        logger.debug("{} {} succeeded, clearing response cache of route {}",
+                                request.getMethod(), request.getURI().getRawPath(), config.getRouteId());
+                        cache.invalidateAll();
+                    }
+                });
+            }
+
+            String key = key(request);
+            CachedResponse cached = cache.getIfPresent(key);
+            if (cached != null && cached.isFresh()) {
+                return write(exchange, cached, "HIT");
+            }
+            // A conditional request may be answered with a bodiless 304, which nobody else can use
+            if (isConditional(request)) {
+                return chain.filter(exchange);
+            }
+
+            Sinks.One<CachedResponse> flight = Sinks.one();
+            Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, flight);
+            if (leader != null) {
+                coalesced.increment();
+                return leader.asMono()
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(shared -> shared.isPresent()
+                                ? write(exchange, shared.get(), "COALESCED")
+                                : chain.filter(exchange));
+            }
+
+            CapturingResponse response = new CapturingResponse(exchange.getResponse());
+            return chain.filter(exchange.mutate().response(response).build())
+                    .doOnSuccess(done -> {
+                        CachedResponse captured = response.captured();
+                        if (captured != null) {
+                            cache.put(key, captured);
+                            flight.tryEmitValue(captured);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        inFlight.remove(key, flight);
+                        // Followers of an uncacheable or failed response go to the backend themselves
+                        flight.tryEmitEmpty();
+                    });
+        }
+
+        private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+            private ByteArrayOutputStream copy;
+            private long expiresAt;
+
+            CapturingResponse(ServerHttpResponse delegate) {
+                super(delegate);
+            }
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                Duration ttl = cacheableFor(getDelegate(), config.getTtl());
+                if (ttl == null) {
+                    return super.writeWith(body);
+                }
+                expiresAt = System.nanoTime() + ttl.toNanos();
+                copy = new ByteArrayOutputStream();
+                // The body streams to the client unchanged; a copy is kept until it outgrows the limit
+                Flux<? extends DataBuffer> teed = Flux.from(body).doOnNext(buffer -> {
+                    if (copy == null) {
+                        return;
+                    }
+                    int length = buffer.readableByteCount();
+                    if (copy.size() + length > config.getMaxBodySize().toBytes()) {
+                        copy = null;
+                        return;
+                    }
+                    byte[] bytes = new byte[length];
+                    int start = buffer.readPosition();
+                    buffer.read(bytes);
+                    buffer.readPosition(start);
+                    copy.write(bytes, 0, length);
+                });
+                return super.writeWith(teed);
+            }
+
+            CachedResponse captured() {
+                if (copy == null) {
+                    return null;
+                }
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(getDelegate().getHeaders());
+                UNCACHED_HEADERS.forEach(headers::remove);
+                return new CachedResponse(getDelegate().getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers),
+                        copy.toByteArray(), expiresAt);
+            }
+        }
+    }
+
+    // Null when the response must not be stored in a shared cache
+    private static Duration cacheableFor(ServerHttpResponse response, Duration routeTtl) {
+        HttpHeaders headers = response.getHeaders();
+        MediaType contentType = headers.getContentType();
+        if (!HttpStatus.OK.equals(response.getStatusCode())
+                || contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return routeTtl;
+        }
+        if (UNSHAREABLE.stream().anyMatch(cacheControl::contains)) {
+            return null;
+        }
+        Matcher sharedMaxAge = SHARED_MAX_AGE.matcher(cacheControl);
+        if (!sharedMaxAge.find()) {
+            return routeTtl;
+        }
+        Duration shared = Duration.ofSeconds(Long.parseLong(sharedMaxAge.group(1)));
+        return shared.compareTo(routeTtl) < 0 ? shared : routeTtl;
+    }
+
+    // The credentials are part of the key so a response is only ever replayed to the same caller
+    private static String key(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                + "|" + headers.getFirst(HttpHeaders.ACCEPT)
+                + "|" + headers.getFirst(HttpHeaders.AUTHORIZATION);
+    }
+
+    private static boolean isConditional(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.containsKey(HttpHeaders.IF_NONE_MATCH) || headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status());
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        String eTag = cached.headers().getETag();
+        if (eTag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(eTag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long expiresAt) {
+
+        boolean isFresh() {
+            return System.nanoTime() - expiresAt < 0;
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        // Upper bound on how long a response is served from the cache; a shorter s-maxage wins
+        private Duration ttl = Duration.ofSeconds(5);
+        private long maxEntries = 1000;
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+        private String routeId;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
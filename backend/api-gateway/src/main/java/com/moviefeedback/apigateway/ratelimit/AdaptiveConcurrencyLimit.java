@@ -0,0 +1,110 @@
+package com.moviefeedback.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounds the requests a route has in flight upstream with an additive-increase,
+ * multiplicative-decrease limit: a response slower than the latency threshold, or one the
+ * upstream dropped, shrinks the limit by the backoff ratio, while fast responses under load grow
+ * it by one. Requests over the limit wait in a bounded queue for at most the max queue time.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final int maxQueueSize;
+    private final Duration maxQueueTime;
+    private final Deque<Sinks.One<Boolean>> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                                    double backoffRatio, int maxQueueSize, Duration maxQueueTime) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueueTime = maxQueueTime;
+    }
+
+    /**
+     * Emits true once the request may go upstream, in which case release must be called when it
+     * is done, or false when the queue is full or the wait timed out.
+     */
+    public Mono<Boolean> acquire() {
+        Sinks.One<Boolean> waiter;
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Mono.just(true);
+            }
+            if (waiters.size() >= maxQueueSize) {
+                return Mono.just(false);
+            }
+            waiter = Sinks.one();
+            waiters.addLast(waiter);
+        }
+        return waiter.asMono()
+                .timeout(maxQueueTime, Mono.fromSupplier(() -> !abandon(waiter)))
+                .doOnCancel(() -> {
+                    if (!abandon(waiter)) {
+                        release();
+                    }
+                });
+    }
+
+    /**
+     * Returns the permit of a request that finished upstream, adjusting the limit by how long it
+     * took and whether the upstream dropped it.
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        synchronized (this) {
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) {
+                // Only grow while the limit is actually in use, so idle periods do not inflate it
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+        release();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    // A permit that was never used upstream says nothing about latency
+    private void release() {
+        List<Sinks.One<Boolean>> admitted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                inFlight++;
+                admitted.add(waiters.pollFirst());
+            }
+        }
+        // Emitted outside the lock, since subscribers carry on with the request on this thread
+        admitted.forEach(waiter -> waiter.tryEmitValue(true));
+    }
+
+    // True when the waiter was still queued; false when it had already been handed a permit
+    private synchronized boolean abandon(Sinks.One<Boolean> waiter) {
+        return waiters.remove(waiter);
+    }
+}
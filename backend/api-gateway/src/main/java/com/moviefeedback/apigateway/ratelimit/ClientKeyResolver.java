@@ -0,0 +1,47 @@
+package com.moviefeedback.apigateway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+/**
+ * Identifies the client a request is limited as: its API key when it sends one of the configured
+ * keys, otherwise its IP address. Unknown keys are ignored, so a client cannot get fresh limits by
+ * sending a new key with every request. Only the last trusted-proxies entries of X-Forwarded-For are believed (nginx appends
+ * one), so a client cannot pick its own address by sending the header.
+ */
+@Component
+public class ClientKeyResolver implements KeyResolver {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private final XForwardedRemoteAddressResolver addressResolver;
+    private final Set<String> apiKeys;
+
+    public ClientKeyResolver(@Value("${gateway.rate-limit.trusted-proxies:1}") int trustedProxies,
+                             @Value("${gateway.rate-limit.api-keys:}") Set<String> apiKeys) {
+        this.addressResolver = XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies);
+        this.apiKeys = Set.copyOf(apiKeys);
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String apiKey = exchange.getRequest().getHeaders().getFirst(API_KEY_HEADER);
+        if (StringUtils.hasText(apiKey) && apiKeys.contains(apiKey)) {
+            return Mono.just("key:" + apiKey);
+        }
+        InetSocketAddress address = addressResolver.resolve(exchange);
+        if (address == null) {
+            return Mono.empty();
+        }
+        return Mono.just("ip:" + (address.getAddress() != null ? address.getAddress().getHostAddress()
+                : address.getHostString()));
+    }
+}
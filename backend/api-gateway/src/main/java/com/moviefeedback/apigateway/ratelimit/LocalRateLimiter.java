@@ -0,0 +1,134 @@
+package com.moviefeedback.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory token-bucket rate limiter for the built-in RequestRateLimiter filter, so no Redis is
+ * needed. Each route and client key gets its own bucket holding up to burstCapacity tokens,
+ * refilled at replenishRate tokens per second. Limits are per gateway instance.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalRateLimiter.class);
+
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public LocalRateLimiter(ConfigurationService configurationService,
+                            MeterRegistry meterRegistry,
+                            @Value("${gateway.rate-limit.max-clients:100000}") long maxClients,
+                            @Value("${gateway.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        // An idle client's bucket would be full again by now, so dropping it changes nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            throw new IllegalArgumentException("No local rate limiter configuration found for route " + routeId);
+        }
+
+        TokenBucket bucket = buckets.get(routeId + "|" + id,
+                key -> new TokenBucket(config.getBurstCapacity(), System.nanoTime()));
+        long waitNanos = bucket.tryConsume(config, System.nanoTime());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("X-RateLimit-Remaining", String.valueOf(bucket.remaining()));
+        headers.put("X-RateLimit-Replenish-Rate", String.valueOf(config.getReplenishRate()));
+        headers.put("X-RateLimit-Burst-Capacity", String.valueOf(config.getBurstCapacity()));
+        if (waitNanos == 0) {
+            return Mono.just(new Response(true, headers));
+        }
+
+        logger.debug("Rate limit exceeded on route {} for client {}", routeId, id);
+        meterRegistry.counter("gateway.requests.rejected", "route", routeId, "reason", "rate-limit").increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return Mono.just(new Response(false, headers));
+    }
+
+    static final class TokenBucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        // Zero when the tokens were taken, otherwise how long until enough have been refilled
+        synchronized long tryConsume(Config config, long now) {
+            double perNano = config.getReplenishRate() / 1_000_000_000d;
+            tokens = Math.min(config.getBurstCapacity(), tokens + (now - refilledAt) * perNano);
+            refilledAt = now;
+            int requested = config.getRequestedTokens();
+            if (tokens >= requested) {
+                tokens -= requested;
+                return 0;
+            }
+            return (long) Math.ceil((requested - tokens) / perNano);
+        }
+
+        synchronized long remaining() {
+            return (long) tokens;
+        }
+    }
+
+    public static class Config {
+
+        // Tokens added per second, i.e. the sustained requests per second a client may make
+        private int replenishRate = 10;
+        private int burstCapacity = 20;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.moviefeedback.apigateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fault injection against stub backends: feedback-service stops answering in time while
+ * movie-service stays healthy. Movie traffic must be unaffected and feedback calls must end
+ * within the route's response timeout, then fail fast once the circuit breaker opens.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "eureka.client.enabled=false")
+class GatewayResilienceTest {
+
+    private static final HttpServer movieService = stub(Duration.ZERO);
+    private static final HttpServer feedbackService = stub(Duration.ofSeconds(10));
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.movie-service[0].uri",
+                () -> "http://localhost:" + movieService.getAddress().getPort());
+        registry.add("spring.cloud.discovery.client.simple.instances.feedback-service[0].uri",
+                () -> "http://localhost:" + feedbackService.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopBackends() {
+        movieService.stop(0);
+        feedbackService.stop(0);
+    }
+
+    @Test
+    void slowFeedbackService_ShouldNotSlowMovieTrafficAndShouldTripCircuitBreaker() {
+        // Arrange
+        WebClient client = WebClient.create("http://localhost:" + port);
+
+        // Act
+        Mono<List<Call>> feedbackCalls = Flux.range(1, 12)
+                .flatMap(i -> call(client, "/api/feedback/movie/" + i))
+                .collectList();
+        Mono<List<Call>> movieCalls = Flux.range(1, 30)
+                .delayElements(Duration.ofMillis(50))
+                .concatMap(i -> call(client, "/api/movies/" + i))
+                .collectList();
+        List<Call> slow = feedbackCalls.block(Duration.ofSeconds(30));
+        List<Call> healthy = movieCalls.block(Duration.ofSeconds(30));
+        Call afterTrip = call(client, "/api/feedback/movie/99").block(Duration.ofSeconds(30));
+
+        // Assert
+        assertTrue(healthy.stream().allMatch(call -> call.status() == 200), "movie calls: " + healthy);
+        assertTrue(healthy.stream().allMatch(call -> call.elapsed().toMillis() < 1000), "movie calls: " + healthy);
+        assertTrue(slow.stream().allMatch(call -> call.status() == 504), "feedback calls: " + slow);
+        assertTrue(slow.stream().allMatch(call -> call.elapsed().toMillis() < 3500), "feedback calls: " + slow);
+        assertEquals(503, afterTrip.status());
+        assertTrue(afterTrip.elapsed().toMillis() < 500, "open breaker took " + afterTrip.elapsed());
+    }
+
+    private static Mono<Call> call(WebClient client, String path) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return client.get().uri(path)
+                    .exchangeToMono(response -> response.releaseBody()
+                            .thenReturn(new Call(path, response.statusCode().value(),
+                                    Duration.ofNanos(System.nanoTime() - start))));
+        });
+    }
+
+    // A backend answering every request with a small uncacheable JSON body after the given delay
+    private static HttpServer stub(Duration delay) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", exchange -> respond(exchange, delay));
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, Duration delay) throws IOException {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private record Call(String path, int status, Duration elapsed) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.moviefeedback.apigateway;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.CacheControl;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "eureka.client.enabled=false")
+class MovieOverviewTest {
+
+    private static final HttpServer movieService = stub(MovieOverviewTest::movieService);
+    private static final HttpServer feedbackService = stub(MovieOverviewTest::feedbackService);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.movie-service[0].uri",
+                () -> "http://localhost:" + movieService.getAddress().getPort());
+        registry.add("spring.cloud.discovery.client.simple.instances.feedback-service[0].uri",
+                () -> "http://localhost:" + feedbackService.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopBackends() {
+        movieService.stop(0);
+        feedbackService.stop(0);
+    }
+
+    @Test
+    void getOverview_WhenOneLegIsSlow_ShouldReturnPartialResultWithinItsTimeout() {
+        // Act
+        long start = System.nanoTime();
+        WebTestClient.BodyContentSpec body = webTestClient.get().uri("/api/composite/movies/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Assert
+        body.jsonPath("$.movie.title").isEqualTo("Inception")
+                .jsonPath("$.averageRating").isEqualTo(4.5)
+                .jsonPath("$.feedbackCount").isEqualTo(2)
+                .jsonPath("$.ratingHistogram[4]").isEqualTo(1)
+                .jsonPath("$.recentFeedback").doesNotExist()
+                .jsonPath("$.unavailable[0]").isEqualTo("recentFeedback");
+        assertTrue(elapsed.toMillis() < 2000, "overview took " + elapsed);
+    }
+
+    @Test
+    void getOverview_WhenMovieUnknown_ShouldReturnNotFound() {
+        // Act & Assert
+        webTestClient.get().uri("/api/composite/movies/404")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getDashboard_ShouldMergeBothServicesStats() {
+        // Act & Assert
+        webTestClient.get().uri("/api/composite/dashboard")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.noCache().cachePrivate())
+                .expectBody()
+                .jsonPath("$.totalMovies").isEqualTo(2)
+                .jsonPath("$.topRated[0].title").isEqualTo("Inception")
+                .jsonPath("$.genres[0].genre").isEqualTo("Sci-Fi")
+                .jsonPath("$.totalFeedback").isEqualTo(2)
+                .jsonPath("$.averageRating").isEqualTo(4.5)
+                .jsonPath("$.recentFeedback[0].id").isEqualTo(7)
+                .jsonPath("$.unavailable").isEmpty();
+    }
+
+    private static void movieService(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestURI().getPath().equals("/api/movies/stats")) {
+            respond(exchange, 200, "{\"totalMovies\":2,\"genres\":[{\"genre\":\"Sci-Fi\",\"movies\":2}],"
+                    + "\"topRated\":[{\"movieId\":1,\"title\":\"Inception\"}],\"mostRated\":[]}");
+        } else if (exchange.getRequestURI().getPath().equals("/api/movies/1")) {
+            respond(exchange, 200, "{\"id\":1,\"title\":\"Inception\"}");
+        } else {
+            respond(exchange, 404, "");
+        }
+    }
+
+    // Recent feedback hangs, so that part has to be left out of the overview
+    private static void feedbackService(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestURI().getPath().endsWith("/recent")) {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "[]");
+        } else if (exchange.getRequestURI().getPath().equals("/api/feedback/stats")) {
+            respond(exchange, 200, "{\"totalFeedback\":2,\"ratedMovies\":1,\"averageRating\":4.5,"
+                    + "\"ratingHistogram\":[0,0,0,1,1],\"recentFeedback\":[{\"id\":7,\"movieId\":1}]}");
+        } else {
+            respond(exchange, 200, "[{\"movieId\":1,\"averageRating\":4.5,\"count\":2,\"ratingHistogram\":[0,0,0,1,1]}]");
+        }
+    }
+
+    private static HttpServer stub(HttpHandler handler) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", handler);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.moviefeedback.apigateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private AtomicInteger upstreamCalls;
+    private CacheControl upstreamCacheControl;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setRouteId("movie-service");
+        config.setTtl(Duration.ofMinutes(1));
+        filter = new ResponseCacheGatewayFilterFactory(meterRegistry).apply(config);
+        upstreamCalls = new AtomicInteger();
+        upstreamCacheControl = CacheControl.maxAge(Duration.ZERO).cachePublic().sMaxAge(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void filter_WhenSameGetRepeated_ShouldServeSecondFromCache() {
+        // Arrange
+        MockServerWebExchange first = get("/api/movies");
+        MockServerWebExchange second = get("/api/movies");
+
+        // Act
+        filter.filter(first, upstream(Duration.ZERO)).block();
+        filter.filter(second, upstream(Duration.ZERO)).block();
+
+        // Assert
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals("[{\"id\":1}]", second.getResponse().getBodyAsString().block());
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Gateway-Cache"));
+        assertEquals("\"movies-1\"", second.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void filter_WhenIdenticalRequestsOverlap_ShouldCallUpstreamOnce() {
+        // Arrange
+        MockServerWebExchange leader = get("/api/movies/genre/Drama");
+        MockServerWebExchange follower = get("/api/movies/genre/Drama");
+
+        // Act
+        Mono.when(filter.filter(leader, upstream(Duration.ofMillis(200))),
+                filter.filter(follower, upstream(Duration.ofMillis(200)))).block();
+
+        // Assert
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("[{\"id\":1}]", follower.getResponse().getBodyAsString().block());
+        assertEquals("COALESCED", follower.getResponse().getHeaders().getFirst("X-Gateway-Cache"));
+        assertEquals(1.0, meterRegistry.get("gateway.response.cache.coalesced").counter().count());
+    }
+
+    @Test
+    void filter_WhenUpstreamForbidsSharedCaching_ShouldAlwaysCallUpstream() {
+        // Arrange
+        upstreamCacheControl = CacheControl.noCache().cachePrivate();
+
+        // Act
+        filter.filter(get("/api/feedback/visitor/abc"), upstream(Duration.ZERO)).block();
+        filter.filter(get("/api/feedback/visitor/abc"), upstream(Duration.ZERO)).block();
+
+        // Assert
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_WhenWriteSucceeds_ShouldClearRouteCache() {
+        // Arrange
+        filter.filter(get("/api/movies"), upstream(Duration.ZERO)).block();
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.post("/api/movies"));
+
+        // Act
+        filter.filter(write, exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+            return exchange.getResponse().setComplete();
+        }).block();
+        filter.filter(get("/api/movies"), upstream(Duration.ZERO)).block();
+
+        // Assert
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_WhenCachedETagMatches_ShouldAnswerNotModified() {
+        // Arrange
+        filter.filter(get("/api/movies"), upstream(Duration.ZERO)).block();
+        MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get("/api/movies")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch("\"movies-1\""));
+
+        // Act
+        filter.filter(conditional, upstream(Duration.ZERO)).block();
+
+        // Assert
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).accept(MediaType.APPLICATION_JSON));
+    }
+
+    // Stands in for the proxied service: a versioned JSON array after the given latency
+    private GatewayFilterChain upstream(Duration latency) {
+        return exchange -> Mono.delay(latency).then(Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            HttpHeaders headers = response.getHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setCacheControl(upstreamCacheControl);
+            headers.setETag("\"movies-1\"");
+            byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    }
+}
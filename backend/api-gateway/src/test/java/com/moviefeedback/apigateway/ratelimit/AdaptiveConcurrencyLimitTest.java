@@ -0,0 +1,87 @@
+package com.moviefeedback.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    @Test
+    void acquire_WhenLimitReachedAndQueueFull_ShouldReject() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = limit(1, 0, Duration.ofMillis(50));
+        limit.acquire().block();
+
+        // Act
+        Boolean admitted = limit.acquire().block();
+
+        // Assert
+        assertFalse(admitted);
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    void acquire_WhenPermitReleasedWhileQueued_ShouldAdmitWaiter() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = limit(1, 10, Duration.ofSeconds(5));
+        limit.acquire().block();
+
+        // Act
+        Boolean admitted = limit.acquire()
+                .doOnSubscribe(subscription -> limit.release(FAST, false))
+                .block();
+
+        // Assert
+        assertTrue(admitted);
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    void acquire_WhenQueuedLongerThanMaxQueueTime_ShouldRejectAndLeaveQueue() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = limit(1, 10, Duration.ofMillis(50));
+        limit.acquire().block();
+
+        // Act
+        Boolean admitted = limit.acquire().block();
+        limit.release(FAST, false);
+
+        // Assert
+        assertFalse(admitted);
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void release_ShouldShrinkOnSlowOrDroppedResponsesAndGrowOnFastOnes() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = limit(10, 0, Duration.ofMillis(50));
+
+        // Act
+        limit.acquire().block();
+        limit.release(SLOW, false);
+        int afterSlow = limit.getLimit();
+        limit.acquire().block();
+        limit.release(FAST, true);
+        int afterDropped = limit.getLimit();
+        for (int i = 0; i < 5; i++) {
+            limit.acquire().block();
+        }
+        limit.release(FAST, false);
+        int afterFast = limit.getLimit();
+
+        // Assert
+        assertEquals(9, afterSlow);
+        assertEquals(8, afterDropped);
+        assertEquals(9, afterFast);
+    }
+
+    private static AdaptiveConcurrencyLimit limit(int initialLimit, int maxQueueSize, Duration maxQueueTime) {
+        return new AdaptiveConcurrencyLimit(initialLimit, 1, 100, Duration.ofMillis(500), 0.9,
+                maxQueueSize, maxQueueTime);
+    }
+}
@@ -0,0 +1,71 @@
+package com.moviefeedback.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ClientKeyResolverTest {
+
+    private ClientKeyResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new ClientKeyResolver(1, Set.of("partner-key"));
+    }
+
+    @Test
+    void resolve_WhenKeyIsConfigured_ShouldLimitByKey() {
+        // Act
+        String key = resolver.resolve(exchange("10.0.0.1", "partner-key")).block();
+
+        // Assert
+        assertEquals("key:partner-key", key);
+    }
+
+    @Test
+    void resolve_WhenKeyIsUnknown_ShouldLimitByAddress() {
+        // Act
+        String key = resolver.resolve(exchange("10.0.0.1", "made-up")).block();
+
+        // Assert
+        assertEquals("ip:10.0.0.1", key);
+    }
+
+    @Test
+    void rateLimit_WhenClientRotatesKeys_ShouldStillRejectOverTheBurst() {
+        // Arrange
+        LocalRateLimiter rateLimiter = new LocalRateLimiter(mock(ConfigurationService.class), new SimpleMeterRegistry(),
+                1000, Duration.ofMinutes(10));
+        LocalRateLimiter.Config config = new LocalRateLimiter.Config();
+        config.setReplenishRate(1);
+        config.setBurstCapacity(2);
+        rateLimiter.getConfig().put("movie-search", config);
+
+        // Act
+        RateLimiter.Response last = null;
+        for (int i = 0; i < 3; i++) {
+            String key = resolver.resolve(exchange("10.0.0.1", "random-" + i)).block();
+            last = rateLimiter.isAllowed("movie-search", key).block();
+        }
+
+        // Assert
+        assertFalse(last.isAllowed());
+    }
+
+    private static MockServerWebExchange exchange(String address, String apiKey) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/movies/search")
+                .remoteAddress(new InetSocketAddress(address, 40000))
+                .header(ClientKeyResolver.API_KEY_HEADER, apiKey));
+    }
+}
@@ -0,0 +1,77 @@
+package com.moviefeedback.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LocalRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LocalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new LocalRateLimiter(mock(ConfigurationService.class), meterRegistry, 1000, Duration.ofMinutes(10));
+        LocalRateLimiter.Config config = new LocalRateLimiter.Config();
+        config.setReplenishRate(1);
+        config.setBurstCapacity(2);
+        rateLimiter.getConfig().put("movie-search", config);
+    }
+
+    @Test
+    void isAllowed_WhenBurstUsedUp_ShouldRejectWithRetryAfter() {
+        // Act
+        RateLimiter.Response first = rateLimiter.isAllowed("movie-search", "ip:10.0.0.1").block();
+        RateLimiter.Response second = rateLimiter.isAllowed("movie-search", "ip:10.0.0.1").block();
+        RateLimiter.Response third = rateLimiter.isAllowed("movie-search", "ip:10.0.0.1").block();
+
+        // Assert
+        assertTrue(first.isAllowed());
+        assertTrue(second.isAllowed());
+        assertFalse(third.isAllowed());
+        assertEquals("1", third.getHeaders().get("Retry-After"));
+        assertEquals("0", third.getHeaders().get("X-RateLimit-Remaining"));
+        assertEquals(1.0, meterRegistry.get("gateway.requests.rejected")
+                .tags("route", "movie-search", "reason", "rate-limit").counter().count());
+    }
+
+    @Test
+    void isAllowed_ShouldKeepSeparateBucketsPerClient() {
+        // Arrange
+        rateLimiter.isAllowed("movie-search", "ip:10.0.0.1").block();
+        rateLimiter.isAllowed("movie-search", "ip:10.0.0.1").block();
+
+        // Act
+        RateLimiter.Response other = rateLimiter.isAllowed("movie-search", "ip:10.0.0.2").block();
+
+        // Assert
+        assertTrue(other.isAllowed());
+    }
+
+    @Test
+    void tokenBucket_ShouldRefillAtReplenishRate() {
+        // Arrange
+        LocalRateLimiter.Config config = new LocalRateLimiter.Config();
+        config.setReplenishRate(2);
+        config.setBurstCapacity(2);
+        LocalRateLimiter.TokenBucket bucket = new LocalRateLimiter.TokenBucket(2, 0);
+        bucket.tryConsume(config, 0);
+        bucket.tryConsume(config, 0);
+
+        // Act
+        long waitWhenEmpty = bucket.tryConsume(config, 0);
+        long waitAfterHalfSecond = bucket.tryConsume(config, Duration.ofMillis(500).toNanos());
+
+        // Assert
+        assertEquals(Duration.ofMillis(500).toNanos(), waitWhenEmpty);
+        assertEquals(0, waitAfterHalfSecond);
+    }
+}
@@ -0,0 +1,55 @@
+package com.moviefeedback.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts a service's Spring context, without the web server unless a benchmark needs the HTTP
+ * path. Both service jars ship an application.yml, so each benchmark points Spring at its own
+ * config file instead.
+ */
+final class BenchmarkApplications {
+
+    private BenchmarkApplications() {
+    }
+
+    static ConfigurableApplicationContext start(Class<?> application, String configName, String... overrides) {
+        return run(application, WebApplicationType.NONE, configName, overrides);
+    }
+
+    // Listens on a random port, available as local.server.port
+    static ConfigurableApplicationContext startServer(Class<?> application, String configName, String... overrides) {
+        List<String> withPort = new ArrayList<>(List.of(overrides));
+        withPort.add("server.port=0");
+        return run(application, WebApplicationType.SERVLET, configName, withPort.toArray(String[]::new));
+    }
+
+    // Mirrors the datasource settings of the services' application-persistent.yml, with the file under dataDir
+    static String[] fileStorage(Path dataDir, String database) {
+        return new String[] {
+                "spring.datasource.url=jdbc:h2:file:" + dataDir.resolve(database)
+                        + ";DB_CLOSE_ON_EXIT=FALSE;WRITE_DELAY=500;CACHE_SIZE=65536;QUERY_CACHE_SIZE=64;MAX_COMPACT_TIME=200",
+                "spring.datasource.hikari.maximum-pool-size=10",
+                "spring.datasource.hikari.minimum-idle=10",
+                "spring.datasource.hikari.connection-timeout=5000",
+                "spring.datasource.hikari.max-lifetime=0"
+        };
+    }
+
+    private static ConfigurableApplicationContext run(Class<?> application, WebApplicationType type, String configName,
+                                                      String... overrides) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.config.location=classpath:/" + configName + ".yml");
+        for (String override : overrides) {
+            args.add("--" + override);
+        }
+        return new SpringApplicationBuilder(application)
+                .web(type)
+                .run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,104 @@
+package com.moviefeedback.benchmarks;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the H2 databases with deterministic synthetic data through plain JDBC batches, so
+ * that setup time does not depend on the code being measured.
+ */
+final class BenchmarkData {
+
+    static final String[] WORDS = {
+            "silent", "river", "night", "shadow", "garden", "empire", "storm", "winter", "broken", "golden",
+            "city", "dream", "ocean", "fire", "mountain", "secret", "last", "journey", "stranger", "light",
+            "kingdom", "memory", "island", "glass", "thunder", "hidden", "return", "forest", "midnight", "echo",
+            "crimson", "desert", "machine", "harbor", "frozen", "wild", "velvet", "iron", "paper", "summer"
+    };
+    static final String[] GENRES = {
+            "Action", "Comedy", "Drama", "Horror", "Romance", "Sci-Fi", "Thriller", "Documentary", "Animation", "Fantasy"
+    };
+    static final String[] NAMES = {
+            "Avery", "Blake", "Casey", "Devon", "Emery", "Finley", "Harper", "Jordan", "Morgan", "Quinn",
+            "Reese", "Rowan", "Sawyer", "Taylor", "Parker", "Hayden", "Kendall", "Logan", "Riley", "Skyler"
+    };
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private BenchmarkData() {
+    }
+
+    static void seedMovies(JdbcTemplate jdbcTemplate, int rows) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[] {
+                    capitalize(words(random, 2 + random.nextInt(2))) + " " + i,
+                    capitalize(words(random, 12)),
+                    GENRES[random.nextInt(GENRES.length)],
+                    1950 + random.nextInt(75),
+                    NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)],
+                    now,
+                    now
+            });
+            if (batch.size() == BATCH_SIZE || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO movies (title, description, genre, release_year, director, "
+                        + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Spreads the feedback over one movie per hundred rows
+    static long seedFeedback(JdbcTemplate jdbcTemplate, int rows) {
+        Random random = new Random(42);
+        long movies = movieCountForFeedback(rows);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[] {
+                    (long) i + 1,
+                    1 + (long) random.nextInt((int) movies),
+                    NAMES[random.nextInt(NAMES.length)],
+                    capitalize(words(random, 10)),
+                    1 + random.nextInt(5),
+                    null,
+                    now,
+                    now
+            });
+            if (batch.size() == BATCH_SIZE || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO feedback (id, movie_id, visitor_name, comment, rating, "
+                        + "visitor_email, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // The pooled id optimizer hands out the 50 ids below each sequence value, so leave room for them
+        jdbcTemplate.execute("ALTER SEQUENCE feedback_seq RESTART WITH " + (rows + 50));
+        return movies;
+    }
+
+    static long movieCountForFeedback(int rows) {
+        return Math.max(10, rows / 100);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
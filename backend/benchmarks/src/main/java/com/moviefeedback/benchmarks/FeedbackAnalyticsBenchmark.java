@@ -0,0 +1,100 @@
+package com.moviefeedback.benchmarks;
+
+import com.moviefeedback.feedbackservice.FeedbackServiceApplication;
+import com.moviefeedback.feedbackservice.analytics.FeedbackAnalyticsService;
+import com.moviefeedback.feedbackservice.dto.RatingPeriod;
+import com.moviefeedback.feedbackservice.dto.RatingSummary;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.service.FeedbackService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dashboard's top movies and ratings-over-time chart, answered from the feedback snapshots
+ * against loading every feedback entity and aggregating it in Java, as the dashboard did before.
+ * The seeded feedback is spread over the past year, one row every 30 seconds at 1M rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FeedbackAnalyticsBenchmark {
+
+    private static final int TOP_MOVIES = 10;
+    private static final int PERIODS = 30;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private FeedbackService feedbackService;
+    private FeedbackAnalyticsService analyticsService;
+    private LocalDateTime from;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplications.start(FeedbackServiceApplication.class, "benchmark-feedback");
+        feedbackService = context.getBean(FeedbackService.class);
+        analyticsService = context.getBean(FeedbackAnalyticsService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedFeedback(jdbcTemplate, rows);
+        jdbcTemplate.update("UPDATE feedback SET created_at = DATEADD('SECOND', -id * ?, created_at)",
+                365L * 86_400 / rows);
+        analyticsService.takeSnapshots();
+        from = LocalDate.now().plusDays(1 - PERIODS).atStartOfDay();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RatingSummary> topMoviesFromSnapshots() {
+        return analyticsService.getTopMovies(TOP_MOVIES, 1, FeedbackAnalyticsService.BY_RATING, null, null);
+    }
+
+    @Benchmark
+    public List<RatingSummary> topMoviesFromEntities() {
+        Map<Long, RatingSummary> summaries = new HashMap<>();
+        for (Feedback feedback : feedbackService.getAllFeedback()) {
+            summaries.computeIfAbsent(feedback.getMovieId(), RatingSummary::new).addRatings(feedback.getRating(), 1);
+        }
+        List<RatingSummary> ranked = new ArrayList<>(summaries.values());
+        ranked.sort(FeedbackAnalyticsService.BY_RATING.reversed());
+        return ranked.subList(0, Math.min(TOP_MOVIES, ranked.size()));
+    }
+
+    @Benchmark
+    public List<RatingPeriod> ratingsOverTimeFromSnapshots() {
+        return analyticsService.getRatingsOverTime(from, Duration.ofDays(1), PERIODS, null);
+    }
+
+    @Benchmark
+    public List<RatingPeriod> ratingsOverTimeFromEntities() {
+        List<RatingPeriod> periods = new ArrayList<>(PERIODS);
+        for (int day = 0; day < PERIODS; day++) {
+            periods.add(new RatingPeriod(from.plusDays(day)));
+        }
+        for (Feedback feedback : feedbackService.getAllFeedback()) {
+            long day = ChronoUnit.DAYS.between(from, feedback.getCreatedAt());
+            if (!feedback.getCreatedAt().isBefore(from) && day < PERIODS) {
+                periods.get((int) day).addRatings(feedback.getRating(), 1);
+            }
+        }
+        return periods;
+    }
+}
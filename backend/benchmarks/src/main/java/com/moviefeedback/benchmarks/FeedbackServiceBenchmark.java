@@ -0,0 +1,55 @@
+package com.moviefeedback.benchmarks;
+
+import com.moviefeedback.feedbackservice.FeedbackServiceApplication;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.service.FeedbackService;
+import com.moviefeedback.feedbackservice.service.RatingAggregateService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FeedbackServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private FeedbackService feedbackService;
+    private long movies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplications.start(FeedbackServiceApplication.class, "benchmark-feedback");
+        feedbackService = context.getBean(FeedbackService.class);
+        movies = BenchmarkData.seedFeedback(context.getBean(JdbcTemplate.class), rows);
+        // Rebuilds the rating aggregates and their in-memory mirror from the seeded rows
+        context.getBean(RatingAggregateService.class).reconcile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Feedback createFeedback() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Feedback feedback = new Feedback(1 + random.nextLong(movies), "Benchmark Visitor",
+                "Seen at the benchmark screening", 1 + random.nextInt(5), null);
+        return feedbackService.createFeedback(feedback);
+    }
+
+    @Benchmark
+    public Double getAverageRatingByMovieId() {
+        return feedbackService.getAverageRatingByMovieId(1 + ThreadLocalRandom.current().nextLong(movies));
+    }
+}
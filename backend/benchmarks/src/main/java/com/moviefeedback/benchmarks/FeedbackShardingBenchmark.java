@@ -0,0 +1,90 @@
+package com.moviefeedback.benchmarks;
+
+import com.moviefeedback.feedbackservice.FeedbackServiceApplication;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.service.FeedbackService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Feedback writes and reads per second with feedback spread over 1, 2 and 4 shards. Writes and
+ * reads of one movie go to a single shard; the feedback page is read from every shard and merged.
+ * Each shard is an in-memory database of its own, so the shards only run in parallel on as many
+ * cores as the machine has.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FeedbackShardingBenchmark {
+
+    private static final int FEEDBACK = 100_000;
+    private static final int SEED_BATCH = 5_000;
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    private ConfigurableApplicationContext context;
+    private FeedbackService feedbackService;
+    private long movies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String urls = IntStream.range(0, shards)
+                .mapToObj(shard -> "jdbc:h2:mem:benchmark-shard-" + shard + ";DB_CLOSE_DELAY=-1")
+                .collect(Collectors.joining(","));
+        context = BenchmarkApplications.start(FeedbackServiceApplication.class, "benchmark-feedback",
+                "feedback.shards.urls=" + urls);
+        feedbackService = context.getBean(FeedbackService.class);
+
+        // Seeded through the service, which sends every row to the shard of its movie
+        movies = BenchmarkData.movieCountForFeedback(FEEDBACK);
+        Random random = new Random(42);
+        for (int seeded = 0; seeded < FEEDBACK; seeded += SEED_BATCH) {
+            List<Feedback> batch = new ArrayList<>(SEED_BATCH);
+            for (int i = 0; i < SEED_BATCH; i++) {
+                batch.add(new Feedback(1 + (long) random.nextInt((int) movies), "Benchmark Visitor",
+                        "Seeded for the sharding benchmark", 1 + random.nextInt(5), null));
+            }
+            feedbackService.createFeedbackBulk(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Feedback createFeedback() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Feedback feedback = new Feedback(1 + random.nextLong(movies), "Benchmark Visitor",
+                "Seen at the benchmark screening", 1 + random.nextInt(5), null);
+        return feedbackService.createFeedback(feedback);
+    }
+
+    @Benchmark
+    public List<Feedback> getFeedbackByMovieId() {
+        return feedbackService.getFeedbackByMovieId(1 + ThreadLocalRandom.current().nextLong(movies));
+    }
+
+    // Scatter-gather: every shard returns its first page and the pages are merged
+    @Benchmark
+    public Window<Feedback> getFeedbackByRatingPage() {
+        return feedbackService.getFeedbackByRating(1 + ThreadLocalRandom.current().nextInt(5),
+                ScrollPosition.keyset(), 50);
+    }
+}
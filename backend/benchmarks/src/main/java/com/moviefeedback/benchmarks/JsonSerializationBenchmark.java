@@ -0,0 +1,85 @@
+package com.moviefeedback.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.movieservice.model.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    // Size of the list payloads, matching a typical page of results
+    @Param({"50"})
+    public int listSize;
+
+    // Configured the same way as the ObjectMapper Spring Boot builds for the services
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Movie movie;
+    private Feedback feedback;
+    private List<Movie> movies;
+    private List<Feedback> feedbackList;
+
+    @Setup
+    public void setUp() {
+        movie = movie(1);
+        feedback = feedback(1);
+        movies = new ArrayList<>();
+        feedbackList = new ArrayList<>();
+        for (int i = 0; i < listSize; i++) {
+            movies.add(movie(i + 1));
+            feedbackList.add(feedback(i + 1));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeMovie() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movie);
+    }
+
+    @Benchmark
+    public byte[] serializeFeedback() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(feedback);
+    }
+
+    @Benchmark
+    public byte[] serializeMovieList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movies);
+    }
+
+    @Benchmark
+    public byte[] serializeFeedbackList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(feedbackList);
+    }
+
+    private static Movie movie(long id) {
+        Movie movie = new Movie("The Silent River " + id,
+                "A drifter returns to the river town he left behind and finds it holding its breath.",
+                "Drama", 2019, "Avery Quinn");
+        movie.setId(id);
+        movie.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 30));
+        movie.setUpdatedAt(LocalDateTime.of(2024, 5, 2, 8, 15));
+        return movie;
+    }
+
+    private static Feedback feedback(long id) {
+        Feedback feedback = new Feedback(id, "Harper Logan",
+                "Beautifully shot, and the last act stayed with me for days.", 4, "harper@example.com");
+        feedback.setId(id);
+        feedback.setCreatedAt(LocalDateTime.of(2024, 5, 3, 20, 45));
+        feedback.setUpdatedAt(LocalDateTime.of(2024, 5, 3, 20, 45));
+        return feedback;
+    }
+}
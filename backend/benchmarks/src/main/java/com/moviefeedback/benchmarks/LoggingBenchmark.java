@@ -0,0 +1,120 @@
+package com.moviefeedback.benchmarks;
+
+import com.moviefeedback.movieservice.MovieServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second movie-service serves over HTTP with its default logging (per-call DEBUG
+ * lines, SQL echo, an access line for every request, all written synchronously) against the
+ * prod profile (async JSON, sampled access log). Console output goes to a file, as container
+ * stdout goes to a pipe, so the forked JVM does not stream it back to the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// The HTTP stack takes longer than the service benchmarks to reach steady state
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx2g"})
+public class LoggingBenchmark {
+
+    private static final int ROWS = 1000;
+    // Every basic-auth request re-checks a BCrypt hash, which would dwarf the logging cost
+    private static final String WITHOUT_SECURITY = "spring.autoconfigure.exclude="
+            + "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration,"
+            + "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration";
+
+    @Param({"default", "prod"})
+    public String logging;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        console = System.out;
+        Path output = Files.createTempFile("logging-benchmark-" + logging, ".log");
+        System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(output.toFile())), true));
+
+        context = BenchmarkApplications.startServer(MovieServiceApplication.class, "benchmark-movie",
+                logging.equals("prod") ? prodLogging() : defaultLogging());
+        BenchmarkData.seedMovies(context.getBean(JdbcTemplate.class), ROWS);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(console);
+    }
+
+    // Mirrors the logging settings of movie-service's application.yml
+    private static String[] defaultLogging() {
+        return new String[] {
+                WITHOUT_SECURITY,
+                "logging.level.root=INFO",
+                "logging.level.com.moviefeedback.movieservice=DEBUG",
+                "logging.level.org.springframework.web=DEBUG",
+                "logging.pattern.console=%d{yyyy-MM-dd HH:mm:ss} - %msg%n",
+                "logging.access.sample-rate=1.0",
+                "spring.jpa.show-sql=true",
+                "spring.jpa.properties.hibernate.format_sql=true"
+        };
+    }
+
+    // Mirrors application-prod.yml; the profile also switches logback-spring.xml to async JSON
+    private static String[] prodLogging() {
+        return new String[] {
+                WITHOUT_SECURITY,
+                "spring.profiles.active=prod",
+                "logging.level.root=INFO",
+                "logging.level.com.moviefeedback.movieservice=INFO",
+                "logging.level.org.springframework.web=WARN",
+                "logging.access.sample-rate=0.05",
+                "logging.access.slow-threshold=PT0.5S",
+                "spring.jpa.show-sql=false"
+        };
+    }
+
+    // Served from the movie cache after warm-up, so logging is a large share of the work
+    @Benchmark
+    public int getMovieById() throws IOException, InterruptedException {
+        return get("/api/movies/" + (1 + ThreadLocalRandom.current().nextInt(ROWS)));
+    }
+
+    // Uncached, so the default logging also echoes the SQL
+    @Benchmark
+    public int queryMovies() throws IOException, InterruptedException {
+        String genre = BenchmarkData.GENRES[ThreadLocalRandom.current().nextInt(BenchmarkData.GENRES.length)];
+        return get("/api/movies?genre=" + genre + "&sort=year&limit=20");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
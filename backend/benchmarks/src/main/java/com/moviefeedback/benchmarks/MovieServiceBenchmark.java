@@ -0,0 +1,72 @@
+package com.moviefeedback.benchmarks;
+
+import com.moviefeedback.movieservice.MovieServiceApplication;
+import com.moviefeedback.movieservice.model.Movie;
+import com.moviefeedback.movieservice.search.MovieSearchIndex;
+import com.moviefeedback.movieservice.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class MovieServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    // "none" disables the read-through cache to measure the database path
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplications.start(MovieServiceApplication.class, "benchmark-movie",
+                "spring.cache.type=" + cache);
+        movieService = context.getBean(MovieService.class);
+        BenchmarkData.seedMovies(context.getBean(JdbcTemplate.class), rows);
+        context.getBean(MovieSearchIndex.class).rebuild(movieService::exportMovies);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Movie> getAllMovies() {
+        return movieService.getAllMovies();
+    }
+
+    @Benchmark
+    public Optional<Movie> getMovieById() {
+        return movieService.getMovieById(1 + ThreadLocalRandom.current().nextLong(rows));
+    }
+
+    @Benchmark
+    public List<Movie> searchMoviesByWord() {
+        return movieService.searchMovies("river");
+    }
+
+    @Benchmark
+    public List<Movie> searchMoviesByPrefix() {
+        return movieService.searchMovies("silent riv");
+    }
+
+    @Benchmark
+    public List<Movie> searchMoviesWithTypo() {
+        return movieService.searchMovies("thundr");
+    }
+}
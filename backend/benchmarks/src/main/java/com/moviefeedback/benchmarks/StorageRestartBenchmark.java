@@ -0,0 +1,66 @@
+package com.moviefeedback.benchmarks;
+
+import com.moviefeedback.movieservice.MovieServiceApplication;
+import com.moviefeedback.movieservice.search.MovieSearchIndex;
+import com.moviefeedback.movieservice.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from a movie-service start until it serves its full catalogue again. The in-memory
+ * database comes back empty, so its restart includes loading the movies again, as a deployment
+ * without the persistent profile would have to; the file-backed database only has to be reopened
+ * and its search index rebuilt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class StorageRestartBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"memory", "file"})
+    public String storage;
+
+    private String[] overrides = new String[0];
+    private ConfigurableApplicationContext context;
+
+    // Writes the catalogue to the file once, so that every measured start finds it there
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (storage.equals("file")) {
+            overrides = BenchmarkApplications.fileStorage(Files.createTempDirectory("storage-restart-benchmark"),
+                    "moviedb");
+            ConfigurableApplicationContext seeding = BenchmarkApplications.start(MovieServiceApplication.class,
+                    "benchmark-movie", overrides);
+            BenchmarkData.seedMovies(seeding.getBean(JdbcTemplate.class), rows);
+            seeding.close();
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int restart() {
+        context = BenchmarkApplications.start(MovieServiceApplication.class, "benchmark-movie", overrides);
+        if (storage.equals("memory")) {
+            BenchmarkData.seedMovies(context.getBean(JdbcTemplate.class), rows);
+            // The start-up rebuild ran against the empty database
+            context.getBean(MovieSearchIndex.class).rebuild(context.getBean(MovieService.class)::exportMovies);
+        }
+        return context.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM movies", Integer.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.moviefeedback.benchmarks;
+
+import com.moviefeedback.feedbackservice.FeedbackServiceApplication;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.service.FeedbackService;
+import com.moviefeedback.feedbackservice.service.RatingAggregateService;
+import com.moviefeedback.movieservice.MovieServiceApplication;
+import com.moviefeedback.movieservice.model.Movie;
+import com.moviefeedback.movieservice.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes per second against the in-memory database and the file-backed one of the persistent
+ * profile, with several writers committing at once as under concurrent requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class StorageWriteBenchmark {
+
+    private static final int MOVIES = 10_000;
+    private static final int FEEDBACK = 100_000;
+
+    @Param({"memory", "file"})
+    public String storage;
+
+    private ConfigurableApplicationContext movieContext;
+    private ConfigurableApplicationContext feedbackContext;
+    private MovieService movieService;
+    private FeedbackService feedbackService;
+    private long movies;
+    // Titles have to be unique, so every created movie gets the next number
+    private final AtomicLong titles = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path dataDir = Files.createTempDirectory("storage-write-benchmark");
+        movieContext = BenchmarkApplications.start(MovieServiceApplication.class, "benchmark-movie",
+                overrides(dataDir, "moviedb"));
+        movieService = movieContext.getBean(MovieService.class);
+        BenchmarkData.seedMovies(movieContext.getBean(JdbcTemplate.class), MOVIES);
+
+        feedbackContext = BenchmarkApplications.start(FeedbackServiceApplication.class, "benchmark-feedback",
+                overrides(dataDir, "feedbackdb"));
+        feedbackService = feedbackContext.getBean(FeedbackService.class);
+        movies = BenchmarkData.seedFeedback(feedbackContext.getBean(JdbcTemplate.class), FEEDBACK);
+        feedbackContext.getBean(RatingAggregateService.class).reconcile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        feedbackContext.close();
+        movieContext.close();
+    }
+
+    private String[] overrides(Path dataDir, String database) {
+        return storage.equals("file") ? BenchmarkApplications.fileStorage(dataDir, database) : new String[0];
+    }
+
+    @Benchmark
+    public Movie createMovie() {
+        String genre = BenchmarkData.GENRES[ThreadLocalRandom.current().nextInt(BenchmarkData.GENRES.length)];
+        return movieService.createMovie(new Movie("Benchmark Premiere " + titles.incrementAndGet(),
+                "Written by the storage benchmark", genre, 2024, "Benchmark Director"));
+    }
+
+    // Also updates the movie's rating aggregate in the same transaction
+    @Benchmark
+    public Feedback createFeedback() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Feedback feedback = new Feedback(1 + random.nextLong(movies), "Benchmark Visitor",
+                "Seen at the benchmark screening", 1 + random.nextInt(5), null);
+        return feedbackService.createFeedback(feedback);
+    }
+}
@@ -1,11 +1,16 @@
 package com.moviefeedback.feedbackservice;
 
+import com.moviefeedback.datasource.ReplicaRoutingConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
+@Import(ReplicaRoutingConfiguration.class)
 public class FeedbackServiceApplication {
 
     public static void main(String[] args) {
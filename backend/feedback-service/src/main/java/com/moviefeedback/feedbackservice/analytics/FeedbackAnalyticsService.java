@@ -0,0 +1,231 @@
+package com.moviefeedback.feedbackservice.analytics;
+
+import com.moviefeedback.feedbackservice.dto.RatingDistribution;
+import com.moviefeedback.feedbackservice.dto.RatingPeriod;
+import com.moviefeedback.feedbackservice.dto.RatingSummary;
+import com.moviefeedback.feedbackservice.sharding.FeedbackShards;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Answers the dashboard's rating analytics from {@link FeedbackSnapshot}s of every shard instead
+ * of loading feedback entities. Snapshots are retaken every snapshot-interval, so the figures
+ * trail the feedback table by up to that interval.
+ */
+@Service
+public class FeedbackAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackAnalyticsService.class);
+
+    public static final Comparator<RatingSummary> BY_RATING =
+            Comparator.comparingDouble(RatingSummary::getAverageRating).thenComparingLong(RatingSummary::getCount);
+    public static final Comparator<RatingSummary> BY_COUNT =
+            Comparator.comparingLong(RatingSummary::getCount).thenComparingDouble(RatingSummary::getAverageRating);
+
+    private final FeedbackShards shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path snapshotDir;
+    // One per shard, replaced as a whole; empty until the first snapshots are taken
+    private volatile List<FeedbackSnapshot> snapshots = List.of();
+
+    @Autowired
+    public FeedbackAnalyticsService(FeedbackShards shards,
+                                    DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${feedback.analytics.snapshot-dir:${java.io.tmpdir}/feedback-snapshots}") Path snapshotDir) {
+        this.shards = shards;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.snapshotDir = snapshotDir;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void snapshotOnStartup() {
+        takeSnapshots();
+    }
+
+    @Scheduled(initialDelayString = "${feedback.analytics.snapshot-interval:PT5M}",
+               fixedDelayString = "${feedback.analytics.snapshot-interval:PT5M}")
+    public synchronized void takeSnapshots() {
+        long start = System.nanoTime();
+        Instant takenAt = Instant.now();
+        try {
+            Files.createDirectories(snapshotDir);
+            List<FeedbackSnapshot> taken = shards.onAllShards(shard -> takeSnapshot(shard, takenAt));
+            List<FeedbackSnapshot> previous = snapshots;
+            snapshots = taken;
+            // Queries still scanning the previous snapshots keep their mappings
+            previous.forEach(snapshot -> delete(snapshot.getFile()));
+            logger.info("Feedback snapshots taken: {} rows in {} ms",
+                    taken.stream().mapToLong(FeedbackSnapshot::rows).sum(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            logger.warn("Could not take feedback snapshots, keeping the previous ones: {}", e.toString());
+        }
+    }
+
+    private FeedbackSnapshot takeSnapshot(int shard, Instant takenAt) {
+        Path file = snapshotDir.resolve("feedback-" + shard + "-" + takenAt.toEpochMilli() + ".snapshot");
+        try (FeedbackSnapshotWriter writer = new FeedbackSnapshotWriter(snapshotDir)) {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(FeedbackSnapshotWriter.QUERY, writer));
+            return writer.finish(file, takenAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void deleteSnapshots() {
+        snapshots.forEach(snapshot -> delete(snapshot.getFile()));
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete feedback snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    public Optional<Instant> getSnapshotTakenAt() {
+        List<FeedbackSnapshot> current = snapshots;
+        return current.isEmpty() ? Optional.empty() : Optional.of(current.get(0).getTakenAt());
+    }
+
+    /**
+     * Returns up to limit movies with at least minCount ratings created in [from, to), best
+     * first in the given order. A null bound leaves that side of the range open.
+     */
+    public List<RatingSummary> getTopMovies(int limit, long minCount, Comparator<RatingSummary> order,
+                                            LocalDateTime from, LocalDateTime to) {
+        logger.debug("Ranking top {} movies from feedback snapshots", limit);
+        // Smallest first, so the head is the movie to drop when a better one turns up
+        PriorityQueue<RatingSummary> top = new PriorityQueue<>(limit + 1, order);
+        for (FeedbackSnapshot snapshot : snapshots) {
+            long[] counts = snapshot.countRatingsByMovie(secondOf(from, Long.MIN_VALUE), secondOf(to, Long.MAX_VALUE));
+            for (int code = 0; code < snapshot.movies(); code++) {
+                RatingSummary summary = new RatingSummary(snapshot.movieId(code));
+                for (int rating = 1; rating <= 5; rating++) {
+                    summary.addRatings(rating, counts[code * 5 + rating - 1]);
+                }
+                if (summary.getCount() >= Math.max(1, minCount)) {
+                    top.add(summary);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        List<RatingSummary> ranked = new ArrayList<>(top);
+        ranked.sort(order.reversed());
+        return ranked;
+    }
+
+    /**
+     * Returns the ratings created in [from, to) of every group of movies, in the order of the
+     * groups. A group without movie ids covers all movies.
+     */
+    public List<RatingDistribution> getDistributions(Map<String, ? extends Collection<Long>> groups,
+                                                     LocalDateTime from, LocalDateTime to) {
+        logger.debug("Building rating distributions of {} groups from feedback snapshots", groups.size());
+        List<RatingDistribution> distributions = new ArrayList<>();
+        groups.keySet().forEach(group -> distributions.add(new RatingDistribution(group)));
+        for (FeedbackSnapshot snapshot : snapshots) {
+            long[] counts = snapshot.countRatingsByMovie(secondOf(from, Long.MIN_VALUE), secondOf(to, Long.MAX_VALUE));
+            int index = 0;
+            for (Collection<Long> movieIds : groups.values()) {
+                RatingDistribution distribution = distributions.get(index++);
+                if (movieIds == null || movieIds.isEmpty()) {
+                    for (int code = 0; code < snapshot.movies(); code++) {
+                        addMovie(distribution, counts, code);
+                    }
+                } else {
+                    for (Long movieId : movieIds) {
+                        int code = snapshot.codeOf(movieId);
+                        if (code >= 0) {
+                            addMovie(distribution, counts, code);
+                        }
+                    }
+                }
+            }
+        }
+        return distributions;
+    }
+
+    /**
+     * Returns the ratings created in each of periods consecutive periods from from, of the given
+     * movies or, without movie ids, of all movies.
+     */
+    public List<RatingPeriod> getRatingsOverTime(LocalDateTime from, Duration period, int periods,
+                                                 Collection<Long> movieIds) {
+        logger.debug("Building {} rating periods from feedback snapshots", periods);
+        long[] totals = new long[periods * 5];
+        for (FeedbackSnapshot snapshot : snapshots) {
+            boolean[] filter = null;
+            if (movieIds != null && !movieIds.isEmpty()) {
+                filter = new boolean[snapshot.movies()];
+                for (Long movieId : movieIds) {
+                    int code = snapshot.codeOf(movieId);
+                    if (code >= 0) {
+                        filter[code] = true;
+                    }
+                }
+            }
+            long[] counts = snapshot.countRatingsByPeriod(secondOf(from, 0), period.toSeconds(), periods, filter);
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += counts[i];
+            }
+        }
+
+        List<RatingPeriod> result = new ArrayList<>(periods);
+        for (int index = 0; index < periods; index++) {
+            RatingPeriod ratingPeriod = new RatingPeriod(from.plus(period.multipliedBy(index)));
+            for (int rating = 1; rating <= 5; rating++) {
+                ratingPeriod.addRatings(rating, totals[index * 5 + rating - 1]);
+            }
+            result.add(ratingPeriod);
+        }
+        return result;
+    }
+
+    private static void addMovie(RatingDistribution distribution, long[] counts, int code) {
+        for (int rating = 1; rating <= 5; rating++) {
+            distribution.addRatings(rating, counts[code * 5 + rating - 1]);
+        }
+    }
+
+    // Snapshots hold created-at times as UTC seconds
+    private static long secondOf(LocalDateTime time, long unbounded) {
+        return time == null ? unbounded : time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
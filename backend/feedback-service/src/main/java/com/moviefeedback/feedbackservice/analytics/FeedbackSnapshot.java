@@ -0,0 +1,186 @@
+package com.moviefeedback.feedbackservice.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A read-only, memory-mapped copy of the feedback table's rating columns, laid out by column:
+ * <pre>
+ * header          magic, taken-at millis, rows, movies, blocks
+ * long[movies]    dictionary: the movie id of every movie code
+ * long[blocks]    epoch second of the first row of every block
+ * int[rows]       movie code of every row
+ * int[rows]       seconds since the previous row of the block, 0 for the first row of a block
+ * byte[rows]      rating of every row
+ * </pre>
+ * Rows are in created-at order and grouped in blocks of BLOCK_ROWS, so every block can be
+ * decoded on its own and blocks outside a time range are skipped. The scans run over the blocks
+ * in parallel and only allocate their result arrays. Created-at times are taken as UTC.
+ */
+public final class FeedbackSnapshot {
+
+    static final int MAGIC = 0x46425331;
+    static final int HEADER_BYTES = 24;
+    static final int BLOCK_ROWS = 1 << 16;
+
+    private final Path file;
+    private final Instant takenAt;
+    private final int rows;
+    private final long[] movieIds;
+    private final Map<Long, Integer> movieCodes;
+    private final long[] blockStarts;
+    private final IntBuffer codes;
+    private final IntBuffer secondDeltas;
+    private final ByteBuffer ratings;
+
+    private FeedbackSnapshot(Path file, Instant takenAt, int rows, long[] movieIds, long[] blockStarts,
+                             IntBuffer codes, IntBuffer secondDeltas, ByteBuffer ratings) {
+        this.file = file;
+        this.takenAt = takenAt;
+        this.rows = rows;
+        this.movieIds = movieIds;
+        this.blockStarts = blockStarts;
+        this.codes = codes;
+        this.secondDeltas = secondDeltas;
+        this.ratings = ratings;
+        this.movieCodes = new HashMap<>(movieIds.length * 2);
+        for (int code = 0; code < movieIds.length; code++) {
+            movieCodes.put(movieIds[code], code);
+        }
+    }
+
+    /**
+     * Maps a file written by {@link FeedbackSnapshotWriter}. The mapping stays valid after the
+     * file is deleted, until the snapshot is garbage collected.
+     */
+    public static FeedbackSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a feedback snapshot: " + file);
+            }
+            Instant takenAt = Instant.ofEpochMilli(header.getLong());
+            int rows = header.getInt();
+            int movies = header.getInt();
+            int blocks = header.getInt();
+
+            long offset = HEADER_BYTES;
+            long[] movieIds = new long[movies];
+            channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) movies * Long.BYTES).asLongBuffer().get(movieIds);
+            offset += (long) movies * Long.BYTES;
+            long[] blockStarts = new long[blocks];
+            channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) blocks * Long.BYTES).asLongBuffer().get(blockStarts);
+            offset += (long) blocks * Long.BYTES;
+            IntBuffer codes = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rows * Integer.BYTES).asIntBuffer();
+            offset += (long) rows * Integer.BYTES;
+            IntBuffer secondDeltas = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rows * Integer.BYTES).asIntBuffer();
+            offset += (long) rows * Integer.BYTES;
+            ByteBuffer ratings = channel.map(FileChannel.MapMode.READ_ONLY, offset, rows);
+            if (offset + rows != channel.size()) {
+                throw new IOException("Truncated feedback snapshot: " + file);
+            }
+            return new FeedbackSnapshot(file, takenAt, rows, movieIds, blockStarts, codes, secondDeltas, ratings);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int movies() {
+        return movieIds.length;
+    }
+
+    public long movieId(int code) {
+        return movieIds[code];
+    }
+
+    // -1 for movies without feedback in the snapshot
+    public int codeOf(Long movieId) {
+        return movieCodes.getOrDefault(movieId, -1);
+    }
+
+    /**
+     * Counts the ratings of every movie created in [fromSecond, toSecond). The count of rating r
+     * for movie code c is at index c * 5 + r - 1.
+     */
+    public long[] countRatingsByMovie(long fromSecond, long toSecond) {
+        int size = movieIds.length * 5;
+        return IntStream.range(0, blockStarts.length).parallel().collect(() -> new long[size],
+                (counts, block) -> countByMovie(block, fromSecond, toSecond, counts), FeedbackSnapshot::addTo);
+    }
+
+    /**
+     * Counts the ratings created in each of periods consecutive periods of periodSeconds from
+     * fromSecond. The count of rating r in period p is at index p * 5 + r - 1. With a filter,
+     * only rows whose movie code is set in it are counted.
+     */
+    public long[] countRatingsByPeriod(long fromSecond, long periodSeconds, int periods, boolean[] movieFilter) {
+        long toSecond = fromSecond + periodSeconds * periods;
+        return IntStream.range(0, blockStarts.length).parallel().collect(() -> new long[periods * 5],
+                (counts, block) -> countByPeriod(block, fromSecond, toSecond, periodSeconds, movieFilter, counts),
+                FeedbackSnapshot::addTo);
+    }
+
+    private void countByMovie(int block, long fromSecond, long toSecond, long[] counts) {
+        if (outside(block, fromSecond, toSecond)) {
+            return;
+        }
+        int end = Math.min(rows, (block + 1) * BLOCK_ROWS);
+        long second = blockStarts[block];
+        for (int row = block * BLOCK_ROWS; row < end; row++) {
+            second += secondDeltas.get(row);
+            if (second >= toSecond) {
+                break;
+            }
+            if (second >= fromSecond) {
+                counts[codes.get(row) * 5 + ratings.get(row) - 1]++;
+            }
+        }
+    }
+
+    private void countByPeriod(int block, long fromSecond, long toSecond, long periodSeconds, boolean[] movieFilter,
+                               long[] counts) {
+        if (outside(block, fromSecond, toSecond)) {
+            return;
+        }
+        int end = Math.min(rows, (block + 1) * BLOCK_ROWS);
+        long second = blockStarts[block];
+        for (int row = block * BLOCK_ROWS; row < end; row++) {
+            second += secondDeltas.get(row);
+            if (second >= toSecond) {
+                break;
+            }
+            if (second >= fromSecond && (movieFilter == null || movieFilter[codes.get(row)])) {
+                counts[(int) ((second - fromSecond) / periodSeconds) * 5 + ratings.get(row) - 1]++;
+            }
+        }
+    }
+
+    // Rows are in created-at order, so a block ends before the next one starts
+    private boolean outside(int block, long fromSecond, long toSecond) {
+        return blockStarts[block] >= toSecond || (block + 1 < blockStarts.length && blockStarts[block + 1] < fromSecond);
+    }
+
+    private static void addTo(long[] target, long[] counts) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += counts[i];
+        }
+    }
+}
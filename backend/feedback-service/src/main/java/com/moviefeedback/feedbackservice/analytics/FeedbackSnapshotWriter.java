@@ -0,0 +1,143 @@
+package com.moviefeedback.feedbackservice.analytics;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link FeedbackSnapshot} from rows of movie_id, rating and created_at in created-at
+ * order. The row columns are streamed to temporary files while the rows are read, as their
+ * length is only known at the end, and are then appended to the header and dictionary.
+ */
+class FeedbackSnapshotWriter implements RowCallbackHandler, AutoCloseable {
+
+    static final String QUERY = "SELECT movie_id, rating, created_at FROM feedback ORDER BY created_at, id";
+
+    private final Path codesFile;
+    private final Path deltasFile;
+    private final Path ratingsFile;
+    private final DataOutputStream codes;
+    private final DataOutputStream deltas;
+    private final DataOutputStream ratings;
+    private final Map<Long, Integer> movieCodes = new HashMap<>();
+    private long[] movieIds = new long[1024];
+    private long[] blockStarts = new long[16];
+    private int rows;
+    private long previousSecond;
+
+    FeedbackSnapshotWriter(Path directory) throws IOException {
+        codesFile = Files.createTempFile(directory, "codes", ".tmp");
+        deltasFile = Files.createTempFile(directory, "deltas", ".tmp");
+        ratingsFile = Files.createTempFile(directory, "ratings", ".tmp");
+        codes = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(codesFile)));
+        deltas = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(deltasFile)));
+        ratings = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(ratingsFile)));
+    }
+
+    @Override
+    public void processRow(ResultSet resultSet) throws SQLException {
+        long movieId = resultSet.getLong(1);
+        int rating = resultSet.getInt(2);
+        long second = resultSet.getObject(3, LocalDateTime.class).toEpochSecond(ZoneOffset.UTC);
+        try {
+            addRow(movieId, rating, second);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void addRow(long movieId, int rating, long second) throws IOException {
+        Integer code = movieCodes.get(movieId);
+        if (code == null) {
+            code = movieCodes.size();
+            movieCodes.put(movieId, code);
+            if (code == movieIds.length) {
+                movieIds = Arrays.copyOf(movieIds, code * 2);
+            }
+            movieIds[code] = movieId;
+        }
+
+        long delta = second - previousSecond;
+        if (rows % FeedbackSnapshot.BLOCK_ROWS == 0) {
+            int block = rows / FeedbackSnapshot.BLOCK_ROWS;
+            if (block == blockStarts.length) {
+                blockStarts = Arrays.copyOf(blockStarts, block * 2);
+            }
+            blockStarts[block] = second;
+            delta = 0;
+        } else if (delta < 0 || delta > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Rows are not in created-at order at row " + rows);
+        }
+
+        codes.writeInt(code);
+        deltas.writeInt((int) delta);
+        ratings.writeByte(rating);
+        previousSecond = second;
+        rows++;
+    }
+
+    /**
+     * Writes the snapshot to the file, replacing it atomically, and opens it.
+     */
+    FeedbackSnapshot finish(Path file, Instant takenAt) throws IOException {
+        codes.close();
+        deltas.close();
+        ratings.close();
+
+        int movies = movieCodes.size();
+        int blocks = (rows + FeedbackSnapshot.BLOCK_ROWS - 1) / FeedbackSnapshot.BLOCK_ROWS;
+        Path partial = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer head = ByteBuffer.allocate(FeedbackSnapshot.HEADER_BYTES + (movies + blocks) * Long.BYTES);
+                head.putInt(FeedbackSnapshot.MAGIC).putLong(takenAt.toEpochMilli()).putInt(rows).putInt(movies).putInt(blocks);
+                head.asLongBuffer().put(movieIds, 0, movies).put(blockStarts, 0, blocks);
+                head.rewind();
+                while (head.hasRemaining()) {
+                    channel.write(head);
+                }
+                for (Path column : List.of(codesFile, deltasFile, ratingsFile)) {
+                    try (FileChannel source = FileChannel.open(column, StandardOpenOption.READ)) {
+                        long position = 0;
+                        while (position < source.size()) {
+                            position += source.transferTo(position, source.size() - position, channel);
+                        }
+                    }
+                }
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return FeedbackSnapshot.open(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        codes.close();
+        deltas.close();
+        ratings.close();
+        Files.deleteIfExists(codesFile);
+        Files.deleteIfExists(deltasFile);
+        Files.deleteIfExists(ratingsFile);
+    }
+}
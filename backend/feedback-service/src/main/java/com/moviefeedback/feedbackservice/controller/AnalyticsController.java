@@ -0,0 +1,159 @@
+package com.moviefeedback.feedbackservice.controller;
+
+import com.moviefeedback.feedbackservice.analytics.FeedbackAnalyticsService;
+import com.moviefeedback.feedbackservice.dto.RatingDistribution;
+import com.moviefeedback.feedbackservice.dto.RatingPeriod;
+import com.moviefeedback.feedbackservice.dto.RatingSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Rating analytics for the admin dashboard, computed from the feedback snapshots. Dates are
+ * ISO dates and ranges run from the start of from to the start of to. Every response carries
+ * the time its snapshots were taken, which also serves as its ETag.
+ */
+@RestController
+@RequestMapping("/api/feedback/analytics")
+@CrossOrigin(origins = "*", exposedHeaders = AnalyticsController.SNAPSHOT_TAKEN_AT_HEADER)
+public class AnalyticsController {
+
+    static final String SNAPSHOT_TAKEN_AT_HEADER = "X-Snapshot-Taken-At";
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+
+    private final FeedbackAnalyticsService analyticsService;
+    private final int maxPeriods;
+    private final int maxTopMovies;
+    private final CacheControl cacheControl;
+
+    @Autowired
+    public AnalyticsController(FeedbackAnalyticsService analyticsService,
+                               @Value("${feedback.analytics.max-periods:1000}") int maxPeriods,
+                               @Value("${feedback.analytics.max-top-movies:100}") int maxTopMovies,
+                               @Value("${http.cache.shared-max-age:PT5S}") Duration sharedMaxAge) {
+        this.analyticsService = analyticsService;
+        this.maxPeriods = maxPeriods;
+        this.maxTopMovies = maxTopMovies;
+        // Only rating figures, like the rating endpoints
+        this.cacheControl = CacheControl.maxAge(Duration.ZERO).mustRevalidate().cachePublic().sMaxAge(sharedMaxAge);
+    }
+
+    // Defaults to the last 30 days, one period per day
+    @GetMapping("/ratings-over-time")
+    public ResponseEntity<List<RatingPeriod>> getRatingsOverTime(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "1") int periodDays,
+            @RequestParam(required = false) Set<Long> movieIds,
+            WebRequest request) {
+        logger.debug("GET /api/feedback/analytics/ratings-over-time - Fetching ratings from {} to {}", from, to);
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+        if (periodDays < 1 || !start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must lie before to and periodDays be at least 1");
+        }
+        long periods = (ChronoUnit.DAYS.between(start, end) + periodDays - 1) / periodDays;
+        if (periods > maxPeriods) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxPeriods + " periods can be requested");
+        }
+        return fromSnapshots(request, () -> analyticsService.getRatingsOverTime(start.atStartOfDay(),
+                Duration.ofDays(periodDays), (int) periods, movieIds));
+    }
+
+    @GetMapping("/top-movies")
+    public ResponseEntity<List<RatingSummary>> getTopMovies(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "1") long minCount,
+            @RequestParam(defaultValue = "rating") String sort,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        logger.debug("GET /api/feedback/analytics/top-movies - Ranking top {} movies by {}", limit, sort);
+        Comparator<RatingSummary> order = switch (sort) {
+            case "rating" -> FeedbackAnalyticsService.BY_RATING;
+            case "count" -> FeedbackAnalyticsService.BY_COUNT;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort must be rating or count");
+        };
+        if (limit < 1 || limit > maxTopMovies) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must lie between 1 and " + maxTopMovies);
+        }
+        return fromSnapshots(request, () -> analyticsService.getTopMovies(limit, minCount, order,
+                startOf(from), startOf(to)));
+    }
+
+    // The distribution of all movies, or of the given ones
+    @GetMapping("/distribution")
+    public ResponseEntity<RatingDistribution> getDistribution(
+            @RequestParam(required = false) Set<Long> movieIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        logger.debug("GET /api/feedback/analytics/distribution - Building rating distribution");
+        String group = movieIds == null || movieIds.isEmpty() ? "all" : "selected";
+        Map<String, Set<Long>> groups = new LinkedHashMap<>();
+        groups.put(group, movieIds);
+        return fromSnapshots(request, () -> analyticsService.getDistributions(groups, startOf(from), startOf(to)).get(0));
+    }
+
+    // One distribution per named group of movie ids, e.g. the movies of every genre
+    @PostMapping("/distribution")
+    public ResponseEntity<List<RatingDistribution>> getDistributions(
+            @RequestBody Map<String, List<Number>> body,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.debug("POST /api/feedback/analytics/distribution - Building rating distributions of {} groups", body.size());
+        // JSON numbers bind as Integer or Long by size, so the ids are widened here
+        Map<String, Set<Long>> groups = new LinkedHashMap<>();
+        body.forEach((group, ids) -> groups.put(group, ids == null ? null
+                : ids.stream().map(Number::longValue).collect(Collectors.toSet())));
+        Instant takenAt = analyticsService.getSnapshotTakenAt().orElseThrow(AnalyticsController::notReady);
+        return ResponseEntity.ok()
+                .header(SNAPSHOT_TAKEN_AT_HEADER, takenAt.toString())
+                .body(analyticsService.getDistributions(groups, startOf(from), startOf(to)));
+    }
+
+    // Nothing changes between snapshots, so a request for the same snapshot costs no scan
+    private <T> ResponseEntity<T> fromSnapshots(WebRequest request, Supplier<T> query) {
+        Instant takenAt = analyticsService.getSnapshotTakenAt().orElseThrow(AnalyticsController::notReady);
+        String eTag = "\"" + takenAt.toEpochMilli() + "\"";
+        if (request.checkNotModified(eTag, takenAt.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .header(SNAPSHOT_TAKEN_AT_HEADER, takenAt.toString())
+                .eTag(eTag)
+                .lastModified(takenAt)
+                .cacheControl(cacheControl)
+                .body(query.get());
+    }
+
+    private static ResponseStatusException notReady() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No feedback snapshot has been taken yet");
+    }
+
+    private static LocalDateTime startOf(LocalDate date) {
+        return date == null ? null : date.atStartOfDay();
+    }
+}
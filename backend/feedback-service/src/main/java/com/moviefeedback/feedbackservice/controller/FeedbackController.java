@@ -1,50 +1,150 @@
 package com.moviefeedback.feedbackservice.controller;
 
+import com.moviefeedback.feedbackservice.dto.BulkFeedbackResult;
+import com.moviefeedback.feedbackservice.dto.FeedbackStats;
+import com.moviefeedback.feedbackservice.dto.FeedbackSubmission;
+import com.moviefeedback.feedbackservice.dto.RatingSummary;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.model.FeedbackEvent;
+import com.moviefeedback.feedbackservice.pagination.KeysetCursor;
+import com.moviefeedback.feedbackservice.service.CollectionVersions;
+import com.moviefeedback.feedbackservice.service.FeedbackEventOutbox;
 import com.moviefeedback.feedbackservice.service.FeedbackService;
+import com.moviefeedback.feedbackservice.service.FeedbackWriteBehindQueue;
+import com.moviefeedback.feedbackservice.sharding.FeedbackShards;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/feedback")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = FeedbackController.NEXT_CURSOR_HEADER)
 public class FeedbackController {
     
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String LAST_EVENT_ID_HEADER = "X-Last-Event-Id";
+    static final String SHARD_COUNT_HEADER = "X-Shard-Count";
+    static final String EVENT_LOG_ID_HEADER = "X-Event-Log-Id";
+    
     private static final Logger logger = LoggerFactory.getLogger(FeedbackController.class);
     
     private final FeedbackService feedbackService;
+    private final CollectionVersions collectionVersions;
+    private final FeedbackEventOutbox eventOutbox;
+    private final FeedbackShards shards;
+    private final Optional<FeedbackWriteBehindQueue> writeBehindQueue;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBulkItems;
+    private final int maxSummaryMovieIds;
+    private final int defaultRecentLimit;
+    private final CacheControl feedbackCacheControl;
+    private final CacheControl ratingCacheControl;
     
     @Autowired
-    public FeedbackController(FeedbackService feedbackService) {
+    public FeedbackController(FeedbackService feedbackService,
+                              CollectionVersions collectionVersions,
+                              FeedbackEventOutbox eventOutbox,
+                              FeedbackShards shards,
+                              Optional<FeedbackWriteBehindQueue> writeBehindQueue,
+                              ObjectMapper objectMapper,
+                              @Value("${pagination.default-page-size:50}") int defaultPageSize,
+                              @Value("${pagination.max-page-size:500}") int maxPageSize,
+                              @Value("${feedback.bulk.max-items:50000}") int maxBulkItems,
+                              @Value("${feedback.ratings.max-movie-ids:1000}") int maxSummaryMovieIds,
+                              @Value("${feedback.recent.default-limit:10}") int defaultRecentLimit,
+                              @Value("${http.cache.shared-max-age:PT5S}") Duration sharedMaxAge) {
         this.feedbackService = feedbackService;
+        this.collectionVersions = collectionVersions;
+        this.eventOutbox = eventOutbox;
+        this.shards = shards;
+        this.writeBehindQueue = writeBehindQueue;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBulkItems = maxBulkItems;
+        this.maxSummaryMovieIds = maxSummaryMovieIds;
+        this.defaultRecentLimit = defaultRecentLimit;
+        // Feedback carries visitor details, so only the browser may keep it; rating figures may also sit in shared caches
+        this.feedbackCacheControl = CacheControl.noCache().cachePrivate();
+        this.ratingCacheControl = CacheControl.maxAge(Duration.ZERO).mustRevalidate().cachePublic().sMaxAge(sharedMaxAge);
     }
     
     @GetMapping
-    public ResponseEntity<List<Feedback>> getAllFeedback() {
-        logger.info("GET /api/feedback - Fetching all feedback");
-        List<Feedback> feedback = feedbackService.getAllFeedback();
-        return ResponseEntity.ok(feedback);
+    public ResponseEntity<List<Feedback>> getAllFeedback(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         WebRequest request) {
+        logger.debug("GET /api/feedback - Fetching all feedback");
+        return conditional(request, CollectionVersions.FEEDBACK, feedbackCacheControl, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(feedbackService.getFeedbackPage(position(cursor), pageSize(limit)));
+            }
+            List<Feedback> feedback = feedbackService.getAllFeedback();
+            return ResponseEntity.ok(feedback);
+        });
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportFeedback(@RequestParam(required = false) Long movieId) {
+        logger.debug("GET /api/feedback/export - Streaming feedback as NDJSON");
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            feedbackService.exportFeedback(movieId, item -> writeLine(out, item));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<Feedback> getFeedbackById(@PathVariable Long id) {
-        logger.info("GET /api/feedback/{} - Fetching feedback by id", id);
+        logger.debug("GET /api/feedback/{} - Fetching feedback by id", id);
         Optional<Feedback> feedback = feedbackService.getFeedbackById(id);
-        return feedback.map(ResponseEntity::ok)
+        // Spring answers 304 itself when the request's If-None-Match or If-Modified-Since still matches
+        return feedback.map(found -> ResponseEntity.ok()
+                              .eTag(eTag(found))
+                              .lastModified(found.getUpdatedAt().atZone(ZoneId.systemDefault()))
+                              .cacheControl(feedbackCacheControl)
+                              .body(found))
                       .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping
-    public ResponseEntity<Feedback> createFeedback(@Valid @RequestBody Feedback feedback) {
-        logger.info("POST /api/feedback - Creating new feedback for movie: {}", feedback.getMovieId());
+    public ResponseEntity<?> createFeedback(@Valid @RequestBody Feedback feedback) {
+        logger.debug("POST /api/feedback - Creating new feedback for movie: {}", feedback.getMovieId());
+        if (writeBehindQueue.isPresent()) {
+            return enqueueFeedback(writeBehindQueue.get(), feedback);
+        }
         try {
             Feedback createdFeedback = feedbackService.createFeedback(feedback);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdFeedback);
@@ -54,9 +154,29 @@ public class FeedbackController {
         }
     }
     
+    @GetMapping("/submissions/{submissionId}")
+    public ResponseEntity<FeedbackSubmission> getSubmission(@PathVariable String submissionId) {
+        logger.debug("GET /api/feedback/submissions/{} - Fetching submission status", submissionId);
+        return writeBehindQueue.flatMap(queue -> queue.getSubmission(submissionId))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkFeedbackResult> createFeedbackBulk(InputStream body) {
+        List<Feedback> items = readBulkItems(body);
+        logger.debug("POST /api/feedback/bulk - Creating {} feedback items", items.size());
+        if (items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one feedback item is required");
+        }
+        BulkFeedbackResult result = feedbackService.createFeedbackBulk(items);
+        HttpStatus status = result.getRejected() == 0 && result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(result);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<Feedback> updateFeedback(@PathVariable Long id, @Valid @RequestBody Feedback feedbackDetails) {
-        logger.info("PUT /api/feedback/{} - Updating feedback", id);
+        logger.debug("PUT /api/feedback/{} - Updating feedback", id);
         try {
             Feedback updatedFeedback = feedbackService.updateFeedback(id, feedbackDetails);
             return ResponseEntity.ok(updatedFeedback);
@@ -68,7 +188,7 @@ public class FeedbackController {
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteFeedback(@PathVariable Long id) {
-        logger.info("DELETE /api/feedback/{} - Deleting feedback", id);
+        logger.debug("DELETE /api/feedback/{} - Deleting feedback", id);
         try {
             feedbackService.deleteFeedback(id);
             return ResponseEntity.noContent().build();
@@ -79,51 +199,251 @@ public class FeedbackController {
     }
     
     @GetMapping("/movie/{movieId}")
-    public ResponseEntity<List<Feedback>> getFeedbackByMovieId(@PathVariable Long movieId) {
-        logger.info("GET /api/feedback/movie/{} - Fetching feedback by movie id", movieId);
-        List<Feedback> feedback = feedbackService.getFeedbackByMovieId(movieId);
-        return ResponseEntity.ok(feedback);
+    public ResponseEntity<List<Feedback>> getFeedbackByMovieId(@PathVariable Long movieId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               WebRequest request) {
+        logger.debug("GET /api/feedback/movie/{} - Fetching feedback by movie id", movieId);
+        return conditional(request, CollectionVersions.forMovie(movieId), feedbackCacheControl, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(feedbackService.getFeedbackByMovieId(movieId, position(cursor), pageSize(limit)));
+            }
+            List<Feedback> feedback = feedbackService.getFeedbackByMovieId(movieId);
+            return ResponseEntity.ok(feedback);
+        });
     }
     
     @GetMapping("/visitor/{visitorName}")
-    public ResponseEntity<List<Feedback>> getFeedbackByVisitorName(@PathVariable String visitorName) {
-        logger.info("GET /api/feedback/visitor/{} - Fetching feedback by visitor name", visitorName);
-        List<Feedback> feedback = feedbackService.getFeedbackByVisitorName(visitorName);
-        return ResponseEntity.ok(feedback);
+    public ResponseEntity<List<Feedback>> getFeedbackByVisitorName(@PathVariable String visitorName,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   WebRequest request) {
+        logger.debug("GET /api/feedback/visitor/{} - Fetching feedback by visitor name", visitorName);
+        return conditional(request, CollectionVersions.FEEDBACK, feedbackCacheControl, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(feedbackService.getFeedbackByVisitorName(visitorName, position(cursor), pageSize(limit)));
+            }
+            List<Feedback> feedback = feedbackService.getFeedbackByVisitorName(visitorName);
+            return ResponseEntity.ok(feedback);
+        });
     }
     
     @GetMapping("/rating/{rating}")
-    public ResponseEntity<List<Feedback>> getFeedbackByRating(@PathVariable Integer rating) {
-        logger.info("GET /api/feedback/rating/{} - Fetching feedback by rating", rating);
-        List<Feedback> feedback = feedbackService.getFeedbackByRating(rating);
-        return ResponseEntity.ok(feedback);
+    public ResponseEntity<List<Feedback>> getFeedbackByRating(@PathVariable Integer rating,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              WebRequest request) {
+        logger.debug("GET /api/feedback/rating/{} - Fetching feedback by rating", rating);
+        return conditional(request, CollectionVersions.FEEDBACK, feedbackCacheControl, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(feedbackService.getFeedbackByRating(rating, position(cursor), pageSize(limit)));
+            }
+            List<Feedback> feedback = feedbackService.getFeedbackByRating(rating);
+            return ResponseEntity.ok(feedback);
+        });
     }
     
     @GetMapping("/rating/gte/{rating}")
-    public ResponseEntity<List<Feedback>> getFeedbackByRatingGreaterThanEqual(@PathVariable Integer rating) {
-        logger.info("GET /api/feedback/rating/gte/{} - Fetching feedback with rating >= {}", rating, rating);
-        List<Feedback> feedback = feedbackService.getFeedbackByRatingGreaterThanEqual(rating);
-        return ResponseEntity.ok(feedback);
+    public ResponseEntity<List<Feedback>> getFeedbackByRatingGreaterThanEqual(@PathVariable Integer rating,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(required = false) Integer limit,
+                                                                              WebRequest request) {
+        logger.debug("GET /api/feedback/rating/gte/{} - Fetching feedback with rating >= {}", rating, rating);
+        return conditional(request, CollectionVersions.FEEDBACK, feedbackCacheControl, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(feedbackService.getFeedbackByRatingGreaterThanEqual(rating, position(cursor), pageSize(limit)));
+            }
+            List<Feedback> feedback = feedbackService.getFeedbackByRatingGreaterThanEqual(rating);
+            return ResponseEntity.ok(feedback);
+        });
     }
     
     @GetMapping("/movie/{movieId}/average-rating")
-    public ResponseEntity<Double> getAverageRatingByMovieId(@PathVariable Long movieId) {
-        logger.info("GET /api/feedback/movie/{}/average-rating - Getting average rating", movieId);
-        Double averageRating = feedbackService.getAverageRatingByMovieId(movieId);
-        return ResponseEntity.ok(averageRating != null ? averageRating : 0.0);
+    public ResponseEntity<Double> getAverageRatingByMovieId(@PathVariable Long movieId, WebRequest request) {
+        logger.debug("GET /api/feedback/movie/{}/average-rating - Getting average rating", movieId);
+        return conditional(request, CollectionVersions.forMovie(movieId), ratingCacheControl, () -> {
+            Double averageRating = feedbackService.getAverageRatingByMovieId(movieId);
+            return ResponseEntity.ok(averageRating != null ? averageRating : 0.0);
+        });
     }
     
     @GetMapping("/movie/{movieId}/count")
-    public ResponseEntity<Long> getFeedbackCountByMovieId(@PathVariable Long movieId) {
-        logger.info("GET /api/feedback/movie/{}/count - Getting feedback count", movieId);
-        Long count = feedbackService.getFeedbackCountByMovieId(movieId);
-        return ResponseEntity.ok(count);
+    public ResponseEntity<Long> getFeedbackCountByMovieId(@PathVariable Long movieId, WebRequest request) {
+        logger.debug("GET /api/feedback/movie/{}/count - Getting feedback count", movieId);
+        return conditional(request, CollectionVersions.forMovie(movieId), ratingCacheControl, () -> {
+            Long count = feedbackService.getFeedbackCountByMovieId(movieId);
+            return ResponseEntity.ok(count);
+        });
     }
     
     @GetMapping("/movie/{movieId}/recent")
-    public ResponseEntity<List<Feedback>> getRecentFeedbackByMovieId(@PathVariable Long movieId) {
-        logger.info("GET /api/feedback/movie/{}/recent - Fetching recent feedback", movieId);
-        List<Feedback> feedback = feedbackService.getRecentFeedbackByMovieId(movieId);
-        return ResponseEntity.ok(feedback);
+    public ResponseEntity<List<Feedback>> getRecentFeedbackByMovieId(@PathVariable Long movieId,
+                                                                     @RequestParam(required = false) Integer limit,
+                                                                     WebRequest request) {
+        logger.debug("GET /api/feedback/movie/{}/recent - Fetching recent feedback", movieId);
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        return conditional(request, CollectionVersions.forMovie(movieId), feedbackCacheControl, () -> {
+            List<Feedback> feedback = feedbackService.getRecentFeedbackByMovieId(movieId, limit != null ? limit : defaultRecentLimit);
+            return ResponseEntity.ok(feedback);
+        });
+    }
+    
+    // Totals, rating distribution and the newest feedback of all movies, for the admin dashboard
+    @GetMapping("/stats")
+    public ResponseEntity<FeedbackStats> getFeedbackStats(@RequestParam(required = false) Integer recent,
+                                                          WebRequest request) {
+        logger.debug("GET /api/feedback/stats - Fetching feedback stats");
+        if (recent != null && recent < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "recent must not be negative");
+        }
+        return conditional(request, CollectionVersions.FEEDBACK, feedbackCacheControl, () -> {
+            FeedbackStats stats = feedbackService.getFeedbackStats(recent != null ? recent : defaultRecentLimit);
+            return ResponseEntity.ok(stats);
+        });
+    }
+    
+    @GetMapping("/ratings/summary")
+    public ResponseEntity<List<RatingSummary>> getRatingSummaries(@RequestParam(required = false) Set<Long> movieIds,
+                                                                  WebRequest request) {
+        logger.debug("GET /api/feedback/ratings/summary - Fetching rating summaries");
+        if (movieIds != null) {
+            checkSummaryMovieIds(movieIds);
+        }
+        return conditional(request, CollectionVersions.FEEDBACK, ratingCacheControl, () -> {
+            List<RatingSummary> summaries = movieIds == null
+                    ? feedbackService.getAllRatingSummaries()
+                    : feedbackService.getRatingSummaries(movieIds);
+            return ResponseEntity.ok(summaries);
+        });
+    }
+    
+    @PostMapping("/ratings/summary")
+    public ResponseEntity<List<RatingSummary>> getRatingSummariesForMovies(@RequestBody Set<Long> movieIds) {
+        logger.debug("POST /api/feedback/ratings/summary - Fetching rating summaries for {} movies", movieIds.size());
+        checkSummaryMovieIds(movieIds);
+        List<RatingSummary> summaries = feedbackService.getRatingSummaries(movieIds);
+        return ResponseEntity.ok(summaries);
+    }
+    
+    // Every shard has its own event log; the shard count header tells consumers how many to follow,
+    // and the log id header which log the ids belong to
+    @GetMapping("/events")
+    public ResponseEntity<List<FeedbackEvent>> getEvents(@RequestParam(defaultValue = "0") int shard,
+                                                         @RequestParam(defaultValue = "0") long after,
+                                                         @RequestParam(required = false) Integer limit) {
+        logger.debug("GET /api/feedback/events - Fetching feedback events of shard {} after id: {}", shard, after);
+        if (shard < 0 || shard >= shards.count()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "shard must lie between 0 and " + (shards.count() - 1));
+        }
+        List<FeedbackEvent> events = eventOutbox.getEvents(shard, after, pageSize(limit));
+        // Read after the events, so it is never below the id of an event in the response
+        long lastEventId = eventOutbox.getLastEventId(shard);
+        return ResponseEntity.ok()
+                .header(LAST_EVENT_ID_HEADER, Long.toString(lastEventId))
+                .header(SHARD_COUNT_HEADER, Integer.toString(shards.count()))
+                .header(EVENT_LOG_ID_HEADER, eventOutbox.getLogId(shard))
+                .cacheControl(CacheControl.noStore())
+                .body(events);
+    }
+    
+    // The collection version is checked before any feedback is read, so a matching request costs no lookup
+    private <T> ResponseEntity<T> conditional(WebRequest request, String collection, CacheControl cacheControl,
+                                              Supplier<ResponseEntity<T>> read) {
+        CollectionVersions.Version version = collectionVersions.current(collection);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        ResponseEntity<T> response = read.get();
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(version.eTag())
+                .lastModified(version.lastModified())
+                .cacheControl(cacheControl)
+                .body(response.getBody());
+    }
+    
+    private static String eTag(Feedback feedback) {
+        return "feedback-" + feedback.getId() + "-" + feedback.getUpdatedAt().toEpochSecond(ZoneOffset.UTC)
+                + "." + feedback.getUpdatedAt().getNano();
+    }
+    
+    // Paging is opt-in so that existing callers keep receiving the full list
+    private static boolean isPaged(String cursor, Integer limit) {
+        return cursor != null || limit != null;
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+    
+    // Every shard answers the ids with one IN query, so the set is bounded like a bulk request
+    private void checkSummaryMovieIds(Set<Long> movieIds) {
+        if (movieIds.size() > maxSummaryMovieIds) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + maxSummaryMovieIds + " movie ids are accepted per request");
+        }
+    }
+    
+    private static ScrollPosition position(String cursor) {
+        try {
+            return KeysetCursor.decode(cursor, KeysetCursor.CREATED_AT_KEYS);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    private static ResponseEntity<List<Feedback>> page(Window<Feedback> window) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String nextCursor = KeysetCursor.nextCursor(window);
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(window.getContent());
+    }
+    
+    private static ResponseEntity<?> enqueueFeedback(FeedbackWriteBehindQueue queue, Feedback feedback) {
+        feedback.setId(null);
+        Optional<FeedbackSubmission> submission = queue.submit(feedback);
+        if (submission.isEmpty()) {
+            logger.warn("Feedback write-behind queue is full, rejecting submission");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/feedback/submissions/" + submission.get().getSubmissionId()))
+                .body(submission.get());
+    }
+    
+    // A top-level JSON array and newline-delimited JSON objects are both read as a sequence of items
+    private List<Feedback> readBulkItems(InputStream body) {
+        List<Feedback> items = new ArrayList<>();
+        try (MappingIterator<Feedback> iterator = objectMapper.readerFor(Feedback.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                if (items.size() == maxBulkItems) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "At most " + maxBulkItems + " feedback items are accepted per request");
+                }
+                items.add(iterator.nextValue());
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed feedback item: " + e.getMessage());
+        }
+        return items;
+    }
+    
+    private void writeLine(OutputStream out, Feedback item) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(item));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.moviefeedback.feedbackservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkFeedbackResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    // Valid, but its shard's transaction failed; nothing of the item was stored
+    public static final String FAILED = "FAILED";
+
+    private int created;
+    private int rejected;
+    private int failed;
+    private final List<ItemResult> results = new ArrayList<>();
+
+    public void addCreated(int index, Long id) {
+        results.add(new ItemResult(index, CREATED, id, List.of()));
+        created++;
+    }
+
+    public void addRejected(int index, List<String> errors) {
+        results.add(new ItemResult(index, REJECTED, null, errors));
+        rejected++;
+    }
+
+    public void addFailed(int index, List<String> errors) {
+        results.add(new ItemResult(index, FAILED, null, errors));
+        failed++;
+    }
+
+    public int getReceived() {
+        return results.size();
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    // One entry per submitted item, in submission order
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public static class ItemResult {
+
+        private final int index;
+        private final String status;
+        private final Long id;
+        private final List<String> errors;
+
+        public ItemResult(int index, String status, Long id, List<String> errors) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.errors = errors;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+}
\ No newline at end of file
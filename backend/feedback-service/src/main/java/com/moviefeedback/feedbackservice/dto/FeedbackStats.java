@@ -0,0 +1,53 @@
+package com.moviefeedback.feedbackservice.dto;
+
+import com.moviefeedback.feedbackservice.model.Feedback;
+
+import java.util.List;
+
+public class FeedbackStats {
+
+    private long count;
+    private long ratingSum;
+    private long ratedMovies;
+    private final long[] ratingHistogram = new long[5];
+    // Newest first
+    private List<Feedback> recentFeedback = List.of();
+
+    public void addRatings(int rating, long count) {
+        if (rating < 1 || rating > 5) {
+            return;
+        }
+        ratingHistogram[rating - 1] += count;
+        this.count += count;
+        this.ratingSum += rating * count;
+    }
+
+    public void addRatedMovies(long ratedMovies) {
+        this.ratedMovies += ratedMovies;
+    }
+
+    public long getTotalFeedback() {
+        return count;
+    }
+
+    public long getRatedMovies() {
+        return ratedMovies;
+    }
+
+    public double getAverageRating() {
+        return count > 0 ? (double) ratingSum / count : 0.0;
+    }
+
+    // Index 0 holds the number of 1-star ratings, index 4 the number of 5-star ratings
+    public long[] getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public List<Feedback> getRecentFeedback() {
+        return recentFeedback;
+    }
+
+    public void setRecentFeedback(List<Feedback> recentFeedback) {
+        this.recentFeedback = recentFeedback;
+    }
+}
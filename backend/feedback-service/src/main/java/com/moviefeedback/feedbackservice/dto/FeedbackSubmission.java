@@ -0,0 +1,43 @@
+package com.moviefeedback.feedbackservice.dto;
+
+import java.util.List;
+
+public class FeedbackSubmission {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String WRITTEN = "WRITTEN";
+    public static final String FAILED = "FAILED";
+
+    private final String submissionId;
+    private final String status;
+    private final Long feedbackId;
+    private final List<String> errors;
+
+    public FeedbackSubmission(String submissionId, String status, Long feedbackId, List<String> errors) {
+        this.submissionId = submissionId;
+        this.status = status;
+        this.feedbackId = feedbackId;
+        this.errors = errors;
+    }
+
+    public static FeedbackSubmission queued(String submissionId) {
+        return new FeedbackSubmission(submissionId, QUEUED, null, List.of());
+    }
+
+    public String getSubmissionId() {
+        return submissionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    // Only set once the feedback has been written
+    public Long getFeedbackId() {
+        return feedbackId;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
\ No newline at end of file
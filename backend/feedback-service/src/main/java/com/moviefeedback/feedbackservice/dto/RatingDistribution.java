@@ -0,0 +1,42 @@
+package com.moviefeedback.feedbackservice.dto;
+
+/**
+ * The ratings of a named group of movies, such as a genre, or of all movies.
+ */
+public class RatingDistribution {
+
+    private final String group;
+    private long count;
+    private long ratingSum;
+    private final long[] ratingHistogram = new long[5];
+
+    public RatingDistribution(String group) {
+        this.group = group;
+    }
+
+    public void addRatings(int rating, long count) {
+        if (rating < 1 || rating > 5) {
+            return;
+        }
+        ratingHistogram[rating - 1] += count;
+        this.count += count;
+        this.ratingSum += rating * count;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public double getAverageRating() {
+        return count > 0 ? (double) ratingSum / count : 0.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Index 0 holds the number of 1-star ratings, index 4 the number of 5-star ratings
+    public long[] getRatingHistogram() {
+        return ratingHistogram;
+    }
+}
@@ -0,0 +1,44 @@
+package com.moviefeedback.feedbackservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ratings given in the period starting at start.
+ */
+public class RatingPeriod {
+
+    private final LocalDateTime start;
+    private long count;
+    private long ratingSum;
+    private final long[] ratingHistogram = new long[5];
+
+    public RatingPeriod(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public void addRatings(int rating, long count) {
+        if (rating < 1 || rating > 5) {
+            return;
+        }
+        ratingHistogram[rating - 1] += count;
+        this.count += count;
+        this.ratingSum += rating * count;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public double getAverageRating() {
+        return count > 0 ? (double) ratingSum / count : 0.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Index 0 holds the number of 1-star ratings, index 4 the number of 5-star ratings
+    public long[] getRatingHistogram() {
+        return ratingHistogram;
+    }
+}
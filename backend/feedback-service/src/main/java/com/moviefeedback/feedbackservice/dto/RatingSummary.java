@@ -0,0 +1,49 @@
+package com.moviefeedback.feedbackservice.dto;
+
+public class RatingSummary {
+
+    private final Long movieId;
+    private long count;
+    private long ratingSum;
+    private final long[] ratingHistogram = new long[5];
+    // Revision of the movie's rating aggregate; consumers keep the figures with the highest revision
+    private long revision;
+
+    public RatingSummary(Long movieId) {
+        this.movieId = movieId;
+    }
+
+    public void addRatings(int rating, long count) {
+        if (rating < 1 || rating > 5) {
+            return;
+        }
+        ratingHistogram[rating - 1] += count;
+        this.count += count;
+        this.ratingSum += rating * count;
+    }
+
+    public Long getMovieId() {
+        return movieId;
+    }
+
+    public double getAverageRating() {
+        return count > 0 ? (double) ratingSum / count : 0.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    // Index 0 holds the number of 1-star ratings, index 4 the number of 5-star ratings
+    public long[] getRatingHistogram() {
+        return ratingHistogram;
+    }
+}
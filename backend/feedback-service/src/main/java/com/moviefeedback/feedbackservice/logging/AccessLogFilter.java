@@ -0,0 +1,69 @@
+package com.moviefeedback.feedbackservice.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one access-log line per request in place of per-endpoint INFO logging. Server errors
+ * and slow requests are always logged; other requests are logged with probability sampleRate.
+ * Method, path, status and duration are also attached as key-value pairs, which the JSON
+ * encoder of the prod profile emits as separate fields.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogFilter.class);
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    @Autowired
+    public AccessLogFilter(@Value("${logging.access.sample-rate:1.0}") double sampleRate,
+                           @Value("${logging.access.slow-threshold:PT1S}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            int status = response.getStatus();
+            if (logger.isInfoEnabled() && (status >= 500 || elapsed >= slowThresholdNanos
+                    || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                long millis = elapsed / 1_000_000;
+                logger.atInfo()
+                        .addKeyValue("method", request.getMethod())
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("status", status)
+                        .addKeyValue("durationMs", millis)
+                        .log("{} {} {} {}ms", request.getMethod(), request.getRequestURI(), status, millis);
+            }
+        }
+    }
+
+    // Health checks and scrapes would drown out user traffic
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+}
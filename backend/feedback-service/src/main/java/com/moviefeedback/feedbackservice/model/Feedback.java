@@ -1,15 +1,24 @@
 package com.moviefeedback.feedbackservice.model;
 
+import com.moviefeedback.feedbackservice.sharding.ShardSequenceGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "feedback")
 public class Feedback {
     
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row.
+    // Each shard has its own sequence and pool, see ShardSequenceGenerator.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "feedback_seq")
+    @GenericGenerator(name = "feedback_seq", type = ShardSequenceGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "feedback_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
     
     @NotNull(message = "Movie ID is required")
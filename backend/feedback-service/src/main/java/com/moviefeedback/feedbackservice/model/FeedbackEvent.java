@@ -0,0 +1,132 @@
+package com.moviefeedback.feedbackservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An outbox entry recording a rating change of one movie, written in the same transaction as the
+ * change. It carries the movie's resulting rating figures rather than the delta, so consumers can
+ * apply events more than once or out of order by comparing ratingRevision.
+ */
+@Entity
+@Table(name = "feedback_events")
+public class FeedbackEvent {
+    
+    public enum Type {
+        FEEDBACK_CREATED,
+        FEEDBACK_UPDATED,
+        FEEDBACK_DELETED,
+        RATINGS_REPAIRED
+    }
+    
+    // Consumers read the outbox in id order, so ids must follow insert order rather than come from pooled blocks
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private Type eventType;
+    
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+    
+    // Null for bulk submissions and repairs, which cover several feedback items
+    @Column(name = "feedback_id")
+    private Long feedbackId;
+    
+    @Column(name = "average_rating", nullable = false)
+    private double averageRating;
+    
+    @Column(name = "feedback_count", nullable = false)
+    private long feedbackCount;
+    
+    @Column(name = "rating_revision", nullable = false)
+    private long ratingRevision;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public FeedbackEvent() {}
+    
+    public FeedbackEvent(Type eventType, Long movieId, Long feedbackId, double averageRating,
+                         long feedbackCount, long ratingRevision) {
+        this.eventType = eventType;
+        this.movieId = movieId;
+        this.feedbackId = feedbackId;
+        this.averageRating = averageRating;
+        this.feedbackCount = feedbackCount;
+        this.ratingRevision = ratingRevision;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Type getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(Type eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+    
+    public Long getFeedbackId() {
+        return feedbackId;
+    }
+    
+    public void setFeedbackId(Long feedbackId) {
+        this.feedbackId = feedbackId;
+    }
+    
+    public double getAverageRating() {
+        return averageRating;
+    }
+    
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+    
+    public long getFeedbackCount() {
+        return feedbackCount;
+    }
+    
+    public void setFeedbackCount(long feedbackCount) {
+        this.feedbackCount = feedbackCount;
+    }
+    
+    public long getRatingRevision() {
+        return ratingRevision;
+    }
+    
+    public void setRatingRevision(long ratingRevision) {
+        this.ratingRevision = ratingRevision;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,109 @@
+package com.moviefeedback.feedbackservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "movie_rating_aggregates")
+public class MovieRatingAggregate {
+    
+    @Id
+    @Column(name = "movie_id")
+    private Long movieId;
+    
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+    
+    @Column(name = "feedback_count", nullable = false)
+    private long feedbackCount;
+    
+    @Column(name = "one_star_count", nullable = false)
+    private long oneStarCount;
+    
+    @Column(name = "two_star_count", nullable = false)
+    private long twoStarCount;
+    
+    @Column(name = "three_star_count", nullable = false)
+    private long threeStarCount;
+    
+    @Column(name = "four_star_count", nullable = false)
+    private long fourStarCount;
+    
+    @Column(name = "five_star_count", nullable = false)
+    private long fiveStarCount;
+    
+    // Incremented on every change so that in-memory copies can discard out-of-order updates
+    @Column(nullable = false)
+    private long revision;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public MovieRatingAggregate() {}
+    
+    public MovieRatingAggregate(Long movieId) {
+        this.movieId = movieId;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public void addRating(int rating, long delta) {
+        switch (rating) {
+            case 1 -> oneStarCount += delta;
+            case 2 -> twoStarCount += delta;
+            case 3 -> threeStarCount += delta;
+            case 4 -> fourStarCount += delta;
+            case 5 -> fiveStarCount += delta;
+            default -> throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        ratingSum += rating * delta;
+        feedbackCount += delta;
+        revision++;
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public void resetTo(long[] ratingHistogram) {
+        oneStarCount = ratingHistogram[0];
+        twoStarCount = ratingHistogram[1];
+        threeStarCount = ratingHistogram[2];
+        fourStarCount = ratingHistogram[3];
+        fiveStarCount = ratingHistogram[4];
+        feedbackCount = 0;
+        ratingSum = 0;
+        for (int i = 0; i < ratingHistogram.length; i++) {
+            feedbackCount += ratingHistogram[i];
+            ratingSum += (i + 1) * ratingHistogram[i];
+        }
+        revision++;
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public long[] getRatingHistogram() {
+        return new long[] {oneStarCount, twoStarCount, threeStarCount, fourStarCount, fiveStarCount};
+    }
+    
+    // Getters and Setters
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+    
+    public long getRatingSum() {
+        return ratingSum;
+    }
+    
+    public long getFeedbackCount() {
+        return feedbackCount;
+    }
+    
+    public long getRevision() {
+        return revision;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
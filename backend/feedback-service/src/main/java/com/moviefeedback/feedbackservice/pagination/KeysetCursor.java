@@ -0,0 +1,108 @@
+package com.moviefeedback.feedbackservice.pagination;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque, URL-safe encoding of a keyset scroll position. Values keep their type so the
+ * decoded position can be handed straight back to a Spring Data {@link Window} query, once
+ * decode has checked that they are the keys and types of the listing's sort order.
+ */
+public final class KeysetCursor {
+    
+    public static final Sort CREATED_AT_ORDER = Sort.by("createdAt", "id");
+    public static final Map<String, Class<?>> CREATED_AT_KEYS = Map.of("createdAt", LocalDateTime.class, "id", Long.class);
+    
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    
+    private KeysetCursor() {}
+    
+    public static <T> String nextCursor(Window<T> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        return encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+    }
+    
+    public static String encode(KeysetScrollPosition position) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Object> key : position.getKeys().entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(key.getKey()).append(':').append(typeOf(key.getValue())).append(':')
+                   .append(ENCODER.encodeToString(String.valueOf(key.getValue()).getBytes(StandardCharsets.UTF_8)));
+        }
+        return ENCODER.encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Rejects cursors of other sort orders, which the queries would otherwise fail on
+    public static KeysetScrollPosition decode(String cursor, Map<String, Class<?>> keyTypes) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = decodeKeys(cursor);
+        if (!keys.keySet().equals(keyTypes.keySet())) {
+            throw new IllegalArgumentException("Cursor does not belong to this listing: " + cursor);
+        }
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            if (!keyTypes.get(key.getKey()).isInstance(key.getValue())) {
+                throw new IllegalArgumentException("Cursor does not belong to this listing: " + cursor);
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+    
+    private static Map<String, Object> decodeKeys(String cursor) {
+        try {
+            String decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String part : decoded.split(",")) {
+                String[] fields = part.split(":", 3);
+                String value = new String(DECODER.decode(fields[2]), StandardCharsets.UTF_8);
+                keys.put(fields[0], parse(fields[1], value));
+            }
+            return keys;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    private static char typeOf(Object value) {
+        if (value == null) {
+            return 'n';
+        } else if (value instanceof LocalDateTime) {
+            return 't';
+        } else if (value instanceof Long) {
+            return 'l';
+        } else if (value instanceof Integer) {
+            return 'i';
+        } else if (value instanceof Double) {
+            return 'd';
+        } else if (value instanceof String) {
+            return 's';
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type: " + value.getClass().getName());
+    }
+    
+    private static Object parse(String type, String value) {
+        return switch (type) {
+            case "n" -> null;
+            case "t" -> LocalDateTime.parse(value);
+            case "l" -> Long.valueOf(value);
+            case "i" -> Integer.valueOf(value);
+            case "d" -> Double.valueOf(value);
+            case "s" -> value;
+            default -> throw new IllegalArgumentException("Unknown cursor key type: " + type);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.moviefeedback.feedbackservice.repository;
+
+import com.moviefeedback.feedbackservice.model.FeedbackEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FeedbackEventRepository extends JpaRepository<FeedbackEvent, Long> {
+    
+    @Query("SELECT e FROM FeedbackEvent e WHERE e.id > :afterId AND e.createdAt <= :createdBefore ORDER BY e.id")
+    List<FeedbackEvent> findAfter(@Param("afterId") long afterId,
+                                  @Param("createdBefore") LocalDateTime createdBefore,
+                                  Limit limit);
+    
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM FeedbackEvent e")
+    long findLastId();
+    
+    @Query(value = "SELECT log_id FROM feedback_event_log WHERE id = 1", nativeQuery = true)
+    String findLogId();
+    
+    @Modifying
+    @Query("DELETE FROM FeedbackEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
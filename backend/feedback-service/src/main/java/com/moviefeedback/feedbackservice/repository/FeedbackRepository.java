@@ -1,12 +1,21 @@
 package com.moviefeedback.feedbackservice.repository;
 
 import com.moviefeedback.feedbackservice.model.Feedback;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
@@ -19,12 +28,42 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     
     List<Feedback> findByRatingGreaterThanEqual(Integer rating);
     
+    // Keyset-paginated variants, scrolled with KeysetCursor.CREATED_AT_ORDER
+    Window<Feedback> findBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Feedback> findByMovieId(Long movieId, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Feedback> findByVisitorNameIgnoreCaseContaining(String visitorName, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Feedback> findByRating(Integer rating, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Feedback> findByRatingGreaterThanEqual(Integer rating, ScrollPosition position, Sort sort, Limit limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT f FROM Feedback f ORDER BY f.createdAt, f.id")
+    Stream<Feedback> streamAll();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT f FROM Feedback f WHERE f.movieId = :movieId ORDER BY f.createdAt, f.id")
+    Stream<Feedback> streamByMovieId(@Param("movieId") Long movieId);
+    
     @Query("SELECT AVG(f.rating) FROM Feedback f WHERE f.movieId = :movieId")
     Double getAverageRatingByMovieId(@Param("movieId") Long movieId);
     
     @Query("SELECT COUNT(f) FROM Feedback f WHERE f.movieId = :movieId")
     Long getFeedbackCountByMovieId(@Param("movieId") Long movieId);
     
-    @Query("SELECT f FROM Feedback f WHERE f.movieId = :movieId ORDER BY f.createdAt DESC")
-    List<Feedback> findRecentFeedbackByMovieId(@Param("movieId") Long movieId);
+    // Newest first, reading at most limit rows from the (movie_id, created_at, id) index
+    List<Feedback> findByMovieIdOrderByCreatedAtDescIdDesc(Long movieId, Limit limit);
+    
+    // Newest first, reading at most limit rows from the (created_at, id) index
+    List<Feedback> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+    
+    @Query("SELECT f.movieId AS movieId, f.rating AS rating, COUNT(f) AS count FROM Feedback f " +
+           "WHERE f.movieId IN :movieIds GROUP BY f.movieId, f.rating")
+    List<RatingCount> countRatingsByMovieIds(@Param("movieIds") Collection<Long> movieIds);
+    
+    @Query("SELECT f.movieId AS movieId, f.rating AS rating, COUNT(f) AS count FROM Feedback f " +
+           "GROUP BY f.movieId, f.rating")
+    List<RatingCount> countRatingsForAllMovies();
 } 
\ No newline at end of file
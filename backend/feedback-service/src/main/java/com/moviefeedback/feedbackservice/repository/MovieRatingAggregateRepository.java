@@ -0,0 +1,24 @@
+package com.moviefeedback.feedbackservice.repository;
+
+import com.moviefeedback.feedbackservice.model.MovieRatingAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MovieRatingAggregateRepository extends JpaRepository<MovieRatingAggregate, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM MovieRatingAggregate a WHERE a.movieId = :movieId")
+    Optional<MovieRatingAggregate> findByIdForUpdate(@Param("movieId") Long movieId);
+    
+    // Served from idx_movie_rating_aggregates_updated
+    List<MovieRatingAggregate> findByUpdatedAtAfter(LocalDateTime since);
+}
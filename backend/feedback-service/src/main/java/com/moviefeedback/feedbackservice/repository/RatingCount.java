@@ -0,0 +1,10 @@
+package com.moviefeedback.feedbackservice.repository;
+
+public interface RatingCount {
+
+    Long getMovieId();
+
+    Integer getRating();
+
+    Long getCount();
+}
@@ -0,0 +1,63 @@
+package com.moviefeedback.feedbackservice.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version counters for the collections behind the read endpoints. A counter moves after every
+ * committed write to its collection, so it can serve as the ETag and Last-Modified of a list
+ * response without reading the list itself. Like the caches, counters are local to the instance.
+ */
+@Component
+public class CollectionVersions {
+
+    public static final String FEEDBACK = "feedback";
+
+    // Part of every ETag so that values handed out before a restart never match again
+    private final long startedAt = System.currentTimeMillis();
+    private final String epoch = Long.toString(startedAt, 36);
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    // Feedback and rating endpoints scoped to one movie only change with that movie's feedback
+    public static String forMovie(Long movieId) {
+        return "movie" + movieId;
+    }
+
+    // Not stored until the first write, so reading arbitrary collections cannot grow the map
+    public Version current(String collection) {
+        Version version = versions.get(collection);
+        return version != null ? version : new Version(epoch, collection, 0, startedAt);
+    }
+
+    public void incrementAfterCommit(Collection<String> collections) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    collections.forEach(CollectionVersions.this::increment);
+                }
+            });
+        } else {
+            collections.forEach(this::increment);
+        }
+    }
+
+    private void increment(String collection) {
+        long now = System.currentTimeMillis();
+        versions.compute(collection, (key, current) -> current == null
+                ? new Version(epoch, key, 1, Math.max(now, startedAt))
+                : new Version(epoch, key, current.number() + 1, Math.max(now, current.lastModified())));
+    }
+
+    public record Version(String epoch, String collection, long number, long lastModified) {
+
+        public String eTag() {
+            return collection + "-" + epoch + "-" + number;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.model.FeedbackEvent;
+import com.moviefeedback.feedbackservice.repository.FeedbackEventRepository;
+import com.moviefeedback.feedbackservice.sharding.FeedbackShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The feedback_events table, used as an embedded broker: rating changes are appended in the
+ * transaction that makes them, and consumers such as movie-service read the table in id order
+ * from the last id they processed. Nothing is lost if a consumer is down, as long as it catches
+ * up within the retention period.
+ */
+@Service
+public class FeedbackEventOutbox {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackEventOutbox.class);
+    
+    private final FeedbackEventRepository eventRepository;
+    private final FeedbackShards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration settleDelay;
+    private final Period retention;
+    // Fixed for the life of a database, so read once per shard
+    private final Map<Integer, String> logIds = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public FeedbackEventOutbox(FeedbackEventRepository eventRepository,
+                               FeedbackShards shards,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${feedback.events.settle-delay:PT2S}") Duration settleDelay,
+                               @Value("${feedback.events.retention:P7D}") Period retention) {
+        this.eventRepository = eventRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settleDelay = settleDelay;
+        this.retention = retention;
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(FeedbackEvent.Type type, Long feedbackId, RatingSnapshot snapshot) {
+        Double averageRating = snapshot.getAverageRating();
+        eventRepository.save(new FeedbackEvent(type, snapshot.getMovieId(), feedbackId,
+                averageRating == null ? 0.0 : averageRating, snapshot.getFeedbackCount(), snapshot.getRevision()));
+    }
+    
+    /**
+     * Returns up to limit events of the shard with an id above afterId. Every shard keeps its own
+     * log, holding the events of its movies, so consumers track one offset per shard. Ids are
+     * taken at insert, so a transaction can commit after one holding a higher id; only events
+     * older than the settle delay are returned, so a consumer moving its offset past them does not
+     * skip a commit that was late by less than the delay. An event committed later than that stays
+     * behind the offsets of consumers that read on meanwhile, and reaches them only through their
+     * periodic resync. Not read-only, so that it reads the primary: a read replica may lag by more
+     * than the settle delay.
+     */
+    public List<FeedbackEvent> getEvents(int shard, long afterId, int limit) {
+        // Debug, as every consumer instance polls every shard about once a second
+        logger.debug("Fetching up to {} feedback events of shard {} after id: {}", limit, shard, afterId);
+        return shards.onShard(shard, () -> transactionTemplate.execute(status ->
+                eventRepository.findAfter(afterId, LocalDateTime.now().minus(settleDelay), Limit.of(limit))));
+    }
+    
+    // Lets a consumer whose offset lies beyond the end notice that the log was recreated, e.g. on a fresh database.
+    // Read on the primary, as a lagging read replica would make the log look recreated.
+    public long getLastEventId(int shard) {
+        return shards.onShard(shard, () -> transactionTemplate.execute(status -> eventRepository.findLastId()));
+    }
+    
+    // Tells consumers which log their offset belongs to; instances sharing a database share the id
+    public String getLogId(int shard) {
+        return logIds.computeIfAbsent(shard, key -> shards.onShard(key, () ->
+                transactionTemplate.execute(status -> eventRepository.findLogId())));
+    }
+    
+    @Scheduled(initialDelayString = "${feedback.events.purge-interval:PT1H}",
+               fixedDelayString = "${feedback.events.purge-interval:PT1H}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int purged = shards.onAllShards(shard -> transactionTemplate.execute(status ->
+                eventRepository.deleteCreatedBefore(cutoff))).stream().mapToInt(Integer::intValue).sum();
+        logger.info("Purged {} feedback events created before {}", purged, cutoff);
+    }
+}
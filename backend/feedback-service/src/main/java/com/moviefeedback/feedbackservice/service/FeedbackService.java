@@ -1,40 +1,131 @@
 package com.moviefeedback.feedbackservice.service;
 
+import com.moviefeedback.feedbackservice.dto.BulkFeedbackResult;
+import com.moviefeedback.feedbackservice.dto.FeedbackStats;
+import com.moviefeedback.feedbackservice.dto.RatingSummary;
 import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.model.FeedbackEvent;
+import com.moviefeedback.feedbackservice.pagination.KeysetCursor;
 import com.moviefeedback.feedbackservice.repository.FeedbackRepository;
+import com.moviefeedback.feedbackservice.sharding.FeedbackShards;
+import com.moviefeedback.feedbackservice.sharding.ShardKey;
+import com.moviefeedback.feedbackservice.sharding.ShardWindows;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "service.invocations", description = "Service method latency")
 @Transactional
 public class FeedbackService {
     
     private static final Logger logger = LoggerFactory.getLogger(FeedbackService.class);
     
     private final FeedbackRepository feedbackRepository;
+    private final RatingAggregateService ratingAggregateService;
+    private final RecentFeedbackBuffer recentFeedbackBuffer;
+    private final CollectionVersions collectionVersions;
+    private final FeedbackEventOutbox eventOutbox;
+    private final Validator validator;
+    private final FeedbackShards shards;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int bulkChunkSize = 500;
     
     @Autowired
-    public FeedbackService(FeedbackRepository feedbackRepository) {
+    public FeedbackService(FeedbackRepository feedbackRepository,
+                           RatingAggregateService ratingAggregateService,
+                           RecentFeedbackBuffer recentFeedbackBuffer,
+                           CollectionVersions collectionVersions,
+                           FeedbackEventOutbox eventOutbox,
+                           Validator validator,
+                           FeedbackShards shards,
+                           PlatformTransactionManager transactionManager) {
         this.feedbackRepository = feedbackRepository;
+        this.ratingAggregateService = ratingAggregateService;
+        this.recentFeedbackBuffer = recentFeedbackBuffer;
+        this.collectionVersions = collectionVersions;
+        this.eventOutbox = eventOutbox;
+        this.validator = validator;
+        this.shards = shards;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
     
+    // Reads across all shards have no transaction of their own: each shard is queried in parallel,
+    // in a transaction on that shard, and the results are merged
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Feedback> getAllFeedback() {
-        logger.info("Fetching all feedback");
-        return feedbackRepository.findAll();
+        logger.debug("Fetching all feedback");
+        return concat(shards.onAllShards(shard -> feedbackRepository.findAll()));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Window<Feedback> getFeedbackPage(ScrollPosition position, int limit) {
+        logger.debug("Fetching feedback page of {}", limit);
+        return ShardWindows.mergeByCreatedAt(shards.onAllShards(shard ->
+                feedbackRepository.findBy(position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit))), limit);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportFeedback(Long movieId, Consumer<Feedback> sink) {
+        logger.debug("Exporting feedback for movie: {}", movieId == null ? "all" : movieId);
+        // One shard after the other, so that the sink is only ever called from this thread
+        List<Integer> sources = movieId == null ? shards.all() : List.of(shards.shardOf(movieId));
+        for (int shard : sources) {
+            shards.runOnShard(shard, () -> readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Feedback> feedback = movieId == null
+                        ? feedbackRepository.streamAll()
+                        : feedbackRepository.streamByMovieId(movieId)) {
+                    // Detach every row once written so the persistence context stays constant in size
+                    feedback.forEach(item -> {
+                        sink.accept(item);
+                        entityManager.detach(item);
+                    });
+                }
+            }));
+        }
     }
     
-    public Optional<Feedback> getFeedbackById(Long id) {
-        logger.info("Fetching feedback with id: {}", id);
+    @Transactional(readOnly = true)
+    public Optional<Feedback> getFeedbackById(@ShardKey(feedbackId = true) Long id) {
+        logger.debug("Fetching feedback with id: {}", id);
         return feedbackRepository.findById(id);
     }
     
-    public Feedback createFeedback(Feedback feedback) {
+    public Feedback createFeedback(@ShardKey Feedback feedback) {
         logger.info("Creating new feedback for movie: {}", feedback.getMovieId());
         
         // Validate rating
@@ -43,11 +134,86 @@ public class FeedbackService {
         }
         
         Feedback savedFeedback = feedbackRepository.save(feedback);
+        RatingSnapshot ratings = ratingAggregateService.recordRating(savedFeedback.getMovieId(), savedFeedback.getRating(), 1);
+        eventOutbox.append(FeedbackEvent.Type.FEEDBACK_CREATED, savedFeedback.getId(), ratings);
+        recentFeedbackBuffer.recordCreated(List.of(savedFeedback));
+        collectionVersions.incrementAfterCommit(collectionsOf(savedFeedback.getMovieId()));
         logger.info("Feedback created successfully with id: {}", savedFeedback.getId());
         return savedFeedback;
     }
     
-    public Feedback updateFeedback(Long id, Feedback feedbackDetails) {
+    // Each shard's items are written in a transaction on that shard, all shards at once. A shard
+    // that fails does not undo the others; its exception is rethrown once all have finished.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkFeedbackResult createFeedbackBulk(List<Feedback> items) {
+        logger.info("Creating {} feedback items in bulk", items.size());
+        
+        // Validate everything up front so that rejected items never reach the database
+        List<List<String>> itemErrors = new ArrayList<>(items.size());
+        Map<Integer, List<Feedback>> acceptedByShard = new TreeMap<>();
+        for (Feedback item : items) {
+            List<String> errors = validate(item);
+            itemErrors.add(errors);
+            if (errors.isEmpty()) {
+                item.setId(null);
+                acceptedByShard.computeIfAbsent(shards.shardOf(item.getMovieId()), shard -> new ArrayList<>()).add(item);
+            }
+        }
+        
+        // Shards commit independently, so a failing shard only fails its own items
+        Map<Integer, RuntimeException> failedShards = new ConcurrentHashMap<>();
+        shards.onShards(acceptedByShard.keySet(), shard -> {
+            try {
+                return writeTransaction.execute(status -> writeBulk(acceptedByShard.get(shard)));
+            } catch (RuntimeException e) {
+                logger.error("Bulk feedback write failed on shard {}: {}", shard, e.toString());
+                failedShards.put(shard, e);
+                return 0;
+            }
+        });
+        if (!failedShards.isEmpty() && failedShards.size() == acceptedByShard.size()) {
+            // Nothing was stored, so the request as a whole failed
+            throw failedShards.values().iterator().next();
+        }
+        
+        BulkFeedbackResult result = new BulkFeedbackResult();
+        for (int index = 0; index < items.size(); index++) {
+            List<String> errors = itemErrors.get(index);
+            if (!errors.isEmpty()) {
+                result.addRejected(index, errors);
+            } else if (failedShards.containsKey(shards.shardOf(items.get(index).getMovieId()))) {
+                result.addFailed(index, List.of("Feedback could not be stored"));
+            } else {
+                result.addCreated(index, items.get(index).getId());
+            }
+        }
+        logger.info("Bulk feedback processed: {} created, {} rejected, {} failed",
+                result.getCreated(), result.getRejected(), result.getFailed());
+        return result;
+    }
+    
+    private int writeBulk(List<Feedback> accepted) {
+        Map<Long, long[]> ratingDeltas = new TreeMap<>();
+        for (Feedback item : accepted) {
+            ratingDeltas.computeIfAbsent(item.getMovieId(), movieId -> new long[5])[item.getRating() - 1]++;
+        }
+        
+        // Each chunk goes out as one JDBC batch and is then dropped from the persistence context
+        for (int from = 0; from < accepted.size(); from += bulkChunkSize) {
+            feedbackRepository.saveAll(accepted.subList(from, Math.min(from + bulkChunkSize, accepted.size())));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        
+        // One aggregate update per movie, taken in movie id order so concurrent bulk writes lock rows consistently
+        ratingDeltas.forEach((movieId, deltas) -> eventOutbox.append(FeedbackEvent.Type.FEEDBACK_CREATED, null,
+                ratingAggregateService.recordRatings(movieId, deltas)));
+        recentFeedbackBuffer.recordCreated(accepted);
+        collectionVersions.incrementAfterCommit(collectionsOf(ratingDeltas.keySet()));
+        return accepted.size();
+    }
+    
+    public Feedback updateFeedback(@ShardKey(feedbackId = true) Long id, Feedback feedbackDetails) {
         logger.info("Updating feedback with id: {}", id);
         
         Feedback feedback = feedbackRepository.findById(id)
@@ -58,59 +224,181 @@ public class FeedbackService {
             throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
         
+        int previousRating = feedback.getRating();
+        
         feedback.setVisitorName(feedbackDetails.getVisitorName());
         feedback.setComment(feedbackDetails.getComment());
         feedback.setRating(feedbackDetails.getRating());
         feedback.setVisitorEmail(feedbackDetails.getVisitorEmail());
         
         Feedback updatedFeedback = feedbackRepository.save(feedback);
+        ratingAggregateService.recordRatingChange(updatedFeedback.getMovieId(), previousRating, updatedFeedback.getRating())
+                .ifPresent(ratings -> eventOutbox.append(FeedbackEvent.Type.FEEDBACK_UPDATED, updatedFeedback.getId(), ratings));
+        recentFeedbackBuffer.recordUpdated(updatedFeedback);
+        collectionVersions.incrementAfterCommit(collectionsOf(updatedFeedback.getMovieId()));
         logger.info("Feedback updated successfully with id: {}", updatedFeedback.getId());
         return updatedFeedback;
     }
     
-    public void deleteFeedback(Long id) {
+    public void deleteFeedback(@ShardKey(feedbackId = true) Long id) {
         logger.info("Deleting feedback with id: {}", id);
         
-        if (!feedbackRepository.existsById(id)) {
-            throw new IllegalArgumentException("Feedback not found with id: " + id);
-        }
+        Feedback feedback = feedbackRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Feedback not found with id: " + id));
         
-        feedbackRepository.deleteById(id);
+        feedbackRepository.delete(feedback);
+        RatingSnapshot ratings = ratingAggregateService.recordRating(feedback.getMovieId(), feedback.getRating(), -1);
+        eventOutbox.append(FeedbackEvent.Type.FEEDBACK_DELETED, id, ratings);
+        recentFeedbackBuffer.recordDeleted(feedback);
+        collectionVersions.incrementAfterCommit(collectionsOf(feedback.getMovieId()));
         logger.info("Feedback deleted successfully with id: {}", id);
     }
     
-    public List<Feedback> getFeedbackByMovieId(Long movieId) {
-        logger.info("Fetching feedback for movie: {}", movieId);
+    @Transactional(readOnly = true)
+    public List<Feedback> getFeedbackByMovieId(@ShardKey Long movieId) {
+        logger.debug("Fetching feedback for movie: {}", movieId);
         return feedbackRepository.findByMovieId(movieId);
     }
     
+    @Transactional(readOnly = true)
+    public Window<Feedback> getFeedbackByMovieId(@ShardKey Long movieId, ScrollPosition position, int limit) {
+        logger.debug("Fetching feedback page for movie: {}", movieId);
+        return feedbackRepository.findByMovieId(movieId, position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Feedback> getFeedbackByVisitorName(String visitorName) {
-        logger.info("Fetching feedback by visitor name: {}", visitorName);
-        return feedbackRepository.findByVisitorNameIgnoreCaseContaining(visitorName);
+        logger.debug("Fetching feedback by visitor name: {}", visitorName);
+        return concat(shards.onAllShards(shard -> feedbackRepository.findByVisitorNameIgnoreCaseContaining(visitorName)));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Window<Feedback> getFeedbackByVisitorName(String visitorName, ScrollPosition position, int limit) {
+        logger.debug("Fetching feedback page by visitor name: {}", visitorName);
+        return ShardWindows.mergeByCreatedAt(shards.onAllShards(shard ->
+                feedbackRepository.findByVisitorNameIgnoreCaseContaining(visitorName, position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit))), limit);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Feedback> getFeedbackByRating(Integer rating) {
-        logger.info("Fetching feedback with rating: {}", rating);
-        return feedbackRepository.findByRating(rating);
+        logger.debug("Fetching feedback with rating: {}", rating);
+        return concat(shards.onAllShards(shard -> feedbackRepository.findByRating(rating)));
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Window<Feedback> getFeedbackByRating(Integer rating, ScrollPosition position, int limit) {
+        logger.debug("Fetching feedback page with rating: {}", rating);
+        return ShardWindows.mergeByCreatedAt(shards.onAllShards(shard ->
+                feedbackRepository.findByRating(rating, position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit))), limit);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Feedback> getFeedbackByRatingGreaterThanEqual(Integer rating) {
-        logger.info("Fetching feedback with rating >= {}", rating);
-        return feedbackRepository.findByRatingGreaterThanEqual(rating);
+        logger.debug("Fetching feedback with rating >= {}", rating);
+        return concat(shards.onAllShards(shard -> feedbackRepository.findByRatingGreaterThanEqual(rating)));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Window<Feedback> getFeedbackByRatingGreaterThanEqual(Integer rating, ScrollPosition position, int limit) {
+        logger.debug("Fetching feedback page with rating >= {}", rating);
+        return ShardWindows.mergeByCreatedAt(shards.onAllShards(shard ->
+                feedbackRepository.findByRatingGreaterThanEqual(rating, position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit))), limit);
+    }
+    
+    @Transactional(readOnly = true)
+    public Double getAverageRatingByMovieId(@ShardKey Long movieId) {
+        logger.debug("Calculating average rating for movie: {}", movieId);
+        return ratingAggregateService.getSnapshot(movieId)
+                .map(RatingSnapshot::getAverageRating)
+                .orElse(null);
+    }
+    
+    @Transactional(readOnly = true)
+    public Long getFeedbackCountByMovieId(@ShardKey Long movieId) {
+        logger.debug("Getting feedback count for movie: {}", movieId);
+        return ratingAggregateService.getSnapshot(movieId)
+                .map(RatingSnapshot::getFeedbackCount)
+                .orElse(0L);
+    }
+    
+    // Stays on the primary: a cold buffer loaded from a lagging read replica would miss feedback
+    // committed before it was loaded until its next refresh
+    public List<Feedback> getRecentFeedbackByMovieId(@ShardKey Long movieId, int limit) {
+        logger.debug("Fetching {} most recent feedback items for movie: {}", limit, movieId);
+        return recentFeedbackBuffer.getRecent(movieId, limit);
     }
     
-    public Double getAverageRatingByMovieId(Long movieId) {
-        logger.info("Calculating average rating for movie: {}", movieId);
-        return feedbackRepository.getAverageRatingByMovieId(movieId);
+    /**
+     * Totals and rating distribution over all feedback from the rating aggregates' mirror, with
+     * the newest feedback of all movies from the recent feedback buffer.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FeedbackStats getFeedbackStats(int recentLimit) {
+        logger.debug("Building feedback stats with {} recent items", recentLimit);
+        FeedbackStats stats = new FeedbackStats();
+        ratingAggregateService.addTotals(stats);
+        // A cold buffer takes the newest rows of every shard and keeps the newest of those
+        stats.setRecentFeedback(recentFeedbackBuffer.getLatest(recentLimit, limit ->
+                concat(shards.onAllShards(shard -> feedbackRepository.findAllByOrderByCreatedAtDescIdDesc(limit))).stream()
+                        .sorted(Comparator.comparing(Feedback::getCreatedAt).thenComparing(Feedback::getId).reversed())
+                        .limit(limit.max())
+                        .toList()));
+        return stats;
     }
     
-    public Long getFeedbackCountByMovieId(Long movieId) {
-        logger.info("Getting feedback count for movie: {}", movieId);
-        return feedbackRepository.getFeedbackCountByMovieId(movieId);
+    // Movies on different shards; any lookups that miss the in-memory mirror bind their own shard
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<RatingSummary> getRatingSummaries(Collection<Long> movieIds) {
+        logger.debug("Building rating summaries for {} movies", movieIds.size());
+        
+        // Preserve the requested order and report movies without feedback as empty summaries
+        Map<Long, RatingSummary> summaries = new LinkedHashMap<>();
+        for (Long movieId : movieIds) {
+            if (movieId != null && !summaries.containsKey(movieId)) {
+                summaries.put(movieId, ratingAggregateService.getSnapshot(movieId)
+                        .map(RatingSnapshot::toSummary)
+                        .orElseGet(() -> new RatingSummary(movieId)));
+            }
+        }
+        return new ArrayList<>(summaries.values());
     }
     
-    public List<Feedback> getRecentFeedbackByMovieId(Long movieId) {
-        logger.info("Fetching recent feedback for movie: {}", movieId);
-        return feedbackRepository.findRecentFeedbackByMovieId(movieId);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<RatingSummary> getAllRatingSummaries() {
+        logger.debug("Building rating summaries for all movies");
+        
+        List<RatingSummary> summaries = new ArrayList<>();
+        for (RatingSnapshot snapshot : ratingAggregateService.getAllSnapshots()) {
+            if (snapshot.getFeedbackCount() > 0) {
+                summaries.add(snapshot.toSummary());
+            }
+        }
+        return summaries;
+    }
+    
+    private static <T> List<T> concat(List<List<T>> parts) {
+        return parts.stream().flatMap(List::stream).toList();
+    }
+    
+    // Every feedback change affects the whole feedback collection and the collection of its movie
+    private static List<String> collectionsOf(Long movieId) {
+        return collectionsOf(List.of(movieId));
+    }
+    
+    private static List<String> collectionsOf(Collection<Long> movieIds) {
+        List<String> collections = new ArrayList<>();
+        collections.add(CollectionVersions.FEEDBACK);
+        movieIds.forEach(movieId -> collections.add(CollectionVersions.forMovie(movieId)));
+        return collections;
+    }
+    
+    private List<String> validate(Feedback item) {
+        if (item == null) {
+            return List.of("Feedback item is required");
+        }
+        return validator.validate(item).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.dto.BulkFeedbackResult;
+import com.moviefeedback.feedbackservice.dto.FeedbackSubmission;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Accepts validated feedback into a bounded in-memory queue and writes it to the database in
+ * batches from a single writer thread. Submissions are rejected once the queue is full, and
+ * anything still queued when the process dies is lost, which is why this mode is opt-in.
+ */
+@Service
+@ConditionalOnProperty(name = "feedback.write-behind.enabled", havingValue = "true")
+public class FeedbackWriteBehindQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackWriteBehindQueue.class);
+
+    private final FeedbackService feedbackService;
+    private final BlockingQueue<QueuedFeedback> queue;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final Map<String, FeedbackSubmission> submissions;
+
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    // Submissions hold the read lock from their running check to their offer; stop takes the write
+    // lock, so once it has cleared running no submission can still be on its way into the queue
+    private final ReadWriteLock submitGate = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public FeedbackWriteBehindQueue(FeedbackService feedbackService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${feedback.write-behind.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${feedback.write-behind.max-batch-size:500}") int maxBatchSize,
+                                    @Value("${feedback.write-behind.max-batch-delay:PT0.05S}") Duration maxBatchDelay,
+                                    @Value("${feedback.write-behind.tracked-submissions:100000}") int trackedSubmissions) {
+        this.feedbackService = feedbackService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        // Oldest outcomes are forgotten first; callers polling after that get a 404
+        this.submissions = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FeedbackSubmission> eldest) {
+                return size() > trackedSubmissions;
+            }
+        });
+
+        Gauge.builder("feedback.write_behind.queue.depth", queue, BlockingQueue::size)
+                .description("Feedback submissions waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("feedback.write_behind.queue.capacity", () -> queueCapacity)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("feedback.write_behind.rejected")
+                .description("Submissions refused because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("feedback.write_behind.failed")
+                .description("Queued submissions that could not be written")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("feedback.write_behind.batch.size")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("feedback.write_behind.flush")
+                .description("Time taken to write one batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues already validated feedback. Returns empty when the queue is full or shutting down.
+     */
+    public Optional<FeedbackSubmission> submit(Feedback feedback) {
+        FeedbackSubmission submission = FeedbackSubmission.queued(UUID.randomUUID().toString());
+        submissions.put(submission.getSubmissionId(), submission);
+        boolean queued;
+        submitGate.readLock().lock();
+        try {
+            queued = running && queue.offer(new QueuedFeedback(submission.getSubmissionId(), feedback));
+        } finally {
+            submitGate.readLock().unlock();
+        }
+        if (!queued) {
+            submissions.remove(submission.getSubmissionId());
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        return Optional.of(submission);
+    }
+
+    public Optional<FeedbackSubmission> getSubmission(String submissionId) {
+        return Optional.ofNullable(submissions.get(submissionId));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "feedback-write-behind");
+        writer.start();
+        logger.info("Feedback write-behind started with queue capacity {}", queue.remainingCapacity());
+    }
+
+    @Override
+    public void stop() {
+        // The writer keeps going until the queue is empty so accepted submissions are not dropped
+        submitGate.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submitGate.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Feedback write-behind stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<QueuedFeedback> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Waits for a first item, then for at most the batch delay until the batch is full
+    List<QueuedFeedback> nextBatch() throws InterruptedException {
+        List<QueuedFeedback> batch = new ArrayList<>(maxBatchSize);
+        QueuedFeedback first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            QueuedFeedback next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    void flush(List<QueuedFeedback> batch) {
+        batchSizeSummary.record(batch.size());
+        List<Feedback> items = batch.stream().map(QueuedFeedback::feedback).toList();
+        try {
+            BulkFeedbackResult result = flushTimer.recordCallable(() -> feedbackService.createFeedbackBulk(items));
+            for (BulkFeedbackResult.ItemResult itemResult : result.getResults()) {
+                String submissionId = batch.get(itemResult.getIndex()).submissionId();
+                if (BulkFeedbackResult.CREATED.equals(itemResult.getStatus())) {
+                    submissions.replace(submissionId, new FeedbackSubmission(
+                            submissionId, FeedbackSubmission.WRITTEN, itemResult.getId(), List.of()));
+                } else {
+                    failedCounter.increment();
+                    submissions.replace(submissionId, new FeedbackSubmission(
+                            submissionId, FeedbackSubmission.FAILED, null, itemResult.getErrors()));
+                }
+            }
+        } catch (Exception e) {
+            // The bulk write reports a failed shard's items per item and only throws when none of the batch was stored
+            logger.error("Failed to write batch of {} queued feedback items: {}", batch.size(), e.getMessage());
+            failedCounter.increment(batch.size());
+            for (QueuedFeedback queued : batch) {
+                submissions.replace(queued.submissionId(), new FeedbackSubmission(
+                        queued.submissionId(), FeedbackSubmission.FAILED, null, List.of("Feedback could not be stored")));
+            }
+        }
+    }
+
+    record QueuedFeedback(String submissionId, Feedback feedback) {
+    }
+}
\ No newline at end of file
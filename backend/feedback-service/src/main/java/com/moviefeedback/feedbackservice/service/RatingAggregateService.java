@@ -0,0 +1,373 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.dto.FeedbackStats;
+import com.moviefeedback.feedbackservice.model.FeedbackEvent;
+import com.moviefeedback.feedbackservice.model.MovieRatingAggregate;
+import com.moviefeedback.feedbackservice.repository.FeedbackRepository;
+import com.moviefeedback.feedbackservice.repository.MovieRatingAggregateRepository;
+import com.moviefeedback.feedbackservice.repository.RatingCount;
+import com.moviefeedback.feedbackservice.sharding.FeedbackShards;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Maintains the per-movie rating aggregates in the same transaction as the feedback change,
+ * and mirrors the committed values in memory so rating reads never touch the feedback table.
+ *
+ * <p>The mirror takes this instance's own changes as they commit. Changes made by other instances
+ * sharing the database are picked up by re-reading the aggregates updated since the last refresh,
+ * every {@code feedback.aggregates.mirror-refresh-interval}. The re-read reaches back a further
+ * {@code mirror-refresh-lookback}, for transactions that commit late and for clock differences
+ * between instances; a change outside that margin waits for the next reconcile.
+ */
+@Service
+@Timed(value = "service.invocations", description = "Service method latency")
+public class RatingAggregateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    private final MovieRatingAggregateRepository aggregateRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final CollectionVersions collectionVersions;
+    private final FeedbackEventOutbox eventOutbox;
+    private final FeedbackShards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration mirrorRefreshLookback;
+    private final Map<Long, RatingSnapshot> mirror = new ConcurrentHashMap<>();
+    private volatile boolean mirrorLoaded;
+    // Per shard, when the mirror last started reading aggregates from the database
+    private final Map<Integer, LocalDateTime> mirrorReadAt = new ConcurrentHashMap<>();
+    // Sums over the mirror's entries, moved by every entry that is replaced
+    private final long[] totalHistogram = new long[5];
+    private long ratedMovies;
+
+    @Autowired
+    public RatingAggregateService(MovieRatingAggregateRepository aggregateRepository,
+                                  FeedbackRepository feedbackRepository,
+                                  CollectionVersions collectionVersions,
+                                  FeedbackEventOutbox eventOutbox,
+                                  FeedbackShards shards,
+                                  PlatformTransactionManager transactionManager,
+                                  DataSource dataSource,
+                                  @Value("${feedback.aggregates.mirror-refresh-lookback:PT30S}") Duration mirrorRefreshLookback) {
+        this.aggregateRepository = aggregateRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.collectionVersions = collectionVersions;
+        this.eventOutbox = eventOutbox;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.mirrorRefreshLookback = mirrorRefreshLookback;
+    }
+
+    // Each record method returns the movie's figures as they stand after the change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public RatingSnapshot recordRating(Long movieId, int rating, long delta) {
+        return applyChange(movieId, aggregate -> aggregate.addRating(rating, delta));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<RatingSnapshot> recordRatingChange(Long movieId, int oldRating, int newRating) {
+        if (oldRating == newRating) {
+            return Optional.empty();
+        }
+        return Optional.of(applyChange(movieId, aggregate -> {
+            aggregate.addRating(oldRating, -1);
+            aggregate.addRating(newRating, 1);
+        }));
+    }
+
+    // Index 0 of ratingDeltas holds the change in 1-star ratings, index 4 the change in 5-star ratings
+    @Transactional(propagation = Propagation.MANDATORY)
+    public RatingSnapshot recordRatings(Long movieId, long[] ratingDeltas) {
+        return applyChange(movieId, aggregate -> {
+            for (int rating = 1; rating <= ratingDeltas.length; rating++) {
+                if (ratingDeltas[rating - 1] != 0) {
+                    aggregate.addRating(rating, ratingDeltas[rating - 1]);
+                }
+            }
+        });
+    }
+    
+    public Optional<RatingSnapshot> getSnapshot(Long movieId) {
+        if (!mirrorLoaded) {
+            return shards.onShard(shards.shardOf(movieId),
+                    () -> aggregateRepository.findById(movieId).map(RatingSnapshot::from));
+        }
+        return Optional.ofNullable(mirror.get(movieId));
+    }
+
+    public Collection<RatingSnapshot> getAllSnapshots() {
+        if (!mirrorLoaded) {
+            return shards.onAllShards(shard -> aggregateRepository.findAll()).stream()
+                    .flatMap(List::stream).map(RatingSnapshot::from).toList();
+        }
+        return mirror.values();
+    }
+
+    /**
+     * Adds the ratings of all movies to the stats. Once the mirror is loaded this costs the same
+     * however many movies and ratings there are.
+     */
+    public void addTotals(FeedbackStats stats) {
+        if (!mirrorLoaded) {
+            getAllSnapshots().forEach(snapshot -> addTo(stats, snapshot));
+            return;
+        }
+        synchronized (totalHistogram) {
+            for (int rating = 1; rating <= 5; rating++) {
+                stats.addRatings(rating, totalHistogram[rating - 1]);
+            }
+            stats.addRatedMovies(ratedMovies);
+        }
+    }
+
+    private static void addTo(FeedbackStats stats, RatingSnapshot snapshot) {
+        for (int rating = 1; rating <= 5; rating++) {
+            stats.addRatings(rating, snapshot.getRatingCount(rating));
+        }
+        stats.addRatedMovies(snapshot.getFeedbackCount() > 0 ? 1 : 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${feedback.aggregates.reconcile-interval:PT15M}",
+               fixedDelayString = "${feedback.aggregates.reconcile-interval:PT15M}")
+    public void reconcile() {
+        logger.info("Reconciling movie rating aggregates against feedback");
+
+        // A movie's feedback and aggregate share a shard, so every shard is reconciled on its own
+        List<int[]> totals = shards.onAllShards(this::reconcileShard);
+        mirrorLoaded = true;
+
+        logger.info("Rating aggregates reconciled: {} movies, {} repaired",
+                totals.stream().mapToInt(total -> total[0]).sum(), totals.stream().mapToInt(total -> total[1]).sum());
+    }
+
+    // Returns the number of movies on the shard and the number of them repaired
+    private int[] reconcileShard(int shard) {
+        Map<Long, long[]> actual = new HashMap<>();
+        for (RatingCount ratingCount : feedbackRepository.countRatingsForAllMovies()) {
+            actual.computeIfAbsent(ratingCount.getMovieId(), id -> new long[5])[ratingCount.getRating() - 1] =
+                    ratingCount.getCount();
+        }
+
+        // Cheap first pass without locks, possibly on a read replica; drifted movies are re-checked on
+        // the primary under the row lock below
+        Set<Long> drifted = new HashSet<>();
+        Set<Long> stored = new HashSet<>();
+        for (MovieRatingAggregate aggregate : aggregateRepository.findAll()) {
+            stored.add(aggregate.getMovieId());
+            long[] expected = actual.getOrDefault(aggregate.getMovieId(), new long[5]);
+            if (!Arrays.equals(expected, aggregate.getRatingHistogram())) {
+                drifted.add(aggregate.getMovieId());
+            }
+        }
+        for (Long movieId : actual.keySet()) {
+            if (!stored.contains(movieId)) {
+                drifted.add(movieId);
+            }
+        }
+
+        int repaired = 0;
+        for (Long movieId : drifted) {
+            Boolean fixed = transactionTemplate.execute(status -> repair(movieId));
+            if (Boolean.TRUE.equals(fixed)) {
+                repaired++;
+            }
+        }
+
+        // Read-write, so that the mirror is loaded from the primary rather than a lagging read replica
+        LocalDateTime readAt = LocalDateTime.now();
+        List<RatingSnapshot> snapshots = transactionTemplate.execute(status ->
+                aggregateRepository.findAll().stream().map(RatingSnapshot::from).toList());
+        snapshots.forEach(this::updateMirror);
+        mirrorReadAt.put(shard, readAt);
+        return new int[] {snapshots.size(), repaired};
+    }
+
+    @Scheduled(initialDelayString = "${feedback.aggregates.mirror-refresh-interval:PT5S}",
+               fixedDelayString = "${feedback.aggregates.mirror-refresh-interval:PT5S}")
+    public void refreshMirror() {
+        if (!mirrorLoaded) {
+            return;
+        }
+        int refreshed = shards.onAllShards(this::refreshShard).stream().mapToInt(Integer::intValue).sum();
+        if (refreshed > 0) {
+            logger.debug("Rating mirror took {} aggregates changed by other instances", refreshed);
+        }
+    }
+
+    // Returns the number of mirror entries replaced by newer revisions
+    private int refreshShard(int shard) {
+        LocalDateTime since = mirrorReadAt.get(shard);
+        if (since == null) {
+            return 0;
+        }
+        LocalDateTime readAt = LocalDateTime.now();
+        // Read-write for the primary, as in the reconcile
+        List<RatingSnapshot> snapshots = transactionTemplate.execute(status ->
+                aggregateRepository.findByUpdatedAtAfter(since.minus(mirrorRefreshLookback)).stream()
+                        .map(RatingSnapshot::from).toList());
+        int refreshed = 0;
+        for (RatingSnapshot snapshot : snapshots) {
+            if (updateMirror(snapshot)) {
+                refreshed++;
+                // The rating endpoints now serve figures their ETags do not cover yet
+                collectionVersions.incrementAfterCommit(
+                        List.of(CollectionVersions.FEEDBACK, CollectionVersions.forMovie(snapshot.getMovieId())));
+            }
+        }
+        mirrorReadAt.put(shard, readAt);
+        return refreshed;
+    }
+
+    private boolean repair(Long movieId) {
+        MovieRatingAggregate aggregate = lockAggregate(movieId);
+
+        long[] expected = new long[5];
+        for (RatingCount ratingCount : feedbackRepository.countRatingsByMovieIds(List.of(movieId))) {
+            expected[ratingCount.getRating() - 1] = ratingCount.getCount();
+        }
+        if (Arrays.equals(expected, aggregate.getRatingHistogram()) && aggregate.getRevision() > 0) {
+            return false;
+        }
+
+        logger.warn("Repairing drifted rating aggregate for movie: {}", movieId);
+        aggregate.resetTo(expected);
+        aggregateRepository.save(aggregate);
+        RatingSnapshot snapshot = RatingSnapshot.from(aggregate);
+        eventOutbox.append(FeedbackEvent.Type.RATINGS_REPAIRED, null, snapshot);
+        publishAfterCommit(snapshot);
+        // Repaired figures differ from what the rating endpoints served before
+        collectionVersions.incrementAfterCommit(List.of(CollectionVersions.FEEDBACK, CollectionVersions.forMovie(movieId)));
+        return true;
+    }
+
+    private RatingSnapshot applyChange(Long movieId, Consumer<MovieRatingAggregate> change) {
+        MovieRatingAggregate aggregate = lockAggregate(movieId);
+        change.accept(aggregate);
+        aggregateRepository.save(aggregate);
+        RatingSnapshot snapshot = RatingSnapshot.from(aggregate);
+        publishAfterCommit(snapshot);
+        return snapshot;
+    }
+
+    // Creates the movie's row first when it has none, so that concurrent first ratings queue on its
+    // lock instead of both inserting it
+    private MovieRatingAggregate lockAggregate(Long movieId) {
+        Optional<MovieRatingAggregate> existing = aggregateRepository.findByIdForUpdate(movieId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            insertAggregate(movieId);
+        } catch (DuplicateKeyException e) {
+            // Inserted by a concurrent transaction, which has committed by now
+            logger.debug("Rating aggregate for movie {} was created concurrently", movieId);
+        }
+        return aggregateRepository.findByIdForUpdate(movieId)
+                .orElseThrow(() -> new IllegalStateException("No rating aggregate for movie " + movieId));
+    }
+
+    // Plain JDBC on the transaction's connection, as a failed insert through the entity manager would
+    // mark the whole transaction for rollback. A failed insert is rolled back to a savepoint, since
+    // databases such as PostgreSQL refuse every further statement of a transaction after an error.
+    private void insertAggregate(Long movieId) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO movie_rating_aggregates "
+                    + "(movie_id, rating_sum, feedback_count, one_star_count, two_star_count, three_star_count, "
+                    + "four_star_count, five_star_count, revision, updated_at) "
+                    + "VALUES (?, 0, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP)")) {
+                insert.setLong(1, movieId);
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    private void publishAfterCommit(RatingSnapshot snapshot) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    updateMirror(snapshot);
+                }
+            });
+        } else {
+            updateMirror(snapshot);
+        }
+    }
+
+    // Returns whether the snapshot is newer than the entry it replaced
+    private boolean updateMirror(RatingSnapshot snapshot) {
+        boolean[] newer = new boolean[1];
+        // Commits can complete out of order, so only a higher revision may replace the current entry
+        mirror.compute(snapshot.getMovieId(), (movieId, current) -> {
+            if (current != null && snapshot.getRevision() < current.getRevision()) {
+                return current;
+            }
+            newer[0] = current == null || snapshot.getRevision() > current.getRevision();
+            synchronized (totalHistogram) {
+                addToTotals(current, -1);
+                addToTotals(snapshot, 1);
+            }
+            return snapshot;
+        });
+        return newer[0];
+    }
+
+    private void addToTotals(RatingSnapshot snapshot, int sign) {
+        if (snapshot == null) {
+            return;
+        }
+        for (int rating = 1; rating <= 5; rating++) {
+            totalHistogram[rating - 1] += sign * snapshot.getRatingCount(rating);
+        }
+        if (snapshot.getFeedbackCount() > 0) {
+            ratedMovies += sign;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.dto.RatingSummary;
+import com.moviefeedback.feedbackservice.model.MovieRatingAggregate;
+
+import java.time.LocalDateTime;
+
+public final class RatingSnapshot {
+    
+    private final long movieId;
+    private final long revision;
+    private final long ratingSum;
+    private final long feedbackCount;
+    private final long[] ratingHistogram;
+    private final LocalDateTime updatedAt;
+    
+    private RatingSnapshot(long movieId, long revision, long ratingSum, long feedbackCount,
+                           long[] ratingHistogram, LocalDateTime updatedAt) {
+        this.movieId = movieId;
+        this.revision = revision;
+        this.ratingSum = ratingSum;
+        this.feedbackCount = feedbackCount;
+        this.ratingHistogram = ratingHistogram;
+        this.updatedAt = updatedAt;
+    }
+    
+    public static RatingSnapshot from(MovieRatingAggregate aggregate) {
+        return new RatingSnapshot(aggregate.getMovieId(), aggregate.getRevision(), aggregate.getRatingSum(),
+                aggregate.getFeedbackCount(), aggregate.getRatingHistogram(), aggregate.getUpdatedAt());
+    }
+    
+    public RatingSummary toSummary() {
+        RatingSummary summary = new RatingSummary(movieId);
+        summary.setRevision(revision);
+        for (int i = 0; i < ratingHistogram.length; i++) {
+            summary.addRatings(i + 1, ratingHistogram[i]);
+        }
+        return summary;
+    }
+    
+    public Double getAverageRating() {
+        return feedbackCount > 0 ? (double) ratingSum / feedbackCount : null;
+    }
+    
+    public long getMovieId() {
+        return movieId;
+    }
+    
+    public long getRevision() {
+        return revision;
+    }
+    
+    public long getRatingSum() {
+        return ratingSum;
+    }
+    
+    public long getFeedbackCount() {
+        return feedbackCount;
+    }
+    
+    public long getRatingCount(int rating) {
+        return ratingHistogram[rating - 1];
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,225 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.repository.FeedbackRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Keeps the newest feedback of recently read movies in fixed-size ring buffers, so the recent
+ * feedback endpoint answers from memory. A buffer is loaded with one limited, indexed query and
+ * then kept current by the writes committed through this instance. Buffers are reloaded after
+ * the refresh interval so that writes made by other instances show up within that interval.
+ */
+@Component
+public class RecentFeedbackBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentFeedbackBuffer.class);
+
+    private final FeedbackRepository feedbackRepository;
+    private final int capacity;
+    private final long refreshIntervalNanos;
+    private final Map<Long, Ring> rings;
+    // The newest feedback of all movies
+    private final Ring latest;
+
+    @Autowired
+    public RecentFeedbackBuffer(FeedbackRepository feedbackRepository,
+                                @Value("${feedback.recent.buffer-size:50}") int capacity,
+                                @Value("${feedback.recent.max-movies:10000}") int maxMovies,
+                                @Value("${feedback.recent.refresh-interval:PT1M}") Duration refreshInterval) {
+        this.feedbackRepository = feedbackRepository;
+        this.capacity = capacity;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.latest = new Ring(capacity);
+        // Access-ordered so the least recently used movies are dropped first
+        this.rings = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+                return size() > maxMovies;
+            }
+        });
+    }
+
+    /**
+     * Returns up to limit feedback items for the movie, newest first. Limits above the buffer
+     * size are reduced to it.
+     */
+    public List<Feedback> getRecent(Long movieId, int limit) {
+        int bounded = Math.min(limit, capacity);
+        Ring ring = rings.computeIfAbsent(movieId, id -> new Ring(capacity));
+        List<Feedback> buffered = ring.newest(bounded, System.nanoTime() - refreshIntervalNanos);
+        if (buffered != null) {
+            return buffered;
+        }
+
+        logger.debug("Recent feedback buffer for movie {} is cold, loading {} rows", movieId, capacity);
+        long version = ring.version();
+        List<Feedback> rows = feedbackRepository.findByMovieIdOrderByCreatedAtDescIdDesc(movieId, Limit.of(capacity));
+        ring.load(rows, version, System.nanoTime());
+        return rows.size() > bounded ? new ArrayList<>(rows.subList(0, bounded)) : rows;
+    }
+
+    /**
+     * Returns up to limit feedback items of all movies, newest first, like getRecent. A cold or
+     * stale buffer is loaded through the loader, which returns the newest feedback up to the
+     * given limit, newest first.
+     */
+    public List<Feedback> getLatest(int limit, Function<Limit, List<Feedback>> loader) {
+        int bounded = Math.min(limit, capacity);
+        List<Feedback> buffered = latest.newest(bounded, System.nanoTime() - refreshIntervalNanos);
+        if (buffered != null) {
+            return buffered;
+        }
+
+        logger.debug("Latest feedback buffer is cold, loading {} rows", capacity);
+        long version = latest.version();
+        List<Feedback> rows = loader.apply(Limit.of(capacity));
+        latest.load(rows, version, System.nanoTime());
+        return rows.size() > bounded ? new ArrayList<>(rows.subList(0, bounded)) : rows;
+    }
+
+    public void recordCreated(Collection<Feedback> created) {
+        afterCommit(() -> created.forEach(feedback -> {
+            rings.computeIfAbsent(feedback.getMovieId(), id -> new Ring(capacity)).push(feedback);
+            latest.push(feedback);
+        }));
+    }
+
+    public void recordUpdated(Feedback updated) {
+        afterCommit(() -> {
+            Ring ring = rings.get(updated.getMovieId());
+            if (ring != null) {
+                ring.replace(updated);
+            }
+            latest.replace(updated);
+        });
+    }
+
+    public void recordDeleted(Feedback deleted) {
+        afterCommit(() -> {
+            Ring ring = rings.get(deleted.getMovieId());
+            if (ring != null) {
+                ring.remove(deleted.getId());
+            }
+            latest.remove(deleted.getId());
+        });
+    }
+
+    // Rolled back writes must never become visible, so buffers only change once the transaction commits
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static final class Ring {
+
+        private final Feedback[] slots;
+        private int head = -1;
+        private int size;
+        // True when the ring holds every feedback item of the movie, not just the newest ones
+        private boolean complete;
+        private long loadedAt;
+        private boolean loaded;
+        private long version;
+
+        Ring(int capacity) {
+            this.slots = new Feedback[capacity];
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        // Null when the ring cannot answer on its own and has to be loaded first
+        synchronized List<Feedback> newest(int limit, long staleBefore) {
+            if (!loaded || loadedAt - staleBefore < 0 || (size < limit && !complete)) {
+                return null;
+            }
+            return entries(Math.min(limit, size));
+        }
+
+        synchronized void push(Feedback feedback) {
+            head = (head + 1) % slots.length;
+            slots[head] = feedback;
+            if (size < slots.length) {
+                size++;
+            } else {
+                complete = false;
+            }
+            version++;
+        }
+
+        synchronized void replace(Feedback feedback) {
+            for (int i = 0; i < size; i++) {
+                int slot = Math.floorMod(head - i, slots.length);
+                if (Objects.equals(slots[slot].getId(), feedback.getId())) {
+                    slots[slot] = feedback;
+                    version++;
+                    return;
+                }
+            }
+        }
+
+        synchronized void remove(Long feedbackId) {
+            List<Feedback> kept = entries(size);
+            if (kept.removeIf(feedback -> Objects.equals(feedback.getId(), feedbackId))) {
+                fill(kept);
+                version++;
+            }
+        }
+
+        synchronized void load(List<Feedback> newestFirst, long expectedVersion, long now) {
+            // A write committed while the query ran may be missing from the rows; the next read loads again
+            if (version != expectedVersion) {
+                return;
+            }
+            fill(newestFirst);
+            complete = newestFirst.size() < slots.length;
+            loaded = true;
+            loadedAt = now;
+        }
+
+        private List<Feedback> entries(int count) {
+            List<Feedback> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(slots[Math.floorMod(head - i, slots.length)]);
+            }
+            return entries;
+        }
+
+        private void fill(List<Feedback> newestFirst) {
+            Arrays.fill(slots, null);
+            size = Math.min(newestFirst.size(), slots.length);
+            for (int i = 0; i < size; i++) {
+                slots[size - 1 - i] = newestFirst.get(i);
+            }
+            head = size - 1;
+        }
+    }
+}
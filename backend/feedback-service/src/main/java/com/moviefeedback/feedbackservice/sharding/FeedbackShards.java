@@ -0,0 +1,165 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Hash-partitions feedback by movie id over the databases in feedback.shards.urls. A movie's
+ * feedback, rating aggregate and rating events all live on its shard, so every feedback write is
+ * one local transaction. Feedback ids carry their shard in the bits from ID_SHIFT up, so lookups
+ * by id go to a single shard too.
+ *
+ * <p>Work is bound to a shard for the current thread, and {@link ShardRoutingDataSource} sends
+ * the connections it takes there; unbound work goes to shard 0. Without feedback.shards.urls
+ * there is one shard, the spring.datasource database.
+ */
+@Component
+public class FeedbackShards {
+
+    public static final int ID_SHIFT = 40;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int count;
+    private final ExecutorService executor;
+
+    @Autowired
+    public FeedbackShards(@Value("${feedback.shards.urls:}") List<String> urls) {
+        this(Math.max(1, urls.size()));
+    }
+
+    public FeedbackShards(int count) {
+        this.count = count;
+        // One thread per shard, so that a scatter-gather query reads all shards at once
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = count == 1 ? null : Executors.newFixedThreadPool(count, task -> {
+            Thread thread = new Thread(task, "feedback-shard-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public List<Integer> all() {
+        return IntStream.range(0, count).boxed().toList();
+    }
+
+    /**
+     * The shard holding the movie's feedback. It only depends on the movie id and the shard
+     * count, so changing the number of shards moves movies and needs their rows moved as well.
+     */
+    public int shardOf(Long movieId) {
+        return movieId == null ? 0 : Math.floorMod(Long.hashCode(movieId), count);
+    }
+
+    // Ids of shards that do not exist are sent to shard 0, whose ids all lie below 1 << ID_SHIFT
+    public int shardOfFeedback(Long feedbackId) {
+        int shard = feedbackId == null ? 0 : (int) (feedbackId >>> ID_SHIFT);
+        return shard < count ? shard : 0;
+    }
+
+    public static long firstFeedbackId(int shard) {
+        return ((long) shard << ID_SHIFT) + 1;
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = bind(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public void runOnShard(int shard, Runnable work) {
+        onShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> List<T> onAllShards(IntFunction<T> work) {
+        return onShards(all(), work);
+    }
+
+    /**
+     * Runs the work once for every given shard, bound to that shard, and returns the results in
+     * the order of the shards. Shards are worked on in parallel, each on its own thread, so the
+     * work must not rely on a transaction of the calling thread. If any shard fails, the first
+     * failure is rethrown once all shards have finished.
+     */
+    public <T> List<T> onShards(Collection<Integer> shards, IntFunction<T> work) {
+        if (executor == null || shards.size() < 2) {
+            return shards.stream().map(shard -> onShard(shard, () -> work.apply(shard))).toList();
+        }
+
+        List<Future<T>> futures = new ArrayList<>();
+        for (int shard : shards) {
+            futures.add(executor.submit(() -> onShard(shard, () -> work.apply(shard))));
+        }
+        List<T> results = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                            ? runtime : new IllegalStateException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the feedback shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the parameter that decides which shard a service method runs on: a movie id, a
+ * Feedback (its movie id) or, with feedbackId set, a feedback id. The shard is bound before the
+ * method's transaction begins, so the whole transaction runs on it.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    boolean feedbackId() default false;
+}
@@ -0,0 +1,58 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import com.moviefeedback.feedbackservice.model.Feedback;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Binds methods with a {@link ShardKey} parameter to their shard. Ordered ahead of the
+ * transaction interceptor, so the shard is bound before a connection is taken.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardKeyAspect {
+
+    private final FeedbackShards shards;
+
+    @Autowired
+    public ShardKeyAspect(FeedbackShards shards) {
+        this.shards = shards;
+    }
+
+    @Around("execution(* com.moviefeedback.feedbackservice..*(.., @com.moviefeedback.feedbackservice.sharding.ShardKey (*), ..))")
+    public Object bindShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Annotation[][] annotations = ((MethodSignature) joinPoint.getSignature()).getMethod().getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+        int shard = 0;
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey key) {
+                    shard = shardOf(key, args[i]);
+                }
+            }
+        }
+
+        Integer previous = shards.bind(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            shards.restore(previous);
+        }
+    }
+
+    private int shardOf(ShardKey key, Object arg) {
+        if (arg instanceof Feedback feedback) {
+            return shards.shardOf(feedback.getMovieId());
+        }
+        return key.feedbackId() ? shards.shardOfFeedback((Long) arg) : shards.shardOf((Long) arg);
+    }
+}
@@ -0,0 +1,50 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends every connection to the shard bound to the current thread by {@link FeedbackShards},
+ * or to shard 0 when none is. Wrapped in a LazyConnectionDataSourceProxy, so that a transaction
+ * takes its connection at its first statement, from the shard bound at that point.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        // A shard number without a database is a bug, not something to send to shard 0
+        setLenientFallback(false);
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = FeedbackShards.current();
+        return shard == null ? 0 : shard;
+    }
+
+    // Closes the shards' pools with the application context
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
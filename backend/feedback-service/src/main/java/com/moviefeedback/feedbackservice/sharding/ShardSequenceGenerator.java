@@ -0,0 +1,32 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The pooled sequence generator with one pool of ids per shard. The plain generator keeps a
+ * single pool for the session factory, which would hand ids fetched from one shard's sequence
+ * to rows stored on another shard.
+ */
+public class ShardSequenceGenerator extends SequenceStyleGenerator {
+
+    private final Map<Integer, Optimizer> optimizers = new ConcurrentHashMap<>();
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Integer shard = FeedbackShards.current();
+        DatabaseStructure structure = getDatabaseStructure();
+        Optimizer optimizer = optimizers.computeIfAbsent(shard == null ? 0 : shard, key ->
+                OptimizerFactory.buildOptimizer(StandardOptimizerDescriptor.POOLED,
+                        getIdentifierType().getReturnedClass(), structure.getIncrementSize(), structure.getInitialValue()));
+        // The session's connection is the bound shard's, so the callback reads that shard's sequence
+        return optimizer.generate(structure.buildCallback(session));
+    }
+}
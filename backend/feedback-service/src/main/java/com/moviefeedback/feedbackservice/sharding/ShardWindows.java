@@ -0,0 +1,47 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import com.moviefeedback.feedbackservice.model.Feedback;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the windows the shards return for the same keyset query into one window of the
+ * query's size. Each shard window holds the shard's first rows after the position, so the
+ * first rows of the merge are the first rows of all shards.
+ */
+public final class ShardWindows {
+
+    private static final Comparator<Feedback> CREATED_AT_ORDER =
+            Comparator.comparing(Feedback::getCreatedAt).thenComparing(Feedback::getId);
+
+    private ShardWindows() {}
+
+    // For windows in KeysetCursor.CREATED_AT_ORDER
+    public static Window<Feedback> mergeByCreatedAt(List<Window<Feedback>> windows, int limit) {
+        if (windows.size() == 1) {
+            return windows.get(0);
+        }
+        List<Feedback> rows = new ArrayList<>();
+        boolean more = false;
+        for (Window<Feedback> window : windows) {
+            rows.addAll(window.getContent());
+            more |= window.hasNext();
+        }
+        rows.sort(CREATED_AT_ORDER);
+        List<Feedback> page = rows.size() > limit ? List.copyOf(rows.subList(0, limit)) : rows;
+        return Window.from(page, index -> positionOf(page.get(index)), more || rows.size() > limit);
+    }
+
+    private static ScrollPosition positionOf(Feedback feedback) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", feedback.getCreatedAt());
+        keys.put("id", feedback.getId());
+        return ScrollPosition.forward(keys);
+    }
+}
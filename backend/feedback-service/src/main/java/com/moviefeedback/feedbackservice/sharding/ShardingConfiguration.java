@@ -0,0 +1,86 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with one pool per database in feedback.shards.urls,
+ * routed by {@link ShardRoutingDataSource}, and runs the Flyway migrations on every shard. The
+ * bean names match those of the read replica configuration, so the two cannot be combined.
+ */
+@Configuration
+@ConditionalOnProperty(name = "feedback.shards.urls")
+public class ShardingConfiguration {
+
+    // The pooled id optimizer hands out the 50 ids below each sequence value
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${feedback.shards.urls}") List<String> urls) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            // Every shard gets the pool settings the auto-configured data source would have had
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + i);
+            shard.setJdbcUrl(urls.get(i).trim());
+            shard.setUsername(properties.determineUsername());
+            shard.setPassword(properties.determinePassword());
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            List<DataSource> shards = shardRoutingDataSource.getShards();
+            for (int i = 0; i < shards.size(); i++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shards.get(i))
+                        .load()
+                        .migrate();
+                reserveFeedbackIds(shards.get(i), i);
+            }
+        };
+    }
+
+    // Moves the shard's feedback sequence into the id range of the shard, unless it is there already
+    private static void reserveFeedbackIds(DataSource shard, int index) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shard);
+        Long next = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'FEEDBACK_SEQ'", Long.class);
+        long first = FeedbackShards.firstFeedbackId(index);
+        if (next != null && next < first) {
+            jdbcTemplate.execute("ALTER SEQUENCE feedback_seq RESTART WITH " + (first + ID_ALLOCATION_SIZE - 1));
+        }
+    }
+}
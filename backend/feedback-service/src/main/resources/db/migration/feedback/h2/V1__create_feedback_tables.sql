@@ -0,0 +1,28 @@
+-- Incremented by the id allocation size so Hibernate can hand out ids in pooled blocks
+CREATE SEQUENCE feedback_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE feedback (
+    id BIGINT NOT NULL,
+    movie_id BIGINT NOT NULL,
+    visitor_name VARCHAR(255) NOT NULL,
+    comment VARCHAR(1000) NOT NULL,
+    rating INTEGER NOT NULL,
+    visitor_email VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE movie_rating_aggregates (
+    movie_id BIGINT NOT NULL,
+    rating_sum BIGINT NOT NULL,
+    feedback_count BIGINT NOT NULL,
+    one_star_count BIGINT NOT NULL,
+    two_star_count BIGINT NOT NULL,
+    three_star_count BIGINT NOT NULL,
+    four_star_count BIGINT NOT NULL,
+    five_star_count BIGINT NOT NULL,
+    revision BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (movie_id)
+);
@@ -0,0 +1,4 @@
+-- Equality and range filters followed by the (created_at, id) order used for paging and recent feedback
+CREATE INDEX idx_feedback_movie_created ON feedback (movie_id, created_at, id);
+CREATE INDEX idx_feedback_rating_created ON feedback (rating, created_at, id);
+CREATE INDEX idx_feedback_created ON feedback (created_at, id);
@@ -0,0 +1,15 @@
+-- Outbox of rating changes read by other services in id order; identity ids follow insert order
+CREATE TABLE feedback_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    event_type VARCHAR(32) NOT NULL,
+    movie_id BIGINT NOT NULL,
+    feedback_id BIGINT,
+    average_rating DOUBLE PRECISION NOT NULL,
+    feedback_count BIGINT NOT NULL,
+    rating_revision BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Retention purge deletes by age
+CREATE INDEX idx_feedback_events_created ON feedback_events (created_at);
@@ -0,0 +1,2 @@
+-- Lets each instance's rating mirror read only the aggregates changed since its last refresh
+CREATE INDEX idx_movie_rating_aggregates_updated ON movie_rating_aggregates (updated_at);
@@ -0,0 +1,9 @@
+-- Identifies this database's event log. Every instance sharing the database reports the same id,
+-- and a recreated database gets a new one, so consumers can tell which log their offset belongs to
+CREATE TABLE feedback_event_log (
+    id INT NOT NULL,
+    log_id VARCHAR(36) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO feedback_event_log (id, log_id) VALUES (1, CAST(RANDOM_UUID() AS VARCHAR(36)));
@@ -0,0 +1,91 @@
+package com.moviefeedback.feedbackservice.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedbackSnapshotTest {
+
+    private static final long DAY = 86_400;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void countRatingsByMovie_ShouldCountOnlyRowsInsideTheRange() throws IOException {
+        // Arrange
+        FeedbackSnapshot snapshot = write(new long[][] {
+                {7, 5, 0}, {9, 1, DAY}, {7, 4, 2 * DAY}, {7, 4, 3 * DAY}
+        });
+
+        // Act
+        long[] counts = snapshot.countRatingsByMovie(DAY, 3 * DAY);
+
+        // Assert
+        assertEquals(2, snapshot.movies());
+        int movie7 = snapshot.codeOf(7L);
+        int movie9 = snapshot.codeOf(9L);
+        assertEquals(1, counts[movie7 * 5 + 3]);
+        assertEquals(0, counts[movie7 * 5 + 4]);
+        assertEquals(1, counts[movie9 * 5]);
+        assertEquals(-1, snapshot.codeOf(8L));
+    }
+
+    @Test
+    void countRatingsByPeriod_WhenRowsSpanSeveralBlocks_ShouldDecodeEveryBlock() throws IOException {
+        // Arrange: one row a minute over more than two blocks, alternating between two movies
+        int rows = 2 * FeedbackSnapshot.BLOCK_ROWS + 10;
+        long[][] data = new long[rows][];
+        for (int row = 0; row < rows; row++) {
+            data[row] = new long[] {row % 2 == 0 ? 1 : 2, 1 + row % 5, row * 60L};
+        }
+        FeedbackSnapshot snapshot = write(data);
+        boolean[] onlyMovie2 = new boolean[snapshot.movies()];
+        onlyMovie2[snapshot.codeOf(2L)] = true;
+
+        // Act
+        long[] all = snapshot.countRatingsByPeriod(0, DAY, 100, null);
+        long[] movie2 = snapshot.countRatingsByPeriod(0, DAY, 100, onlyMovie2);
+
+        // Assert
+        assertEquals(rows, sum(all, 0, all.length));
+        assertEquals(rows / 2, sum(movie2, 0, movie2.length));
+        // 1440 rows a day; the last row, number rows - 1, falls on day 91
+        assertEquals(1440, sum(all, 0, 5));
+        assertEquals(288, all[0]);
+        assertEquals((rows - 1) % 1440 + 1, sum(all, 91 * 5, 92 * 5));
+    }
+
+    @Test
+    void open_WhenFileIsNoSnapshot_ShouldFail() throws IOException {
+        // Arrange
+        Path file = Files.write(directory.resolve("other.snapshot"), new byte[64]);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> FeedbackSnapshot.open(file));
+    }
+
+    // Rows of movie id, rating and created-at second
+    private FeedbackSnapshot write(long[][] rows) throws IOException {
+        try (FeedbackSnapshotWriter writer = new FeedbackSnapshotWriter(directory)) {
+            for (long[] row : rows) {
+                writer.addRow(row[0], (int) row[1], row[2]);
+            }
+            return writer.finish(directory.resolve("feedback.snapshot"), Instant.now());
+        }
+    }
+
+    private static long sum(long[] counts, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,127 @@
+package com.moviefeedback.feedbackservice.controller;
+
+import com.moviefeedback.feedbackservice.pagination.KeysetCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "feedback.ratings.max-movie-ids=3"
+})
+@AutoConfigureMockMvc
+class FeedbackControllerTest {
+
+    private static final long MOVIE_ID = 9101L;
+    private static final long OTHER_MOVIE_ID = 9102L;
+    // Never written to by these tests
+    private static final long UNKNOWN_MOVIE_ID = 9103L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        for (long movieId : new long[] {MOVIE_ID, OTHER_MOVIE_ID}) {
+            jdbcTemplate.update("DELETE FROM feedback WHERE movie_id = ?", movieId);
+            jdbcTemplate.update("DELETE FROM movie_rating_aggregates WHERE movie_id = ?", movieId);
+        }
+    }
+
+    @Test
+    void getFeedbackCount_WhenETagStillMatches_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        String eTag = eTagOf("/api/feedback/movie/" + MOVIE_ID + "/count");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/feedback/movie/" + MOVIE_ID + "/count").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void getFeedbackCount_AfterFeedbackForTheMovie_ShouldReturnNewETag() throws Exception {
+        // Arrange
+        String eTag = eTagOf("/api/feedback/movie/" + MOVIE_ID + "/count");
+        String otherETag = eTagOf("/api/feedback/movie/" + OTHER_MOVIE_ID + "/count");
+
+        // Act
+        mockMvc.perform(post("/api/feedback")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"movieId\":" + MOVIE_ID + ",\"visitorName\":\"ETag Visitor\","
+                                + "\"visitorEmail\":\"etag@example.com\",\"comment\":\"Moves the version\",\"rating\":5}"))
+                .andExpect(status().isCreated());
+
+        // Assert
+        String newETag = mockMvc.perform(get("/api/feedback/movie/" + MOVIE_ID + "/count")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+        mockMvc.perform(get("/api/feedback/movie/" + OTHER_MOVIE_ID + "/count")
+                        .header(HttpHeaders.IF_NONE_MATCH, otherETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getFeedbackCount_ForUnknownMovies_ShouldShareTheInitialETag() throws Exception {
+        // Act
+        String first = eTagOf("/api/feedback/movie/" + UNKNOWN_MOVIE_ID + "/count");
+        String second = eTagOf("/api/feedback/movie/" + UNKNOWN_MOVIE_ID + "/count");
+
+        // Assert
+        assertEquals(first, second);
+        assertTrue(first.endsWith("-0\""), first);
+    }
+
+    @Test
+    void getAllFeedback_WhenCursorIsTampered_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("visitorName", "ETag Visitor", "id", 1L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/feedback").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/feedback").param("limit", "2").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRatingSummaries_WhenTooManyMovieIds_ShouldReturnPayloadTooLarge() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/feedback/ratings/summary").param("movieIds", "1,2,3"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/feedback/ratings/summary").param("movieIds", "1,2,3,4"))
+                .andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(post("/api/feedback/ratings/summary")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2,3,4]"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    private String eTagOf(String uri) throws Exception {
+        String eTag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+}
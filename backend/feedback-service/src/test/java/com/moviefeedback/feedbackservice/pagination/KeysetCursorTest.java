@@ -0,0 +1,65 @@
+package com.moviefeedback.feedbackservice.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_ShouldReturnTheEncodedKeysWithTheirTypes() {
+        // Arrange
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000));
+        keys.put("id", 42L);
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+
+        // Act
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, KeysetCursor.CREATED_AT_KEYS);
+
+        // Assert
+        assertEquals(keys, position.getKeys());
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    }
+
+    @Test
+    void decode_WhenCursorIsMissing_ShouldStartAtTheBeginning() {
+        // Act & Assert
+        assertTrue(KeysetCursor.decode(null, KeysetCursor.CREATED_AT_KEYS).isInitial());
+        assertTrue(KeysetCursor.decode(" ", KeysetCursor.CREATED_AT_KEYS).isInitial());
+    }
+
+    @Test
+    void decode_WhenCursorIsNotACursor_ShouldReject() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor!", KeysetCursor.CREATED_AT_KEYS));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("bm9wZQ", KeysetCursor.CREATED_AT_KEYS));
+    }
+
+    @Test
+    void decode_WhenKeysBelongToAnotherOrder_ShouldReject() {
+        // Arrange
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("title", "Inception", "id", 42L)));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, KeysetCursor.CREATED_AT_KEYS));
+    }
+
+    @Test
+    void decode_WhenKeyHasTheWrongType_ShouldReject() {
+        // Arrange
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", "yesterday");
+        keys.put("id", 42L);
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, KeysetCursor.CREATED_AT_KEYS));
+    }
+}
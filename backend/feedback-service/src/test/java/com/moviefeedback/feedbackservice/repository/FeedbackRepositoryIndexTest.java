@@ -0,0 +1,133 @@
+package com.moviefeedback.feedbackservice.repository;
+
+import com.moviefeedback.feedbackservice.model.Feedback;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN on the SQL Hibernate generates for the feedback query patterns and checks that
+ * H2 plans them with the intended index from the Flyway migrations rather than a table scan.
+ * Visitor name searches use contains matching, which no B-tree index can serve.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.moviefeedback.feedbackservice.repository.FeedbackRepositoryIndexTest$SqlRecorder")
+class FeedbackRepositoryIndexTest {
+
+    private static final Sort CREATED_AT_ORDER = Sort.by("createdAt", "id");
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            rows.add(new Object[] {i, (long) (i % 50), "Visitor " + i, "Comment " + i, i % 5 + 1, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO feedback (id, movie_id, visitor_name, comment, rating, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void findByMovieId_ShouldUseMovieIndex() {
+        // Act
+        String listPlan = explain(() -> feedbackRepository.findByMovieId(7L), 7L);
+        String pagePlan = explain(() -> feedbackRepository.findByMovieId(7L, ScrollPosition.keyset(),
+                CREATED_AT_ORDER, Limit.of(10)), 7L, 11);
+        String recentPlan = explain(() -> feedbackRepository.findByMovieIdOrderByCreatedAtDescIdDesc(7L, Limit.of(10)), 7L, 10);
+
+        // Assert
+        assertUsesIndex(listPlan, "IDX_FEEDBACK_MOVIE_CREATED");
+        assertUsesIndex(pagePlan, "IDX_FEEDBACK_MOVIE_CREATED");
+        assertUsesIndex(recentPlan, "IDX_FEEDBACK_MOVIE_CREATED");
+    }
+
+    @Test
+    void streamByMovieId_ShouldUseMovieIndex() {
+        // Act
+        String plan = explain(() -> {
+            try (Stream<Feedback> feedback = feedbackRepository.streamByMovieId(7L)) {
+                feedback.findFirst();
+            }
+        }, 7L);
+
+        // Assert
+        assertUsesIndex(plan, "IDX_FEEDBACK_MOVIE_CREATED");
+    }
+
+    @Test
+    void movieAggregates_ShouldUseMovieIndex() {
+        // Act
+        String averagePlan = explain(() -> feedbackRepository.getAverageRatingByMovieId(7L), 7L);
+        String countPlan = explain(() -> feedbackRepository.getFeedbackCountByMovieId(7L), 7L);
+        String ratingCountPlan = explain(() -> feedbackRepository.countRatingsByMovieIds(List.of(7L, 8L)), 7L, 8L);
+
+        // Assert
+        assertUsesIndex(averagePlan, "IDX_FEEDBACK_MOVIE_CREATED");
+        assertUsesIndex(countPlan, "IDX_FEEDBACK_MOVIE_CREATED");
+        assertUsesIndex(ratingCountPlan, "IDX_FEEDBACK_MOVIE_CREATED");
+    }
+
+    @Test
+    void findByRating_ShouldUseRatingIndex() {
+        // Act
+        String equalPlan = explain(() -> feedbackRepository.findByRating(5, ScrollPosition.keyset(),
+                CREATED_AT_ORDER, Limit.of(10)), 5, 11);
+        String rangePlan = explain(() -> feedbackRepository.findByRatingGreaterThanEqual(5), 5);
+
+        // Assert
+        assertUsesIndex(equalPlan, "IDX_FEEDBACK_RATING_CREATED");
+        assertUsesIndex(rangePlan, "IDX_FEEDBACK_RATING_CREATED");
+    }
+
+    @Test
+    void findBy_ShouldReadPagesInCreatedAtIndexOrder() {
+        // Act
+        String plan = explain(() -> feedbackRepository.findBy(ScrollPosition.keyset(), CREATED_AT_ORDER, Limit.of(10)), 11);
+
+        // Assert
+        assertUsesIndex(plan, "IDX_FEEDBACK_CREATED");
+    }
+
+    private String explain(Runnable query, Object... parameters) {
+        SqlRecorder.STATEMENTS.clear();
+        query.run();
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), "Expected exactly one statement");
+        return jdbcTemplate.queryForObject("EXPLAIN " + SqlRecorder.STATEMENTS.get(0), String.class, parameters);
+    }
+
+    private static void assertUsesIndex(String plan, String indexName) {
+        assertTrue(plan.contains(indexName), () -> "Expected " + indexName + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
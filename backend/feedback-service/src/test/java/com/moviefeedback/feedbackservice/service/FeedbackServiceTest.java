@@ -0,0 +1,254 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.dto.BulkFeedbackResult;
+import com.moviefeedback.feedbackservice.dto.RatingSummary;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.model.FeedbackEvent;
+import com.moviefeedback.feedbackservice.model.MovieRatingAggregate;
+import com.moviefeedback.feedbackservice.repository.FeedbackRepository;
+import com.moviefeedback.feedbackservice.sharding.FeedbackShards;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedbackServiceTest {
+
+    @Mock
+    private FeedbackRepository feedbackRepository;
+
+    @Mock
+    private RatingAggregateService ratingAggregateService;
+
+    @Mock
+    private RecentFeedbackBuffer recentFeedbackBuffer;
+
+    @Mock
+    private CollectionVersions collectionVersions;
+
+    @Mock
+    private FeedbackEventOutbox eventOutbox;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private FeedbackShards shards = new FeedbackShards(1);
+
+    @InjectMocks
+    private FeedbackService feedbackService;
+
+    private Feedback testFeedback;
+
+    @BeforeEach
+    void setUp() {
+        testFeedback = new Feedback();
+        testFeedback.setId(1L);
+        testFeedback.setMovieId(10L);
+        testFeedback.setVisitorName("Test Visitor");
+        testFeedback.setComment("A test comment");
+        testFeedback.setRating(4);
+        testFeedback.setVisitorEmail("visitor@example.com");
+        ReflectionTestUtils.setField(feedbackService, "entityManager", entityManager);
+    }
+
+    @Test
+    void createFeedback_WhenRatingIsValid_ShouldCreateFeedback() {
+        // Arrange
+        RatingSnapshot ratings = RatingSnapshot.from(new MovieRatingAggregate(10L));
+        when(feedbackRepository.save(any(Feedback.class))).thenReturn(testFeedback);
+        when(ratingAggregateService.recordRating(10L, 4, 1)).thenReturn(ratings);
+
+        // Act
+        Feedback createdFeedback = feedbackService.createFeedback(testFeedback);
+
+        // Assert
+        assertEquals(testFeedback, createdFeedback);
+        verify(feedbackRepository).save(testFeedback);
+        verify(ratingAggregateService).recordRating(10L, 4, 1);
+        verify(eventOutbox).append(FeedbackEvent.Type.FEEDBACK_CREATED, 1L, ratings);
+        verify(recentFeedbackBuffer).recordCreated(List.of(testFeedback));
+        verify(collectionVersions).incrementAfterCommit(List.of(CollectionVersions.FEEDBACK, CollectionVersions.forMovie(10L)));
+    }
+
+    @Test
+    void createFeedback_WhenRatingIsOutOfRange_ShouldThrowException() {
+        // Arrange
+        testFeedback.setRating(6);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> feedbackService.createFeedback(testFeedback)
+        );
+        assertEquals("Rating must be between 1 and 5", exception.getMessage());
+        verify(feedbackRepository, never()).save(any(Feedback.class));
+        verifyNoInteractions(ratingAggregateService);
+    }
+
+    @Test
+    void updateFeedback_WhenRatingChanges_ShouldMoveRatingInAggregate() {
+        // Arrange
+        Feedback details = new Feedback(10L, "Test Visitor", "Changed my mind", 2, null);
+        RatingSnapshot ratings = RatingSnapshot.from(new MovieRatingAggregate(10L));
+        when(feedbackRepository.findById(1L)).thenReturn(Optional.of(testFeedback));
+        when(feedbackRepository.save(any(Feedback.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ratingAggregateService.recordRatingChange(10L, 4, 2)).thenReturn(Optional.of(ratings));
+
+        // Act
+        Feedback result = feedbackService.updateFeedback(1L, details);
+
+        // Assert
+        assertEquals(2, result.getRating());
+        verify(ratingAggregateService).recordRatingChange(10L, 4, 2);
+        verify(eventOutbox).append(FeedbackEvent.Type.FEEDBACK_UPDATED, 1L, ratings);
+    }
+
+    @Test
+    void deleteFeedback_WhenFeedbackExists_ShouldRemoveRatingFromAggregate() {
+        // Arrange
+        when(feedbackRepository.findById(1L)).thenReturn(Optional.of(testFeedback));
+
+        // Act
+        feedbackService.deleteFeedback(1L);
+
+        // Assert
+        verify(feedbackRepository).delete(testFeedback);
+        verify(ratingAggregateService).recordRating(10L, 4, -1);
+        verify(eventOutbox).append(eq(FeedbackEvent.Type.FEEDBACK_DELETED), eq(1L), any());
+    }
+
+    @Test
+    void deleteFeedback_WhenFeedbackDoesNotExist_ShouldThrowException() {
+        // Arrange
+        when(feedbackRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> feedbackService.deleteFeedback(1L)
+        );
+        assertEquals("Feedback not found with id: 1", exception.getMessage());
+        verify(feedbackRepository, never()).delete(any(Feedback.class));
+    }
+
+    @Test
+    void getFeedbackById_WhenFeedbackExists_ShouldReturnFeedback() {
+        // Arrange
+        when(feedbackRepository.findById(1L)).thenReturn(Optional.of(testFeedback));
+
+        // Act
+        Optional<Feedback> actualFeedback = feedbackService.getFeedbackById(1L);
+
+        // Assert
+        assertTrue(actualFeedback.isPresent());
+        assertEquals(testFeedback, actualFeedback.get());
+    }
+
+    @Test
+    void getAverageRatingByMovieId_ShouldReadFromAggregate() {
+        // Arrange
+        MovieRatingAggregate aggregate = new MovieRatingAggregate(10L);
+        aggregate.addRating(5, 1);
+        aggregate.addRating(2, 1);
+        when(ratingAggregateService.getSnapshot(10L)).thenReturn(Optional.of(RatingSnapshot.from(aggregate)));
+
+        // Act
+        Double averageRating = feedbackService.getAverageRatingByMovieId(10L);
+
+        // Assert
+        assertEquals(3.5, averageRating, 0.0001);
+        verify(feedbackRepository, never()).getAverageRatingByMovieId(any());
+    }
+
+    @Test
+    void getRatingSummaries_ShouldReturnSummaryPerRequestedMovie() {
+        // Arrange
+        MovieRatingAggregate aggregate = new MovieRatingAggregate(10L);
+        aggregate.addRating(5, 3);
+        aggregate.addRating(2, 1);
+        when(ratingAggregateService.getSnapshot(10L)).thenReturn(Optional.of(RatingSnapshot.from(aggregate)));
+        when(ratingAggregateService.getSnapshot(20L)).thenReturn(Optional.empty());
+
+        // Act
+        List<RatingSummary> summaries = feedbackService.getRatingSummaries(Arrays.asList(10L, 20L));
+
+        // Assert
+        assertEquals(2, summaries.size());
+        RatingSummary first = summaries.get(0);
+        assertEquals(10L, first.getMovieId());
+        assertEquals(4, first.getCount());
+        assertEquals(4.25, first.getAverageRating(), 0.0001);
+        assertArrayEquals(new long[] {0, 1, 0, 0, 3}, first.getRatingHistogram());
+
+        RatingSummary second = summaries.get(1);
+        assertEquals(20L, second.getMovieId());
+        assertEquals(0, second.getCount());
+        assertEquals(0.0, second.getAverageRating());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createFeedbackBulk_ShouldSaveValidItemsAndReportRejectedOnes() {
+        // Arrange
+        Feedback second = new Feedback(10L, "Another Visitor", "Great", 5, null);
+        Feedback invalid = new Feedback(20L, "", "No name", 3, null);
+        Feedback third = new Feedback(30L, "Third Visitor", "Fine", 4, null);
+        ConstraintViolation<Feedback> violation = mock(ConstraintViolation.class);
+        when(violation.getMessage()).thenReturn("Visitor name is required");
+        when(validator.validate(any(Feedback.class))).thenAnswer(invocation ->
+                invocation.getArgument(0) == invalid ? Set.of(violation) : Set.of());
+        when(feedbackRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Feedback> chunk = invocation.getArgument(0);
+            long id = 100;
+            for (Feedback item : chunk) {
+                item.setId(id++);
+            }
+            return chunk;
+        });
+
+        // Act
+        BulkFeedbackResult result = feedbackService.createFeedbackBulk(Arrays.asList(testFeedback, second, invalid, third, null));
+
+        // Assert
+        assertEquals(5, result.getReceived());
+        assertEquals(3, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(BulkFeedbackResult.CREATED, result.getResults().get(0).getStatus());
+        assertEquals(101L, result.getResults().get(1).getId());
+        assertEquals(List.of("Visitor name is required"), result.getResults().get(2).getErrors());
+        assertEquals(BulkFeedbackResult.REJECTED, result.getResults().get(4).getStatus());
+        verify(feedbackRepository).saveAll(Arrays.asList(testFeedback, second, third));
+        verify(entityManager).flush();
+        verify(ratingAggregateService).recordRatings(eq(10L), aryEq(new long[] {0, 0, 0, 1, 1}));
+        verify(ratingAggregateService).recordRatings(eq(30L), aryEq(new long[] {0, 0, 0, 1, 0}));
+        verify(ratingAggregateService, never()).recordRatings(eq(20L), any());
+    }
+}
@@ -0,0 +1,189 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.dto.BulkFeedbackResult;
+import com.moviefeedback.feedbackservice.dto.FeedbackSubmission;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedbackWriteBehindQueueTest {
+
+    @Mock
+    private FeedbackService feedbackService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FeedbackWriteBehindQueue writeBehindQueue;
+
+    @AfterEach
+    void tearDown() {
+        if (writeBehindQueue != null && writeBehindQueue.isRunning()) {
+            writeBehindQueue.stop();
+        }
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldRejectSubmission() throws Exception {
+        // Arrange
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(feedbackService.createFeedbackBulk(anyList())).thenAnswer(invocation -> {
+            writerBlocked.countDown();
+            releaseWriter.await();
+            return createdResult(invocation.<List<Feedback>>getArgument(0).size());
+        });
+        writeBehindQueue = newQueue(1, 100, Duration.ofMillis(10));
+        writeBehindQueue.start();
+
+        // Act
+        Optional<FeedbackSubmission> first = writeBehindQueue.submit(feedback(4));
+        writerBlocked.await();
+        Optional<FeedbackSubmission> second = writeBehindQueue.submit(feedback(5));
+        Optional<FeedbackSubmission> third = writeBehindQueue.submit(feedback(3));
+        releaseWriter.countDown();
+
+        // Assert
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertTrue(third.isEmpty());
+        assertEquals(1.0, meterRegistry.get("feedback.write_behind.rejected").counter().count());
+    }
+
+    @Test
+    void submit_ShouldWriteQueuedFeedbackInBatchesAndRecordOutcome() {
+        // Arrange
+        BulkFeedbackResult result = new BulkFeedbackResult();
+        result.addCreated(0, 42L);
+        result.addRejected(1, List.of("Rating must be at most 5"));
+        when(feedbackService.createFeedbackBulk(anyList())).thenReturn(result);
+        // A full batch of two is flushed right away, long before the batch delay runs out
+        writeBehindQueue = newQueue(10, 2, Duration.ofMinutes(1));
+        writeBehindQueue.start();
+
+        // Act
+        FeedbackSubmission written = writeBehindQueue.submit(feedback(4)).orElseThrow();
+        FeedbackSubmission failed = writeBehindQueue.submit(feedback(9)).orElseThrow();
+        awaitCondition(() -> !FeedbackSubmission.QUEUED.equals(
+                writeBehindQueue.getSubmission(failed.getSubmissionId()).orElseThrow().getStatus()));
+
+        // Assert
+        FeedbackSubmission writtenStatus = writeBehindQueue.getSubmission(written.getSubmissionId()).orElseThrow();
+        assertEquals(FeedbackSubmission.WRITTEN, writtenStatus.getStatus());
+        assertEquals(42L, writtenStatus.getFeedbackId());
+        FeedbackSubmission failedStatus = writeBehindQueue.getSubmission(failed.getSubmissionId()).orElseThrow();
+        assertEquals(FeedbackSubmission.FAILED, failedStatus.getStatus());
+        assertEquals(List.of("Rating must be at most 5"), failedStatus.getErrors());
+        verify(feedbackService, times(1)).createFeedbackBulk(anyList());
+        assertEquals(2.0, meterRegistry.get("feedback.write_behind.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void flush_WhenOneShardFailed_ShouldOnlyFailItsItems() {
+        // Arrange
+        BulkFeedbackResult result = new BulkFeedbackResult();
+        result.addCreated(0, 42L);
+        result.addFailed(1, List.of("Feedback could not be stored"));
+        when(feedbackService.createFeedbackBulk(anyList())).thenReturn(result);
+        writeBehindQueue = newQueue(10, 2, Duration.ofMinutes(1));
+        writeBehindQueue.start();
+
+        // Act
+        FeedbackSubmission stored = writeBehindQueue.submit(feedback(4)).orElseThrow();
+        FeedbackSubmission lost = writeBehindQueue.submit(feedback(5)).orElseThrow();
+        awaitCondition(() -> !FeedbackSubmission.QUEUED.equals(
+                writeBehindQueue.getSubmission(lost.getSubmissionId()).orElseThrow().getStatus()));
+
+        // Assert
+        assertEquals(FeedbackSubmission.WRITTEN,
+                writeBehindQueue.getSubmission(stored.getSubmissionId()).orElseThrow().getStatus());
+        assertEquals(FeedbackSubmission.FAILED,
+                writeBehindQueue.getSubmission(lost.getSubmissionId()).orElseThrow().getStatus());
+        assertEquals(1.0, meterRegistry.get("feedback.write_behind.failed").counter().count());
+    }
+
+    @Test
+    void stop_WhileSubmissionsArrive_ShouldWriteEveryAcceptedSubmission() throws Exception {
+        // Arrange
+        when(feedbackService.createFeedbackBulk(anyList()))
+                .thenAnswer(invocation -> createdResult(invocation.<List<Feedback>>getArgument(0).size()));
+        // Every accepted submission stays tracked, so its outcome can be checked
+        writeBehindQueue = new FeedbackWriteBehindQueue(feedbackService, meterRegistry, 100_000, 50,
+                Duration.ofMillis(1), Integer.MAX_VALUE);
+        writeBehindQueue.start();
+        List<FeedbackSubmission> accepted = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch submitting = new CountDownLatch(4);
+        ExecutorService submitters = Executors.newFixedThreadPool(4);
+
+        // Act
+        try {
+            for (int i = 0; i < 4; i++) {
+                submitters.submit(() -> {
+                    submitting.countDown();
+                    while (true) {
+                        Optional<FeedbackSubmission> submission = writeBehindQueue.submit(feedback(4));
+                        if (submission.isEmpty()) {
+                            return;
+                        }
+                        accepted.add(submission.get());
+                    }
+                });
+            }
+            submitting.await();
+            writeBehindQueue.stop();
+        } finally {
+            submitters.shutdown();
+            assertTrue(submitters.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        // Assert
+        assertFalse(accepted.isEmpty());
+        for (FeedbackSubmission submission : accepted) {
+            assertEquals(FeedbackSubmission.WRITTEN,
+                    writeBehindQueue.getSubmission(submission.getSubmissionId()).orElseThrow().getStatus());
+        }
+    }
+
+    private FeedbackWriteBehindQueue newQueue(int capacity, int maxBatchSize, Duration maxBatchDelay) {
+        return new FeedbackWriteBehindQueue(feedbackService, meterRegistry, capacity, maxBatchSize, maxBatchDelay, 100);
+    }
+
+    private static Feedback feedback(int rating) {
+        return new Feedback(10L, "Test Visitor", "A test comment", rating, null);
+    }
+
+    private static BulkFeedbackResult createdResult(int size) {
+        BulkFeedbackResult result = new BulkFeedbackResult();
+        for (int index = 0; index < size; index++) {
+            result.addCreated(index, (long) index + 1);
+        }
+        return result;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            Thread.onSpinWait();
+        }
+    }
+}
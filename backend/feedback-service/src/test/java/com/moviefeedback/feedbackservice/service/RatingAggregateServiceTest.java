@@ -0,0 +1,107 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.model.Feedback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "feedback.aggregates.mirror-refresh-interval=PT1H"
+})
+class RatingAggregateServiceTest {
+
+    private static final long MOVIE_ID = 9001L;
+    private static final long OTHER_INSTANCE_MOVIE_ID = 9002L;
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        for (long movieId : new long[] {MOVIE_ID, OTHER_INSTANCE_MOVIE_ID}) {
+            jdbcTemplate.update("DELETE FROM feedback WHERE movie_id = ?", movieId);
+            jdbcTemplate.update("DELETE FROM movie_rating_aggregates WHERE movie_id = ?", movieId);
+        }
+    }
+
+    @Test
+    void createFeedback_WhenFirstRatingsOfAMovieArriveTogether_ShouldCountThemAll() throws Exception {
+        // Arrange
+        int writers = 8;
+        CyclicBarrier start = new CyclicBarrier(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<Feedback>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return feedbackService.createFeedback(feedback(MOVIE_ID, 4));
+                }));
+            }
+            for (Future<Feedback> result : results) {
+                assertNotNull(result.get(30, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals((long) writers, jdbcTemplate.queryForObject(
+                "SELECT feedback_count FROM movie_rating_aggregates WHERE movie_id = ?", Long.class, MOVIE_ID));
+        assertEquals((long) writers, jdbcTemplate.queryForObject(
+                "SELECT revision FROM movie_rating_aggregates WHERE movie_id = ?", Long.class, MOVIE_ID));
+    }
+
+    @Test
+    void refreshMirror_ShouldPickUpAggregatesWrittenByAnotherInstance() {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO movie_rating_aggregates (movie_id, rating_sum, feedback_count, one_star_count, "
+                + "two_star_count, three_star_count, four_star_count, five_star_count, revision, updated_at) "
+                + "VALUES (?, 9, 2, 0, 0, 0, 1, 1, 2, CURRENT_TIMESTAMP)", OTHER_INSTANCE_MOVIE_ID);
+        long version = collectionVersions.current(CollectionVersions.forMovie(OTHER_INSTANCE_MOVIE_ID)).number();
+        assertTrue(ratingAggregateService.getSnapshot(OTHER_INSTANCE_MOVIE_ID).isEmpty());
+
+        // Act
+        ratingAggregateService.refreshMirror();
+
+        // Assert
+        RatingSnapshot snapshot = ratingAggregateService.getSnapshot(OTHER_INSTANCE_MOVIE_ID).orElseThrow();
+        assertEquals(2L, snapshot.getFeedbackCount());
+        assertEquals(2L, snapshot.getRevision());
+        assertTrue(collectionVersions.current(CollectionVersions.forMovie(OTHER_INSTANCE_MOVIE_ID)).number() > version);
+    }
+
+    private static Feedback feedback(Long movieId, int rating) {
+        Feedback feedback = new Feedback();
+        feedback.setMovieId(movieId);
+        feedback.setVisitorName("Concurrent Visitor");
+        feedback.setVisitorEmail("concurrent@example.com");
+        feedback.setComment("One of several first ratings");
+        feedback.setRating(rating);
+        return feedback;
+    }
+}
@@ -0,0 +1,122 @@
+package com.moviefeedback.feedbackservice.service;
+
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.repository.FeedbackRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecentFeedbackBufferTest {
+
+    @Mock
+    private FeedbackRepository feedbackRepository;
+
+    private RecentFeedbackBuffer recentFeedbackBuffer;
+
+    @BeforeEach
+    void setUp() {
+        recentFeedbackBuffer = new RecentFeedbackBuffer(feedbackRepository, 3, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getRecent_WhenCold_ShouldLoadBufferOnceWithLimitedQuery() {
+        // Arrange
+        when(feedbackRepository.findByMovieIdOrderByCreatedAtDescIdDesc(10L, Limit.of(3)))
+                .thenReturn(List.of(feedback(3L), feedback(2L)));
+
+        // Act
+        List<Feedback> first = recentFeedbackBuffer.getRecent(10L, 5);
+        List<Feedback> second = recentFeedbackBuffer.getRecent(10L, 1);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), ids(first));
+        assertEquals(List.of(3L), ids(second));
+        verify(feedbackRepository, times(1)).findByMovieIdOrderByCreatedAtDescIdDesc(10L, Limit.of(3));
+    }
+
+    @Test
+    void getRecent_AfterWrites_ShouldServeNewestFromBufferWithoutQuerying() {
+        // Arrange
+        when(feedbackRepository.findByMovieIdOrderByCreatedAtDescIdDesc(10L, Limit.of(3)))
+                .thenReturn(List.of(feedback(3L), feedback(2L), feedback(1L)));
+        recentFeedbackBuffer.getRecent(10L, 3);
+        Feedback updated = feedback(3L);
+        updated.setComment("Edited");
+
+        // Act
+        recentFeedbackBuffer.recordCreated(List.of(feedback(4L), feedback(5L)));
+        recentFeedbackBuffer.recordUpdated(updated);
+        recentFeedbackBuffer.recordDeleted(feedback(5L));
+        List<Feedback> recent = recentFeedbackBuffer.getRecent(10L, 2);
+
+        // Assert
+        assertEquals(List.of(4L, 3L), ids(recent));
+        assertEquals("Edited", recent.get(1).getComment());
+        verify(feedbackRepository, times(1)).findByMovieIdOrderByCreatedAtDescIdDesc(10L, Limit.of(3));
+    }
+
+    @Test
+    void getRecent_WhenDeletesLeaveTooFewBufferedItems_ShouldReloadFromDatabase() {
+        // Arrange
+        when(feedbackRepository.findByMovieIdOrderByCreatedAtDescIdDesc(10L, Limit.of(3)))
+                .thenReturn(List.of(feedback(3L), feedback(2L), feedback(1L)))
+                .thenReturn(List.of(feedback(2L), feedback(1L), feedback(0L)));
+        recentFeedbackBuffer.getRecent(10L, 3);
+
+        // Act
+        recentFeedbackBuffer.recordDeleted(feedback(3L));
+        List<Feedback> recent = recentFeedbackBuffer.getRecent(10L, 3);
+
+        // Assert
+        assertEquals(List.of(2L, 1L, 0L), ids(recent));
+        verify(feedbackRepository, times(2)).findByMovieIdOrderByCreatedAtDescIdDesc(10L, Limit.of(3));
+    }
+
+    @Test
+    void getLatest_ShouldLoadOnceAndFollowWritesOfEveryMovie() {
+        // Arrange
+        List<Limit> loads = new ArrayList<>();
+        Function<Limit, List<Feedback>> loader = limit -> {
+            loads.add(limit);
+            return List.of(feedback(2L), feedback(1L));
+        };
+        recentFeedbackBuffer.getLatest(3, loader);
+        Feedback otherMovie = feedback(3L);
+        otherMovie.setMovieId(20L);
+
+        // Act
+        recentFeedbackBuffer.recordCreated(List.of(otherMovie));
+        recentFeedbackBuffer.recordDeleted(feedback(2L));
+        List<Feedback> latest = recentFeedbackBuffer.getLatest(2, loader);
+
+        // Assert
+        assertEquals(List.of(3L, 1L), ids(latest));
+        assertEquals(List.of(Limit.of(3)), loads);
+    }
+
+    private static Feedback feedback(Long id) {
+        Feedback feedback = new Feedback();
+        feedback.setId(id);
+        feedback.setMovieId(10L);
+        feedback.setVisitorName("Visitor " + id);
+        feedback.setComment("Comment " + id);
+        feedback.setRating(4);
+        return feedback;
+    }
+
+    private static List<Long> ids(List<Feedback> feedback) {
+        return feedback.stream().map(Feedback::getId).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package com.moviefeedback.feedbackservice.sharding;
+
+import com.moviefeedback.feedbackservice.dto.BulkFeedbackResult;
+import com.moviefeedback.feedbackservice.model.Feedback;
+import com.moviefeedback.feedbackservice.model.FeedbackEvent;
+import com.moviefeedback.feedbackservice.service.FeedbackEventOutbox;
+import com.moviefeedback.feedbackservice.service.FeedbackService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs feedback-service over two embedded databases as shards. With two shards, feedback of
+ * even movie ids is stored on shard 0 and feedback of odd movie ids on shard 1.
+ */
+@SpringBootTest(properties = {
+        "feedback.shards.urls=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1",
+        "feedback.events.settle-delay=PT0S",
+        "eureka.client.enabled=false"
+})
+class ShardingTest {
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private FeedbackEventOutbox eventOutbox;
+
+    @Autowired
+    private ShardRoutingDataSource routingDataSource;
+
+    private JdbcTemplate shard0;
+    private JdbcTemplate shard1;
+
+    @BeforeEach
+    void setUp() {
+        shard0 = new JdbcTemplate(routingDataSource.getShards().get(0));
+        shard1 = new JdbcTemplate(routingDataSource.getShards().get(1));
+        for (JdbcTemplate shard : List.of(shard0, shard1)) {
+            shard.update("DELETE FROM feedback");
+            shard.update("DELETE FROM movie_rating_aggregates");
+            shard.update("DELETE FROM feedback_events");
+        }
+    }
+
+    @Test
+    void createFeedback_ShouldStoreFeedbackOnTheShardOfItsMovie() {
+        // Act
+        Feedback even = feedbackService.createFeedback(feedback(2L, 4));
+        Feedback odd = feedbackService.createFeedback(feedback(3L, 5));
+
+        // Assert
+        assertEquals(List.of(2L), shard0.queryForList("SELECT movie_id FROM feedback", Long.class));
+        assertEquals(List.of(3L), shard1.queryForList("SELECT movie_id FROM feedback", Long.class));
+        assertTrue(even.getId() < FeedbackShards.firstFeedbackId(1));
+        assertTrue(odd.getId() >= FeedbackShards.firstFeedbackId(1));
+        assertEquals(1L, shard1.queryForObject(
+                "SELECT feedback_count FROM movie_rating_aggregates WHERE movie_id = 3", Long.class));
+    }
+
+    @Test
+    void getFeedbackById_ShouldFindFeedbackOnEitherShard() {
+        // Arrange
+        Feedback even = feedbackService.createFeedback(feedback(2L, 4));
+        Feedback odd = feedbackService.createFeedback(feedback(3L, 5));
+
+        // Act & Assert
+        assertEquals(2L, feedbackService.getFeedbackById(even.getId()).orElseThrow().getMovieId());
+        assertEquals(3L, feedbackService.getFeedbackById(odd.getId()).orElseThrow().getMovieId());
+        assertEquals(List.of(odd.getId()),
+                feedbackService.getFeedbackByMovieId(3L).stream().map(Feedback::getId).toList());
+    }
+
+    @Test
+    void getFeedbackPage_ShouldMergeShardsInCreationOrder() {
+        // Arrange
+        List<Long> created = List.of(2L, 3L, 5L, 4L).stream()
+                .map(movieId -> feedbackService.createFeedback(feedback(movieId, 3)).getId())
+                .toList();
+
+        // Act
+        Window<Feedback> first = feedbackService.getFeedbackPage(ScrollPosition.keyset(), 3);
+        Window<Feedback> second = feedbackService.getFeedbackPage(first.positionAt(first.size() - 1), 3);
+
+        // Assert
+        assertEquals(created.subList(0, 3), first.getContent().stream().map(Feedback::getId).toList());
+        assertTrue(first.hasNext());
+        assertEquals(created.subList(3, 4), second.getContent().stream().map(Feedback::getId).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void createFeedbackBulk_ShouldWriteEveryShardAndKeepOneEventLogPerShard() {
+        // Act
+        BulkFeedbackResult result = feedbackService.createFeedbackBulk(
+                List.of(feedback(2L, 5), feedback(3L, 1), feedback(4L, 2)));
+
+        // Assert
+        assertEquals(3, result.getCreated());
+        assertEquals(2L, shard0.queryForObject("SELECT COUNT(*) FROM feedback", Long.class));
+        assertEquals(1L, shard1.queryForObject("SELECT COUNT(*) FROM feedback", Long.class));
+        assertEquals(List.of(2L, 4L),
+                eventOutbox.getEvents(0, 0, 10).stream().map(FeedbackEvent::getMovieId).sorted().toList());
+        assertEquals(List.of(3L), eventOutbox.getEvents(1, 0, 10).stream().map(FeedbackEvent::getMovieId).toList());
+    }
+
+    @Test
+    void createFeedbackBulk_WhenOneShardFails_ShouldReportOnlyItsItemsAsFailed() {
+        // Arrange
+        shard1.execute("ALTER TABLE feedback RENAME TO feedback_unavailable");
+
+        // Act
+        BulkFeedbackResult result;
+        try {
+            result = feedbackService.createFeedbackBulk(List.of(feedback(2L, 5), feedback(3L, 1), feedback(4L, 2)));
+        } finally {
+            shard1.execute("ALTER TABLE feedback_unavailable RENAME TO feedback");
+        }
+
+        // Assert
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of(BulkFeedbackResult.CREATED, BulkFeedbackResult.FAILED, BulkFeedbackResult.CREATED),
+                result.getResults().stream().map(BulkFeedbackResult.ItemResult::getStatus).toList());
+        assertNull(result.getResults().get(1).getId());
+        assertEquals(2L, shard0.queryForObject("SELECT COUNT(*) FROM feedback", Long.class));
+        assertEquals(0L, shard1.queryForObject("SELECT COUNT(*) FROM feedback", Long.class));
+        assertTrue(eventOutbox.getEvents(1, 0, 10).isEmpty());
+    }
+
+    @Test
+    void createFeedbackBulk_WhenEveryShardFails_ShouldThrow() {
+        // Arrange
+        shard1.execute("ALTER TABLE feedback RENAME TO feedback_unavailable");
+
+        // Act & Assert
+        try {
+            assertThrows(RuntimeException.class,
+                    () -> feedbackService.createFeedbackBulk(List.of(feedback(3L, 1), feedback(5L, 2))));
+        } finally {
+            shard1.execute("ALTER TABLE feedback_unavailable RENAME TO feedback");
+        }
+    }
+
+    @Test
+    void getLogId_ShouldDifferBetweenShards() {
+        // Act
+        String log0 = eventOutbox.getLogId(0);
+        String log1 = eventOutbox.getLogId(1);
+
+        // Assert
+        assertNotNull(log0);
+        assertNotEquals(log0, log1);
+        assertEquals(log0, shard0.queryForObject("SELECT log_id FROM feedback_event_log", String.class));
+    }
+
+    private static Feedback feedback(Long movieId, int rating) {
+        Feedback feedback = new Feedback();
+        feedback.setMovieId(movieId);
+        feedback.setVisitorName("Shard Visitor");
+        feedback.setVisitorEmail("shard@example.com");
+        feedback.setComment("Stored on the shard of its movie");
+        feedback.setRating(rating);
+        return feedback;
+    }
+}
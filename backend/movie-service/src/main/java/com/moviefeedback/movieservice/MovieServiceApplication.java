@@ -1,11 +1,18 @@
 package com.moviefeedback.movieservice;
 
+import com.moviefeedback.datasource.ReplicaRoutingConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableCaching
+@EnableScheduling
+@Import(ReplicaRoutingConfiguration.class)
 public class MovieServiceApplication {
 
     public static void main(String[] args) {
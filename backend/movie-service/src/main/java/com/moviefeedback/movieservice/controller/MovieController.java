@@ -1,50 +1,136 @@
 package com.moviefeedback.movieservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.moviefeedback.movieservice.model.Movie;
+import com.moviefeedback.movieservice.pagination.KeysetCursor;
+import com.moviefeedback.movieservice.repository.MovieQuery;
+import com.moviefeedback.movieservice.service.CollectionVersions;
 import com.moviefeedback.movieservice.service.MovieService;
+import com.moviefeedback.movieservice.stats.CatalogStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/movies")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = MovieController.NEXT_CURSOR_HEADER)
 public class MovieController {
     
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private static final Logger logger = LoggerFactory.getLogger(MovieController.class);
     
     private final MovieService movieService;
+    private final CollectionVersions collectionVersions;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final CacheControl cacheControl;
     
     @Autowired
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService,
+                           CollectionVersions collectionVersions,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${pagination.default-page-size:50}") int defaultPageSize,
+                           @Value("${pagination.max-page-size:500}") int maxPageSize,
+                           @Value("${http.cache.shared-max-age:PT5S}") Duration sharedMaxAge) {
         this.movieService = movieService;
+        this.collectionVersions = collectionVersions;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        // Browsers revalidate on every use; shared caches such as nginx may reuse a response for sharedMaxAge
+        this.cacheControl = CacheControl.maxAge(Duration.ZERO).mustRevalidate().cachePublic().sMaxAge(sharedMaxAge);
     }
     
     @GetMapping
-    public ResponseEntity<List<Movie>> getAllMovies() {
-        logger.info("GET /api/movies - Fetching all movies");
-        List<Movie> movies = movieService.getAllMovies();
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<List<Movie>> getAllMovies(@RequestParam(required = false) String genre,
+                                                    @RequestParam(required = false) Integer year,
+                                                    @RequestParam(required = false) Double minRating,
+                                                    @RequestParam(required = false) String sort,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    WebRequest request) {
+        logger.debug("GET /api/movies - Fetching all movies");
+        if (genre != null || year != null || minRating != null || sort != null) {
+            MovieQuery query = query(genre, year, minRating, sort);
+            return conditional(request, () -> page(queryMovies(query, cursor, pageSize(limit))));
+        }
+        return conditional(request, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(movieService.getMoviesPage(position(cursor), pageSize(limit)));
+            }
+            List<Movie> movies = movieService.getAllMovies();
+            return ResponseEntity.ok(movies);
+        });
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMovies() {
+        logger.debug("GET /api/movies/export - Streaming movies as NDJSON");
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            movieService.exportMovies(movie -> writeLine(out, movie));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    // Totals, per-genre figures and top movies from in-memory counters, for the admin dashboard
+    @GetMapping("/stats")
+    public ResponseEntity<CatalogStats> getCatalogStats(WebRequest request) {
+        logger.debug("GET /api/movies/stats - Fetching catalogue statistics");
+        return conditional(request, () -> ResponseEntity.ok(movieService.getCatalogStats()));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<Movie> getMovieById(@PathVariable Long id) {
-        logger.info("GET /api/movies/{} - Fetching movie by id", id);
+        logger.debug("GET /api/movies/{} - Fetching movie by id", id);
         Optional<Movie> movie = movieService.getMovieById(id);
-        return movie.map(ResponseEntity::ok)
+        // Spring answers 304 itself when the request's If-None-Match or If-Modified-Since still matches
+        return movie.map(found -> ResponseEntity.ok()
+                        .eTag(eTag(found))
+                        .lastModified(found.getUpdatedAt().atZone(ZoneId.systemDefault()))
+                        .cacheControl(cacheControl)
+                        .body(found))
                    .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping
     public ResponseEntity<Movie> createMovie(@Valid @RequestBody Movie movie) {
-        logger.info("POST /api/movies - Creating new movie: {}", movie.getTitle());
+        logger.debug("POST /api/movies - Creating new movie: {}", movie.getTitle());
         try {
             Movie createdMovie = movieService.createMovie(movie);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdMovie);
@@ -56,7 +142,7 @@ public class MovieController {
     
     @PutMapping("/{id}")
     public ResponseEntity<Movie> updateMovie(@PathVariable Long id, @Valid @RequestBody Movie movieDetails) {
-        logger.info("PUT /api/movies/{} - Updating movie", id);
+        logger.debug("PUT /api/movies/{} - Updating movie", id);
         try {
             Movie updatedMovie = movieService.updateMovie(id, movieDetails);
             return ResponseEntity.ok(updatedMovie);
@@ -68,7 +154,7 @@ public class MovieController {
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteMovie(@PathVariable Long id) {
-        logger.info("DELETE /api/movies/{} - Deleting movie", id);
+        logger.debug("DELETE /api/movies/{} - Deleting movie", id);
         try {
             movieService.deleteMovie(id);
             return ResponseEntity.noContent().build();
@@ -79,30 +165,175 @@ public class MovieController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Movie>> searchMovies(@RequestParam String keyword) {
-        logger.info("GET /api/movies/search?keyword={} - Searching movies", keyword);
-        List<Movie> movies = movieService.searchMovies(keyword);
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<List<Movie>> searchMovies(@RequestParam String keyword, WebRequest request) {
+        logger.debug("GET /api/movies/search?keyword={} - Searching movies", keyword);
+        return conditional(request, () -> {
+            List<Movie> movies = movieService.searchMovies(keyword);
+            return ResponseEntity.ok(movies);
+        });
+    }
+    
+    @GetMapping("/top-rated")
+    public ResponseEntity<List<Movie>> getTopRatedMovies(@RequestParam(defaultValue = "0") double minRating,
+                                                         @RequestParam(defaultValue = "1") long minCount,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         WebRequest request) {
+        logger.debug("GET /api/movies/top-rated - Fetching top rated movies");
+        return conditional(request, () -> {
+            List<Movie> movies = movieService.getTopRatedMovies(minRating, minCount, pageSize(limit));
+            return ResponseEntity.ok(movies);
+        });
     }
     
     @GetMapping("/genre/{genre}")
-    public ResponseEntity<List<Movie>> getMoviesByGenre(@PathVariable String genre) {
-        logger.info("GET /api/movies/genre/{} - Fetching movies by genre", genre);
-        List<Movie> movies = movieService.getMoviesByGenre(genre);
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<List<Movie>> getMoviesByGenre(@PathVariable String genre,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        WebRequest request) {
+        logger.debug("GET /api/movies/genre/{} - Fetching movies by genre", genre);
+        return conditional(request, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(movieService.getMoviesByGenre(genre, position(cursor), pageSize(limit)));
+            }
+            List<Movie> movies = movieService.getMoviesByGenre(genre);
+            return ResponseEntity.ok(movies);
+        });
     }
     
     @GetMapping("/year/{year}")
-    public ResponseEntity<List<Movie>> getMoviesByYear(@PathVariable Integer year) {
-        logger.info("GET /api/movies/year/{} - Fetching movies by year", year);
-        List<Movie> movies = movieService.getMoviesByYear(year);
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<List<Movie>> getMoviesByYear(@PathVariable Integer year,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       WebRequest request) {
+        logger.debug("GET /api/movies/year/{} - Fetching movies by year", year);
+        return conditional(request, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(movieService.getMoviesByYear(year, position(cursor), pageSize(limit)));
+            }
+            List<Movie> movies = movieService.getMoviesByYear(year);
+            return ResponseEntity.ok(movies);
+        });
     }
     
     @GetMapping("/director/{director}")
-    public ResponseEntity<List<Movie>> getMoviesByDirector(@PathVariable String director) {
-        logger.info("GET /api/movies/director/{} - Fetching movies by director", director);
-        List<Movie> movies = movieService.getMoviesByDirector(director);
-        return ResponseEntity.ok(movies);
+    public ResponseEntity<List<Movie>> getMoviesByDirector(@PathVariable String director,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           WebRequest request) {
+        logger.debug("GET /api/movies/director/{} - Fetching movies by director", director);
+        return conditional(request, () -> {
+            if (isPaged(cursor, limit)) {
+                return page(movieService.getMoviesByDirector(director, position(cursor), pageSize(limit)));
+            }
+            List<Movie> movies = movieService.getMoviesByDirector(director);
+            return ResponseEntity.ok(movies);
+        });
+    }
+    
+    // Bean validation fails before createMovie/updateMovie run, so the rejection is counted here
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ProblemDetail> handleValidationFailure(MethodArgumentNotValidException e) {
+        String operation = e.getParameter().getMethod().getName();
+        logger.error("Invalid movie in {}: {} field errors", operation, e.getErrorCount());
+        Counter.builder(MovieService.REJECTED_METRIC)
+                .description("Movie writes refused before reaching the database")
+                .tag("operation", operation)
+                .tag("reason", "validation")
+                .register(meterRegistry)
+                .increment();
+        return ResponseEntity.badRequest().body(e.getBody());
+    }
+    
+    // Two writes of the same title can both pass the service's existence check; the unique index on
+    // title_lower then rejects the second, which gets the same answer as a duplicate caught up front
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Void> handleConstraintViolation(DataIntegrityViolationException e) {
+        logger.error("Movie write rejected by the database: {}", e.getMostSpecificCause().getMessage());
+        return ResponseEntity.badRequest().build();
+    }
+    
+    private Window<Movie> queryMovies(MovieQuery query, String cursor, int limit) {
+        try {
+            return movieService.queryMovies(query, KeysetCursor.decode(cursor, query.getSortKey().getKeyTypes()), limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    private static MovieQuery query(String genre, Integer year, Double minRating, String sort) {
+        MovieQuery query = new MovieQuery();
+        query.setGenre(genre);
+        query.setReleaseYear(year);
+        query.setMinRating(minRating);
+        if (sort != null) {
+            try {
+                query.setSortKey(MovieQuery.SortKey.valueOf(sort.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort must be one of created, rating, year");
+            }
+        }
+        return query;
+    }
+    
+    // The collection version is checked before any movie is read, so a matching request costs no lookup
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<ResponseEntity<T>> read) {
+        CollectionVersions.Version version = collectionVersions.current(CollectionVersions.MOVIES);
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        ResponseEntity<T> response = read.get();
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(version.eTag())
+                .lastModified(version.lastModified())
+                .cacheControl(cacheControl)
+                .body(response.getBody());
+    }
+    
+    private static String eTag(Movie movie) {
+        // Rating updates leave updatedAt alone, so the rating revision has to be part of the tag
+        return "movie-" + movie.getId() + "-" + movie.getUpdatedAt().toEpochSecond(ZoneOffset.UTC)
+                + "." + movie.getUpdatedAt().getNano() + "-" + movie.getRatingRevision();
+    }
+    
+    // Paging is opt-in so that existing callers keep receiving the full list
+    private static boolean isPaged(String cursor, Integer limit) {
+        return cursor != null || limit != null;
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+    
+    private static ScrollPosition position(String cursor) {
+        try {
+            return KeysetCursor.decode(cursor, KeysetCursor.CREATED_AT_KEYS);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    private static ResponseEntity<List<Movie>> page(Window<Movie> window) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String nextCursor = KeysetCursor.nextCursor(window);
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(window.getContent());
+    }
+    
+    private void writeLine(OutputStream out, Movie movie) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(movie));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.moviefeedback.movieservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Id of the last event a consumer has applied from the log it reads, stored in the same
+ * transaction as the changes the events caused. The log id tells which log the event id
+ * belongs to.
+ */
+@Entity
+@Table(name = "event_offsets")
+public class EventOffset {
+    
+    @Id
+    @Column(length = 64)
+    private String consumer;
+    
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+    
+    @Column(name = "log_id", length = 36)
+    private String logId;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public EventOffset() {}
+    
+    public EventOffset(String consumer) {
+        this.consumer = consumer;
+    }
+    
+    // Getters and Setters
+    public String getConsumer() {
+        return consumer;
+    }
+    
+    public void setConsumer(String consumer) {
+        this.consumer = consumer;
+    }
+    
+    public long getLastEventId() {
+        return lastEventId;
+    }
+    
+    public void setLastEventId(long lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+    
+    public String getLogId() {
+        return logId;
+    }
+    
+    public void setLogId(String logId) {
+        this.logId = logId;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,5 +1,7 @@
 package com.moviefeedback.movieservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -46,6 +48,27 @@ public class Movie {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Maintained from feedback-service rating events through MovieRepository's rating updates only, so
+    // neither request bodies nor saving an edited movie can put back figures read before an event
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "average_rating", nullable = false, updatable = false)
+    private double averageRating;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "feedback_count", nullable = false, updatable = false)
+    private long feedbackCount;
+    
+    @JsonIgnore
+    @Column(name = "rating_revision", nullable = false, updatable = false)
+    private long ratingRevision;
+    
+    // Generated by the database from title and genre; only used to filter on in indexed queries
+    @Column(name = "title_lower", insertable = false, updatable = false)
+    private String titleLower;
+    
+    @Column(name = "genre_lower", insertable = false, updatable = false)
+    private String genreLower;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -132,4 +155,28 @@ public class Movie {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-} 
\ No newline at end of file
+    
+    public double getAverageRating() {
+        return averageRating;
+    }
+    
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+    
+    public long getFeedbackCount() {
+        return feedbackCount;
+    }
+    
+    public void setFeedbackCount(long feedbackCount) {
+        this.feedbackCount = feedbackCount;
+    }
+    
+    public long getRatingRevision() {
+        return ratingRevision;
+    }
+    
+    public void setRatingRevision(long ratingRevision) {
+        this.ratingRevision = ratingRevision;
+    }
+}
@@ -0,0 +1,110 @@
+package com.moviefeedback.movieservice.ratings;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads rating events from feedback-service's event log over HTTP, resolving feedback-service
+ * through the service registry. All reads go to one registered instance for as long as it stays
+ * registered: instances with databases of their own keep event logs of their own, whose ids say
+ * nothing about each other. The log id sent along lets the consumer notice a switch.
+ */
+@Component
+public class HttpRatingEventSource implements RatingEventSource {
+    
+    static final String LAST_EVENT_ID_HEADER = "X-Last-Event-Id";
+    static final String SHARD_COUNT_HEADER = "X-Shard-Count";
+    static final String EVENT_LOG_ID_HEADER = "X-Event-Log-Id";
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpRatingEventSource.class);
+    
+    private final RestClient restClient;
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final SimpleClientHttpRequestFactory requestFactory;
+    private volatile PinnedInstance pinned;
+    
+    @Autowired
+    public HttpRatingEventSource(@LoadBalanced RestClient.Builder restClientBuilder,
+                                 DiscoveryClient discoveryClient,
+                                 @Value("${rating-events.feedback-service-url:http://feedback-service}") String baseUrl,
+                                 @Value("${rating-events.timeout:PT2S}") Duration timeout) {
+        this.requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder.baseUrl(baseUrl).requestFactory(requestFactory).build();
+        this.discoveryClient = discoveryClient;
+        this.serviceId = URI.create(baseUrl).getHost();
+    }
+    
+    @Override
+    public RatingEventPage fetchEvents(int shard, long afterId, int limit) {
+        ResponseEntity<List<RatingEvent>> response = client().get()
+                .uri("/api/feedback/events?shard={shard}&after={after}&limit={limit}", shard, afterId, limit)
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<>() {});
+        List<RatingEvent> events = response.getBody() != null ? response.getBody() : List.of();
+        String lastEventId = response.getHeaders().getFirst(LAST_EVENT_ID_HEADER);
+        long last = lastEventId != null
+                ? Long.parseLong(lastEventId)
+                : events.isEmpty() ? afterId : events.get(events.size() - 1).getId();
+        // Versions of feedback-service without shards send no shard count
+        String shardCount = response.getHeaders().getFirst(SHARD_COUNT_HEADER);
+        return new RatingEventPage(events, last, shardCount != null ? Integer.parseInt(shardCount) : 1,
+                response.getHeaders().getFirst(EVENT_LOG_ID_HEADER));
+    }
+    
+    @Override
+    public List<RatingEvent> fetchCurrentRatings() {
+        JsonNode summaries = client().get()
+                .uri("/api/feedback/ratings/summary")
+                .retrieve()
+                .body(JsonNode.class);
+        List<RatingEvent> ratings = new ArrayList<>();
+        if (summaries != null) {
+            for (JsonNode summary : summaries) {
+                ratings.add(new RatingEvent(summary.path("movieId").asLong(), summary.path("averageRating").asDouble(),
+                        summary.path("count").asLong(), summary.path("revision").asLong()));
+            }
+        }
+        return ratings;
+    }
+    
+    private RestClient client() {
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        if (instances.isEmpty()) {
+            // Not registered (yet), or a plain URL; the load-balanced client resolves it or reports it missing
+            return restClient;
+        }
+        PinnedInstance current = pinned;
+        if (current != null && instances.stream().anyMatch(instance -> instance.getUri().equals(current.uri()))) {
+            return current.restClient();
+        }
+        // The lowest URI, so instances of movie-service tend to agree on the instance they read
+        URI uri = instances.stream().map(ServiceInstance::getUri).min(Comparator.naturalOrder()).orElseThrow();
+        logger.info("Reading rating events from feedback-service instance {}", uri);
+        PinnedInstance next = new PinnedInstance(uri,
+                RestClient.builder().baseUrl(uri.toString()).requestFactory(requestFactory).build());
+        pinned = next;
+        return next.restClient();
+    }
+    
+    private record PinnedInstance(URI uri, RestClient restClient) {}
+}
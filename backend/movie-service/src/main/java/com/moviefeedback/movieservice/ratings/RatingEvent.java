@@ -0,0 +1,73 @@
+package com.moviefeedback.movieservice.ratings;
+
+/**
+ * A movie's rating figures as published by feedback-service. Events from the feedback event log
+ * carry their id and type; figures read during a resynchronisation have neither.
+ */
+public class RatingEvent {
+    
+    private Long id;
+    private String eventType;
+    private Long movieId;
+    private double averageRating;
+    private long feedbackCount;
+    // Grows with every rating change of the movie, so an older event never overwrites a newer one
+    private long ratingRevision;
+    
+    public RatingEvent() {}
+    
+    public RatingEvent(Long movieId, double averageRating, long feedbackCount, long ratingRevision) {
+        this.movieId = movieId;
+        this.averageRating = averageRating;
+        this.feedbackCount = feedbackCount;
+        this.ratingRevision = ratingRevision;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Long getMovieId() {
+        return movieId;
+    }
+    
+    public void setMovieId(Long movieId) {
+        this.movieId = movieId;
+    }
+    
+    public double getAverageRating() {
+        return averageRating;
+    }
+    
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+    
+    public long getFeedbackCount() {
+        return feedbackCount;
+    }
+    
+    public void setFeedbackCount(long feedbackCount) {
+        this.feedbackCount = feedbackCount;
+    }
+    
+    public long getRatingRevision() {
+        return ratingRevision;
+    }
+    
+    public void setRatingRevision(long ratingRevision) {
+        this.ratingRevision = ratingRevision;
+    }
+}
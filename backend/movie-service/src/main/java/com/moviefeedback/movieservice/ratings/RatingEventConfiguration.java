@@ -0,0 +1,17 @@
+package com.moviefeedback.movieservice.ratings;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class RatingEventConfiguration {
+    
+    // Resolves service names such as http://feedback-service through the discovery client
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder() {
+        return RestClient.builder();
+    }
+}
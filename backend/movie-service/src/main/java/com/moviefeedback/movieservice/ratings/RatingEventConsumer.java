@@ -0,0 +1,145 @@
+package com.moviefeedback.movieservice.ratings;
+
+import com.moviefeedback.movieservice.model.EventOffset;
+import com.moviefeedback.movieservice.repository.EventOffsetRepository;
+import com.moviefeedback.movieservice.service.MovieService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the rating columns of the movies in step with feedback-service. Events are polled from
+ * the {@link RatingEventSource} and applied in one transaction with this instance's offset, so
+ * a batch is applied completely or read again. A sharded feedback-service has one event log per
+ * shard, and every log is followed with an offset of its own, which is only read on in the log
+ * it was taken from. A full resynchronisation on startup, at a longer interval and whenever the
+ * log changes repairs anything the events missed.
+ */
+@Service
+@ConditionalOnProperty(name = "rating-events.enabled", havingValue = "true", matchIfMissing = true)
+public class RatingEventConsumer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RatingEventConsumer.class);
+    
+    private final RatingEventSource eventSource;
+    private final MovieService movieService;
+    private final EventOffsetRepository offsetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String consumerId;
+    private final int batchSize;
+    // Learnt from the event pages, so shards added to feedback-service are picked up on the next poll
+    private volatile int shardCount = 1;
+    
+    @Autowired
+    public RatingEventConsumer(RatingEventSource eventSource,
+                               MovieService movieService,
+                               EventOffsetRepository offsetRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${rating-events.consumer-id:${spring.application.name}}") String consumerId,
+                               @Value("${rating-events.batch-size:500}") int batchSize) {
+        this.eventSource = eventSource;
+        this.movieService = movieService;
+        this.offsetRepository = offsetRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.consumerId = consumerId;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(initialDelayString = "${rating-events.poll-interval:PT1S}",
+               fixedDelayString = "${rating-events.poll-interval:PT1S}")
+    public void poll() {
+        try {
+            for (int shard = 0; shard < shardCount; shard++) {
+                while (pollBatch(shard)) {
+                    // A full batch means more events may be waiting
+                }
+            }
+        } catch (RuntimeException e) {
+            // Also thrown by the load balancer while feedback-service has not registered yet
+            logger.warn("Could not read rating events from feedback-service: {}", e.toString());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void resyncOnStartup() {
+        resync();
+    }
+    
+    @Scheduled(initialDelayString = "${rating-events.resync-interval:PT15M}",
+               fixedDelayString = "${rating-events.resync-interval:PT15M}")
+    public void resync() {
+        try {
+            resyncRatings();
+        } catch (RuntimeException e) {
+            // Not rethrown, as on startup that would stop the application while feedback-service is down
+            logger.warn("Could not resynchronize movie ratings from feedback-service: {}", e.toString());
+        }
+    }
+    
+    private void resyncRatings() {
+        List<RatingEvent> currentRatings = eventSource.fetchCurrentRatings();
+        Integer changed = transactionTemplate.execute(status -> movieService.resyncRatings(currentRatings));
+        logger.info("Movie ratings resynchronized: {} movies changed", changed);
+    }
+    
+    boolean pollBatch(int shard) {
+        String offsetId = offsetId(shard);
+        // Read in a read-write transaction, which always goes to the primary rather than a read replica
+        Optional<EventOffset> stored = transactionTemplate.execute(status -> offsetRepository.findById(offsetId));
+        long offset = stored.map(EventOffset::getLastEventId).orElse(0L);
+        RatingEventPage page = eventSource.fetchEvents(shard, offset, batchSize);
+        shardCount = page.getShardCount();
+        
+        if (page.getLogId() != null && stored.isPresent() && !page.getLogId().equals(stored.get().getLogId())) {
+            // Another log than the offset was read from, e.g. of another feedback-service instance with a
+            // database of its own, so the offset means nothing there
+            logger.warn("Rating event log of shard {} changed from {} to {}, resynchronizing",
+                    shard, stored.get().getLogId(), page.getLogId());
+            resyncRatings();
+            saveOffset(offsetId, page.getLastEventId(), page.getLogId());
+            return false;
+        }
+        if (page.getLastEventId() < offset) {
+            // The log ends before our offset, so it was recreated and its revisions may have started over
+            logger.warn("Rating event log of shard {} ends at {} before offset {}, resynchronizing",
+                    shard, page.getLastEventId(), offset);
+            // The offset is only rewound once the resync succeeded
+            resyncRatings();
+            saveOffset(offsetId, page.getLastEventId(), page.getLogId());
+            return false;
+        }
+        if (page.getEvents().isEmpty()) {
+            return false;
+        }
+        
+        long lastApplied = page.getEvents().get(page.getEvents().size() - 1).getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            movieService.updateRatings(page.getEvents());
+            saveOffset(offsetId, lastApplied, page.getLogId());
+        });
+        return page.getEvents().size() == batchSize;
+    }
+    
+    // Shard 0 keeps the offset id from before sharding, so an unsharded deployment reads on where it was
+    private String offsetId(int shard) {
+        return shard == 0 ? consumerId : consumerId + "#" + shard;
+    }
+    
+    private void saveOffset(String offsetId, long lastEventId, String logId) {
+        EventOffset offset = offsetRepository.findById(offsetId).orElseGet(() -> new EventOffset(offsetId));
+        offset.setLastEventId(lastEventId);
+        offset.setLogId(logId);
+        offsetRepository.save(offset);
+    }
+}
@@ -0,0 +1,47 @@
+package com.moviefeedback.movieservice.ratings;
+
+import java.util.List;
+
+/**
+ * Events read from the log of a shard, in id order, together with the highest id that log held
+ * at the time, the number of shards the source has and the id of the log when the source sends
+ * one.
+ */
+public class RatingEventPage {
+    
+    private final List<RatingEvent> events;
+    private final long lastEventId;
+    private final int shardCount;
+    private final String logId;
+    
+    public RatingEventPage(List<RatingEvent> events, long lastEventId) {
+        this(events, lastEventId, 1);
+    }
+    
+    public RatingEventPage(List<RatingEvent> events, long lastEventId, int shardCount) {
+        this(events, lastEventId, shardCount, null);
+    }
+    
+    public RatingEventPage(List<RatingEvent> events, long lastEventId, int shardCount, String logId) {
+        this.events = events;
+        this.lastEventId = lastEventId;
+        this.shardCount = shardCount;
+        this.logId = logId;
+    }
+    
+    public List<RatingEvent> getEvents() {
+        return events;
+    }
+    
+    public long getLastEventId() {
+        return lastEventId;
+    }
+    
+    public int getShardCount() {
+        return shardCount;
+    }
+    
+    public String getLogId() {
+        return logId;
+    }
+}
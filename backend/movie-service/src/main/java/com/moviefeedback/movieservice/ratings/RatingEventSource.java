@@ -0,0 +1,22 @@
+package com.moviefeedback.movieservice.ratings;
+
+import java.util.List;
+
+/**
+ * Where rating events come from. The default implementation reads feedback-service's outbox over
+ * HTTP; a message broker client can take its place without changes to the consumer, as long as it
+ * hands out events in order and can be read from a given event id.
+ */
+public interface RatingEventSource {
+    
+    /**
+     * Returns at most limit events of the shard with an id above afterId, in id order. Every
+     * shard has its own log with its own ids; a source without shards only has shard 0.
+     */
+    RatingEventPage fetchEvents(int shard, long afterId, int limit);
+    
+    /**
+     * Returns the current rating figures of every movie that has or had feedback.
+     */
+    List<RatingEvent> fetchCurrentRatings();
+}
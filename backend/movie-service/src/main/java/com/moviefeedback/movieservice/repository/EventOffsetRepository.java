@@ -0,0 +1,9 @@
+package com.moviefeedback.movieservice.repository;
+
+import com.moviefeedback.movieservice.model.EventOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventOffsetRepository extends JpaRepository<EventOffset, String> {
+}
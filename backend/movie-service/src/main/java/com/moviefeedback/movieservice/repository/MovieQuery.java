@@ -0,0 +1,84 @@
+package com.moviefeedback.movieservice.repository;
+
+import com.moviefeedback.movieservice.model.Movie;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Filters and sort order of a movie listing. Filters left null do not apply; the rest are
+ * combined with AND. Every sort order ends in the id so that keyset positions are unique.
+ */
+public class MovieQuery {
+    
+    public enum SortKey {
+        CREATED(List.of(new SortColumn("createdAt", Sort.Direction.ASC, LocalDateTime.class, Movie::getCreatedAt),
+                        new SortColumn("id", Sort.Direction.ASC, Long.class, Movie::getId))),
+        RATING(List.of(new SortColumn("averageRating", Sort.Direction.DESC, Double.class, Movie::getAverageRating),
+                       new SortColumn("id", Sort.Direction.DESC, Long.class, Movie::getId))),
+        YEAR(List.of(new SortColumn("releaseYear", Sort.Direction.DESC, Integer.class, Movie::getReleaseYear),
+                     new SortColumn("id", Sort.Direction.DESC, Long.class, Movie::getId)));
+        
+        private final List<SortColumn> columns;
+        
+        SortKey(List<SortColumn> columns) {
+            this.columns = columns;
+        }
+        
+        public List<SortColumn> getColumns() {
+            return columns;
+        }
+        
+        // The keys of a keyset position in this order, with the types their values have
+        public Map<String, Class<?>> getKeyTypes() {
+            Map<String, Class<?>> keyTypes = new LinkedHashMap<>();
+            columns.forEach(column -> keyTypes.put(column.property(), column.type()));
+            return keyTypes;
+        }
+    }
+    
+    // The value function reads the column from a loaded movie, to build the keyset position after it
+    public record SortColumn(String property, Sort.Direction direction, Class<?> type, Function<Movie, Object> value) {
+    }
+    
+    private String genre;
+    private Integer releaseYear;
+    private Double minRating;
+    private SortKey sortKey = SortKey.CREATED;
+    
+    public String getGenre() {
+        return genre;
+    }
+    
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+    
+    public Integer getReleaseYear() {
+        return releaseYear;
+    }
+    
+    public void setReleaseYear(Integer releaseYear) {
+        this.releaseYear = releaseYear;
+    }
+    
+    public Double getMinRating() {
+        return minRating;
+    }
+    
+    public void setMinRating(Double minRating) {
+        this.minRating = minRating;
+    }
+    
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+    
+    public void setSortKey(SortKey sortKey) {
+        this.sortKey = sortKey;
+    }
+}
@@ -0,0 +1,16 @@
+package com.moviefeedback.movieservice.repository;
+
+import com.moviefeedback.movieservice.model.Movie;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
+
+public interface MovieQueryRepository {
+    
+    /**
+     * Returns the page of movies matching the query that follows the given position, in the
+     * query's sort order. The position's keys must be the sort key's properties, or empty for
+     * the first page.
+     */
+    Window<Movie> findBy(MovieQuery query, KeysetScrollPosition position, Limit limit);
+}
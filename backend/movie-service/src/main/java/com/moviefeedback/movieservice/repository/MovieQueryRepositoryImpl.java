@@ -0,0 +1,110 @@
+package com.moviefeedback.movieservice.repository;
+
+import com.moviefeedback.movieservice.model.Movie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset pages for {@link MovieQuery}. The ORDER BY starts with the columns the query pins to one
+ * value (genre, year), which leaves the order unchanged but lets the database see that the
+ * matching composite index from V4 is already in that order, so a page reads only its own rows.
+ */
+public class MovieQueryRepositoryImpl implements MovieQueryRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Window<Movie> findBy(MovieQuery query, KeysetScrollPosition position, Limit limit) {
+        List<MovieQuery.SortColumn> columns = query.getSortKey().getColumns();
+        Map<String, Object> after = position.getKeys();
+        if (!after.isEmpty() && !after.keySet().equals(Set.copyOf(propertiesOf(columns)))) {
+            throw new IllegalArgumentException("Cursor does not belong to sort order " + query.getSortKey());
+        }
+        
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Movie> criteria = builder.createQuery(Movie.class);
+        Root<Movie> root = criteria.from(Movie.class);
+        
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(MovieSpecifications.matching(query).toPredicate(root, criteria, builder));
+        if (!after.isEmpty()) {
+            predicates.add(after(builder, root, columns, after));
+        }
+        criteria.where(predicates.stream().filter(predicate -> predicate != null).toArray(Predicate[]::new));
+        criteria.orderBy(orderOf(builder, root, query, columns));
+        
+        // One extra row tells whether another page follows
+        List<Movie> rows = entityManager.createQuery(criteria).setMaxResults(limit.max() + 1).getResultList();
+        boolean hasNext = rows.size() > limit.max();
+        List<Movie> content = hasNext ? rows.subList(0, limit.max()) : rows;
+        return Window.from(content, index -> positionOf(content.get(index), columns), hasNext);
+    }
+    
+    private static List<Order> orderOf(CriteriaBuilder builder, Root<Movie> root, MovieQuery query,
+                                       List<MovieQuery.SortColumn> columns) {
+        List<Order> orders = new ArrayList<>();
+        if (query.getGenre() != null) {
+            orders.add(builder.asc(root.get("genreLower")));
+        }
+        if (query.getReleaseYear() != null && !propertiesOf(columns).contains("releaseYear")) {
+            orders.add(builder.asc(root.get("releaseYear")));
+        }
+        for (MovieQuery.SortColumn column : columns) {
+            orders.add(column.direction() == Sort.Direction.ASC
+                    ? builder.asc(root.get(column.property()))
+                    : builder.desc(root.get(column.property())));
+        }
+        return orders;
+    }
+    
+    // (c1 > v1) OR (c1 = v1 AND c2 > v2) ..., with < for descending columns
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder builder, Root<Movie> root, List<MovieQuery.SortColumn> columns,
+                                   Map<String, Object> values) {
+        List<Predicate> alternatives = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            List<Predicate> terms = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                terms.add(builder.equal(root.get(columns.get(j).property()), values.get(columns.get(j).property())));
+            }
+            MovieQuery.SortColumn column = columns.get(i);
+            Expression<Comparable> path = root.get(column.property());
+            Comparable value = (Comparable) values.get(column.property());
+            terms.add(column.direction() == Sort.Direction.ASC
+                    ? builder.greaterThan(path, value)
+                    : builder.lessThan(path, value));
+            alternatives.add(builder.and(terms.toArray(Predicate[]::new)));
+        }
+        return builder.or(alternatives.toArray(Predicate[]::new));
+    }
+    
+    private static ScrollPosition positionOf(Movie movie, List<MovieQuery.SortColumn> columns) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (MovieQuery.SortColumn column : columns) {
+            keys.put(column.property(), column.value().apply(movie));
+        }
+        return ScrollPosition.forward(keys);
+    }
+    
+    private static List<String> propertiesOf(List<MovieQuery.SortColumn> columns) {
+        return columns.stream().map(MovieQuery.SortColumn::property).toList();
+    }
+}
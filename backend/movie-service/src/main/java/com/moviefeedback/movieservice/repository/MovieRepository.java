@@ -1,29 +1,82 @@
 package com.moviefeedback.movieservice.repository;
 
 import com.moviefeedback.movieservice.model.Movie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Long> {
+public interface MovieRepository extends JpaRepository<Movie, Long>, MovieQueryRepository {
     
-    Optional<Movie> findByTitleIgnoreCase(String title);
+    // Case-insensitive lookups compare against the indexed lower-case columns generated by the database
+    @Query("SELECT m FROM Movie m WHERE m.titleLower = LOWER(:title)")
+    Optional<Movie> findByTitleIgnoreCase(@Param("title") String title);
     
-    List<Movie> findByGenreIgnoreCase(String genre);
+    @Query("SELECT m FROM Movie m WHERE m.genreLower = LOWER(:genre)")
+    List<Movie> findByGenreIgnoreCase(@Param("genre") String genre);
     
     List<Movie> findByReleaseYear(Integer releaseYear);
     
     List<Movie> findByDirectorIgnoreCaseContaining(String director);
     
+    // Keyset-paginated variants, scrolled with KeysetCursor.CREATED_AT_ORDER
+    Window<Movie> findBy(ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Movie> findByGenreLower(String genreLower, ScrollPosition position, Sort sort, Limit limit);
+    
+    default Window<Movie> findByGenreIgnoreCase(String genre, ScrollPosition position, Sort sort, Limit limit) {
+        return findByGenreLower(genre.toLowerCase(Locale.ROOT), position, sort, limit);
+    }
+    
+    Window<Movie> findByReleaseYear(Integer releaseYear, ScrollPosition position, Sort sort, Limit limit);
+    
+    Window<Movie> findByDirectorIgnoreCaseContaining(String director, ScrollPosition position, Sort sort, Limit limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT m FROM Movie m ORDER BY m.createdAt, m.id")
+    Stream<Movie> streamAll();
+    
     @Query("SELECT m FROM Movie m WHERE LOWER(m.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.description) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(m.director) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Movie> searchMovies(@Param("keyword") String keyword);
     
-    boolean existsByTitleIgnoreCase(String title);
+    // Served from idx_movies_average_rating, read from the top and cut off at the limit
+    @Query("SELECT m FROM Movie m WHERE m.averageRating >= :minRating AND m.feedbackCount >= :minCount " +
+           "ORDER BY m.averageRating DESC, m.id DESC")
+    List<Movie> findTopRated(@Param("minRating") double minRating, @Param("minCount") long minCount, Limit limit);
+    
+    @Query("SELECT m.id FROM Movie m WHERE m.feedbackCount > 0")
+    List<Long> findIdsWithFeedback();
+    
+    // Rating figures are only replaced by ones with a higher revision, so replayed or reordered events are harmless
+    @Modifying
+    @Query("UPDATE Movie m SET m.averageRating = :averageRating, m.feedbackCount = :feedbackCount, " +
+           "m.ratingRevision = :revision WHERE m.id = :id AND m.ratingRevision < :revision")
+    int updateRatingsIfNewer(@Param("id") Long id, @Param("averageRating") double averageRating,
+                             @Param("feedbackCount") long feedbackCount, @Param("revision") long revision);
+    
+    @Modifying
+    @Query("UPDATE Movie m SET m.averageRating = :averageRating, m.feedbackCount = :feedbackCount, " +
+           "m.ratingRevision = :revision WHERE m.id = :id AND (m.averageRating <> :averageRating " +
+           "OR m.feedbackCount <> :feedbackCount OR m.ratingRevision <> :revision)")
+    int overwriteRatings(@Param("id") Long id, @Param("averageRating") double averageRating,
+                         @Param("feedbackCount") long feedbackCount, @Param("revision") long revision);
+    
+    @Query("SELECT COUNT(m) > 0 FROM Movie m WHERE m.titleLower = LOWER(:title)")
+    boolean existsByTitleIgnoreCase(@Param("title") String title);
 } 
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.moviefeedback.movieservice.repository;
+
+import com.moviefeedback.movieservice.model.Movie;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+/**
+ * Specification building blocks for {@link MovieQuery}. Equality filters compare indexed
+ * columns directly, like the single-criteria queries in {@link MovieRepository}.
+ */
+public final class MovieSpecifications {
+    
+    private MovieSpecifications() {}
+    
+    public static Specification<Movie> matching(MovieQuery query) {
+        Specification<Movie> specification = Specification.where(null);
+        if (query.getGenre() != null) {
+            specification = specification.and(hasGenre(query.getGenre()));
+        }
+        if (query.getReleaseYear() != null) {
+            specification = specification.and(releasedIn(query.getReleaseYear()));
+        }
+        if (query.getMinRating() != null) {
+            specification = specification.and(ratedAtLeast(query.getMinRating()));
+        }
+        return specification;
+    }
+    
+    public static Specification<Movie> hasGenre(String genre) {
+        return (root, query, builder) -> builder.equal(root.get("genreLower"), genre.toLowerCase(Locale.ROOT));
+    }
+    
+    public static Specification<Movie> releasedIn(int year) {
+        return (root, query, builder) -> builder.equal(root.get("releaseYear"), year);
+    }
+    
+    public static Specification<Movie> ratedAtLeast(double minRating) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("averageRating"), minRating);
+    }
+}
@@ -0,0 +1,333 @@
+package com.moviefeedback.movieservice.search;
+
+import com.moviefeedback.movieservice.model.Movie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over movie title, director and description. Terms are kept in a
+ * sorted map for prefix lookups and in a trigram index for substring and fuzzy lookups.
+ */
+@Component
+public class MovieSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float DIRECTOR_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.8f;
+    private static final float SUBSTRING_MATCH = 0.6f;
+    private static final float FUZZY_MATCH = 0.4f;
+
+    private static final int MIN_SUBSTRING_TOKEN_LENGTH = 3;
+    private static final int MIN_FUZZY_TOKEN_LENGTH = 4;
+
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IndexState state = new IndexState();
+    private List<Consumer<IndexState>> journal;
+    private volatile boolean ready;
+    private final Object rebuildLock = new Object();
+
+    public MovieSearchIndex(@Value("${search.max-results:200}") int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    // Keywords without any indexable term (e.g. only punctuation) are left to the database query, and so
+    // are keywords with terms too short for the trigram index, which the query matches anywhere in a word
+    public boolean canServe(String keyword) {
+        List<String> tokens = tokenize(keyword);
+        return ready && !tokens.isEmpty()
+                && tokens.stream().allMatch(token -> token.length() >= MIN_SUBSTRING_TOKEN_LENGTH);
+    }
+
+    public void index(Movie movie) {
+        apply(state -> state.put(movie.getId(), movie.getTitle(), movie.getDirector(), movie.getDescription()));
+    }
+
+    public void remove(Long movieId) {
+        apply(state -> state.remove(movieId));
+    }
+
+    /**
+     * Builds a fresh index from the given movies and swaps it in. Changes made while the rebuild
+     * is running are replayed on top of the new index so that none are lost.
+     */
+    public void rebuild(Consumer<Consumer<Movie>> movieSource) {
+        // One rebuild at a time, as they share the journal
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                journal = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            IndexState rebuilt = new IndexState();
+            try {
+                movieSource.accept(movie ->
+                        rebuilt.put(movie.getId(), movie.getTitle(), movie.getDirector(), movie.getDescription()));
+            } catch (RuntimeException e) {
+                // The current index stays in use, and changes must stop being journalled
+                lock.writeLock().lock();
+                try {
+                    journal = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                journal.forEach(change -> change.accept(rebuilt));
+                journal = null;
+                state = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Movie search index rebuilt with {} movies and {} terms",
+                    rebuilt.documents.size(), rebuilt.postings.size());
+        }
+    }
+
+    // Whether changes are being journalled for a rebuild in progress
+    boolean isRebuilding() {
+        lock.readLock().lock();
+        try {
+            return journal != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of movies matching every token of the keyword, best match first.
+     */
+    public List<Long> search(String keyword) {
+        List<String> tokens = tokenize(keyword);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = state.score(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Every token has to match; keep only movies matched by all tokens so far
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((movieId, score) -> score + tokenScores.get(movieId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Float>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(maxResults)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<IndexState> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static Set<String> trigrams(String term) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            trigrams.add(term.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Levenshtein distance, giving up as soon as it is known to exceed the given bound
+    static int boundedEditDistance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > bound) {
+                return bound + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class IndexState {
+
+        // term -> (movie id -> summed field weight of the term in that movie)
+        private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        private final Map<String, Set<String>> trigramTerms = new HashMap<>();
+        private final Map<Long, Set<String>> documents = new HashMap<>();
+
+        void put(Long movieId, String title, String director, String description) {
+            remove(movieId);
+
+            Map<String, Float> weights = new HashMap<>();
+            tokenize(title).forEach(term -> weights.merge(term, TITLE_WEIGHT, Float::sum));
+            tokenize(director).forEach(term -> weights.merge(term, DIRECTOR_WEIGHT, Float::sum));
+            tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+
+            weights.forEach((term, weight) -> {
+                Map<Long, Float> posting = postings.computeIfAbsent(term, key -> new HashMap<>());
+                if (posting.isEmpty()) {
+                    trigrams(term).forEach(trigram ->
+                            trigramTerms.computeIfAbsent(trigram, key -> new HashSet<>()).add(term));
+                }
+                posting.put(movieId, weight);
+            });
+            documents.put(movieId, weights.keySet());
+        }
+
+        void remove(Long movieId) {
+            Set<String> terms = documents.remove(movieId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                posting.remove(movieId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    for (String trigram : trigrams(term)) {
+                        Set<String> termsWithTrigram = trigramTerms.get(trigram);
+                        termsWithTrigram.remove(term);
+                        if (termsWithTrigram.isEmpty()) {
+                            trigramTerms.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<Long, Float> score(String token) {
+            Map<String, Float> matchedTerms = new HashMap<>();
+
+            // Exact and prefix matches come straight from the sorted term map
+            for (String term : postings.subMap(token, true, token + Character.MAX_VALUE, false).keySet()) {
+                matchedTerms.put(term, term.length() == token.length() ? EXACT_MATCH : PREFIX_MATCH);
+            }
+
+            if (token.length() >= MIN_SUBSTRING_TOKEN_LENGTH) {
+                for (String term : substringCandidates(token)) {
+                    if (term.contains(token)) {
+                        matchedTerms.putIfAbsent(term, SUBSTRING_MATCH);
+                    }
+                }
+            }
+
+            if (matchedTerms.isEmpty() && token.length() >= MIN_FUZZY_TOKEN_LENGTH) {
+                int maxEdits = token.length() <= 6 ? 1 : 2;
+                for (String term : fuzzyCandidates(token)) {
+                    if (boundedEditDistance(token, term, maxEdits) <= maxEdits) {
+                        matchedTerms.putIfAbsent(term, FUZZY_MATCH);
+                    }
+                }
+            }
+
+            Map<Long, Float> scores = new HashMap<>();
+            matchedTerms.forEach((term, quality) -> {
+                Map<Long, Float> posting = postings.get(term);
+                float idf = (float) Math.log(1.0 + (double) documents.size() / posting.size());
+                posting.forEach((movieId, weight) -> scores.merge(movieId, quality * weight * idf, Math::max));
+            });
+            return scores;
+        }
+
+        // Terms containing every trigram of the token, smallest trigram set first
+        private Set<String> substringCandidates(String token) {
+            List<Set<String>> sets = new ArrayList<>();
+            for (String trigram : trigrams(token)) {
+                Set<String> terms = trigramTerms.get(trigram);
+                if (terms == null) {
+                    return Set.of();
+                }
+                sets.add(terms);
+            }
+            sets.sort(Comparator.comparingInt(Set::size));
+            Set<String> candidates = new HashSet<>(sets.get(0));
+            for (int i = 1; i < sets.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(sets.get(i));
+            }
+            return candidates;
+        }
+
+        // Terms sharing at least one trigram with the token
+        private Set<String> fuzzyCandidates(String token) {
+            Set<String> candidates = new HashSet<>();
+            for (String trigram : trigrams(token)) {
+                candidates.addAll(trigramTerms.getOrDefault(trigram, Set.of()));
+            }
+            return candidates;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.moviefeedback.movieservice.search;
+
+import com.moviefeedback.movieservice.service.MovieService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class MovieSearchIndexLoader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MovieSearchIndexLoader.class);
+    
+    private final MovieSearchIndex movieSearchIndex;
+    private final MovieService movieService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    public MovieSearchIndexLoader(MovieSearchIndex movieSearchIndex, MovieService movieService,
+                                  PlatformTransactionManager transactionManager) {
+        this.movieSearchIndex = movieSearchIndex;
+        this.movieService = movieService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    // Searches fall back to the database query until the first rebuild has completed
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+    
+    // The periodic rebuild picks up movies written through other instances. The export joins a
+    // read-write transaction so that it reads the primary: movies a lagging read replica is still
+    // missing would not be brought back by the rebuild's replay.
+    @Scheduled(initialDelayString = "${search.rebuild-interval:PT5M}",
+               fixedDelayString = "${search.rebuild-interval:PT5M}")
+    public void rebuild() {
+        try {
+            movieSearchIndex.rebuild(sink -> transactionTemplate.executeWithoutResult(
+                    status -> movieService.exportMovies(sink)));
+        } catch (RuntimeException e) {
+            // The previous index stays in use until the next rebuild
+            logger.warn("Could not rebuild the movie search index: {}", e.toString());
+        }
+    }
+}
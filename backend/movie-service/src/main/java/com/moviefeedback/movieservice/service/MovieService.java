@@ -1,36 +1,129 @@
 package com.moviefeedback.movieservice.service;
 
 import com.moviefeedback.movieservice.model.Movie;
+import com.moviefeedback.movieservice.pagination.KeysetCursor;
+import com.moviefeedback.movieservice.ratings.RatingEvent;
+import com.moviefeedback.movieservice.repository.MovieQuery;
 import com.moviefeedback.movieservice.repository.MovieRepository;
+import com.moviefeedback.movieservice.search.MovieSearchIndex;
+import com.moviefeedback.movieservice.stats.CatalogStats;
+import com.moviefeedback.movieservice.stats.MovieStatistics;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "service.invocations", description = "Service method latency")
 @Transactional
 public class MovieService {
     
     private static final Logger logger = LoggerFactory.getLogger(MovieService.class);
     
+    public static final String MOVIE_CACHE = "movies";
+    public static final String ALL_MOVIES_CACHE = "allMovies";
+    public static final String GENRE_CACHE = "moviesByGenre";
+    public static final String YEAR_CACHE = "moviesByYear";
+    
+    public static final String REJECTED_METRIC = "movies.rejected";
+    
     private final MovieRepository movieRepository;
+    private final MovieSearchIndex movieSearchIndex;
+    private final MovieStatistics movieStatistics;
+    private final CacheManager cacheManager;
+    private final CollectionVersions collectionVersions;
+    private final Counter duplicateTitleOnCreate;
+    private final Counter duplicateTitleOnUpdate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     @Autowired
-    public MovieService(MovieRepository movieRepository) {
+    public MovieService(MovieRepository movieRepository, MovieSearchIndex movieSearchIndex, MovieStatistics movieStatistics,
+                        CacheManager cacheManager, CollectionVersions collectionVersions, MeterRegistry meterRegistry) {
         this.movieRepository = movieRepository;
+        this.movieSearchIndex = movieSearchIndex;
+        this.movieStatistics = movieStatistics;
+        this.cacheManager = cacheManager;
+        this.collectionVersions = collectionVersions;
+        this.duplicateTitleOnCreate = rejectedCounter(meterRegistry, "createMovie");
+        this.duplicateTitleOnUpdate = rejectedCounter(meterRegistry, "updateMovie");
     }
     
+    // Validation failures are counted under the same name by MovieController
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder(REJECTED_METRIC)
+                .description("Movie writes refused before reaching the database")
+                .tag("operation", operation)
+                .tag("reason", "duplicate_title")
+                .register(meterRegistry);
+    }
+    
+    // Cached reads stay on the primary: served by a lagging read replica right after a write's
+    // eviction, they would put the old rows back in the cache
+    @Cacheable(cacheNames = ALL_MOVIES_CACHE, key = "'all'")
     public List<Movie> getAllMovies() {
-        logger.info("Fetching all movies");
+        logger.debug("Fetching all movies");
         return movieRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public Window<Movie> getMoviesPage(ScrollPosition position, int limit) {
+        logger.debug("Fetching movies page of {}", limit);
+        return movieRepository.findBy(position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit));
+    }
+    
+    @Transactional(readOnly = true)
+    public Window<Movie> queryMovies(MovieQuery query, KeysetScrollPosition position, int limit) {
+        logger.debug("Querying movies page of {} sorted by {}", limit, query.getSortKey());
+        return movieRepository.findBy(query, position, Limit.of(limit));
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportMovies(Consumer<Movie> sink) {
+        logger.debug("Exporting all movies");
+        try (Stream<Movie> movies = movieRepository.streamAll()) {
+            // Detach every row once written so the persistence context stays constant in size
+            movies.forEach(movie -> {
+                sink.accept(movie);
+                entityManager.detach(movie);
+            });
+        }
+    }
+    
+    @Cacheable(cacheNames = MOVIE_CACHE, key = "#id")
     public Optional<Movie> getMovieById(Long id) {
-        logger.info("Fetching movie with id: {}", id);
+        logger.debug("Fetching movie with id: {}", id);
         return movieRepository.findById(id);
     }
     
@@ -38,10 +131,16 @@ public class MovieService {
         logger.info("Creating new movie: {}", movie.getTitle());
         
         if (movieRepository.existsByTitleIgnoreCase(movie.getTitle())) {
+            duplicateTitleOnCreate.increment();
             throw new IllegalArgumentException("Movie with title '" + movie.getTitle() + "' already exists");
         }
         
         Movie savedMovie = movieRepository.save(movie);
+        afterCommit(() -> {
+            movieSearchIndex.index(savedMovie);
+            movieStatistics.put(savedMovie);
+        });
+        evictCachesAfterCommit(List.of(savedMovie.getId()), List.of(savedMovie.getGenre()), List.of(savedMovie.getReleaseYear()));
         logger.info("Movie created successfully with id: {}", savedMovie.getId());
         return savedMovie;
     }
@@ -55,9 +154,13 @@ public class MovieService {
         // Check if the new title conflicts with existing movies (excluding current movie)
         if (!movie.getTitle().equalsIgnoreCase(movieDetails.getTitle()) &&
             movieRepository.existsByTitleIgnoreCase(movieDetails.getTitle())) {
+            duplicateTitleOnUpdate.increment();
             throw new IllegalArgumentException("Movie with title '" + movieDetails.getTitle() + "' already exists");
         }
         
+        String previousGenre = movie.getGenre();
+        Integer previousYear = movie.getReleaseYear();
+        
         movie.setTitle(movieDetails.getTitle());
         movie.setDescription(movieDetails.getDescription());
         movie.setGenre(movieDetails.getGenre());
@@ -65,6 +168,12 @@ public class MovieService {
         movie.setDirector(movieDetails.getDirector());
         
         Movie updatedMovie = movieRepository.save(movie);
+        afterCommit(() -> {
+            movieSearchIndex.index(updatedMovie);
+            movieStatistics.put(updatedMovie);
+        });
+        evictCachesAfterCommit(List.of(id), List.of(previousGenre, movieDetails.getGenre()),
+                List.of(previousYear, movieDetails.getReleaseYear()));
         logger.info("Movie updated successfully with id: {}", updatedMovie.getId());
         return updatedMovie;
     }
@@ -76,27 +185,176 @@ public class MovieService {
             throw new IllegalArgumentException("Movie not found with id: " + id);
         }
         
+        // The row is loaded anyway by deleteById, so this lookup is served from the persistence context
+        Optional<Movie> deletedMovie = movieRepository.findById(id);
         movieRepository.deleteById(id);
+        afterCommit(() -> {
+            movieSearchIndex.remove(id);
+            movieStatistics.remove(id);
+        });
+        evictCachesAfterCommit(List.of(id),
+                deletedMovie.map(movie -> List.of(movie.getGenre())).orElse(List.of()),
+                deletedMovie.map(movie -> List.of(movie.getReleaseYear())).orElse(List.of()));
         logger.info("Movie deleted successfully with id: {}", id);
     }
     
+    @Transactional(readOnly = true)
     public List<Movie> searchMovies(String keyword) {
-        logger.info("Searching movies with keyword: {}", keyword);
-        return movieRepository.searchMovies(keyword);
+        logger.debug("Searching movies with keyword: {}", keyword);
+        if (!movieSearchIndex.canServe(keyword)) {
+            return movieRepository.searchMovies(keyword);
+        }
+        
+        List<Long> rankedIds = movieSearchIndex.search(keyword);
+        Map<Long, Movie> movies = movieRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(movies::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
     
+    @Cacheable(cacheNames = GENRE_CACHE, key = "#genre.toLowerCase(T(java.util.Locale).ROOT)")
     public List<Movie> getMoviesByGenre(String genre) {
-        logger.info("Fetching movies by genre: {}", genre);
+        logger.debug("Fetching movies by genre: {}", genre);
         return movieRepository.findByGenreIgnoreCase(genre);
     }
     
+    @Transactional(readOnly = true)
+    public Window<Movie> getMoviesByGenre(String genre, ScrollPosition position, int limit) {
+        logger.debug("Fetching movies page by genre: {}", genre);
+        return movieRepository.findByGenreIgnoreCase(genre, position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit));
+    }
+    
+    @Cacheable(cacheNames = YEAR_CACHE, key = "#year")
     public List<Movie> getMoviesByYear(Integer year) {
-        logger.info("Fetching movies by year: {}", year);
+        logger.debug("Fetching movies by year: {}", year);
         return movieRepository.findByReleaseYear(year);
     }
     
+    @Transactional(readOnly = true)
+    public Window<Movie> getMoviesByYear(Integer year, ScrollPosition position, int limit) {
+        logger.debug("Fetching movies page by year: {}", year);
+        return movieRepository.findByReleaseYear(year, position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit));
+    }
+    
+    @Transactional(readOnly = true)
     public List<Movie> getMoviesByDirector(String director) {
-        logger.info("Fetching movies by director: {}", director);
+        logger.debug("Fetching movies by director: {}", director);
         return movieRepository.findByDirectorIgnoreCaseContaining(director);
     }
-} 
\ No newline at end of file
+    
+    @Transactional(readOnly = true)
+    public Window<Movie> getMoviesByDirector(String director, ScrollPosition position, int limit) {
+        logger.debug("Fetching movies page by director: {}", director);
+        return movieRepository.findByDirectorIgnoreCaseContaining(director, position, KeysetCursor.CREATED_AT_ORDER, Limit.of(limit));
+    }
+    
+    public CatalogStats getCatalogStats() {
+        logger.debug("Fetching catalogue statistics");
+        return movieStatistics.getStats();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Movie> getTopRatedMovies(double minRating, long minCount, int limit) {
+        logger.debug("Fetching top {} rated movies", limit);
+        return movieRepository.findTopRated(minRating, minCount, Limit.of(limit));
+    }
+    
+    /**
+     * Copies rating figures from feedback-service events onto the movies, skipping figures older
+     * than the ones already stored. Every movie in the batch is evicted from this instance's
+     * caches, since another instance sharing the database may have stored the figures first.
+     */
+    public void updateRatings(List<RatingEvent> events) {
+        logger.info("Applying {} rating events", events.size());
+        Map<Long, RatingEvent> latest = latestPerMovie(events);
+        for (RatingEvent event : latest.values()) {
+            movieRepository.updateRatingsIfNewer(event.getMovieId(), event.getAverageRating(),
+                    event.getFeedbackCount(), event.getRatingRevision());
+        }
+        // Also when another instance stored the figures first, as the statistics are per instance
+        afterCommit(() -> latest.values().forEach(event -> movieStatistics.recordRatings(event.getMovieId(),
+                event.getAverageRating(), event.getFeedbackCount(), event.getRatingRevision(), false)));
+        evictRatedMoviesAfterCommit(latest.keySet());
+    }
+    
+    /**
+     * Replaces the rating figures of all movies with the given current ones, whatever their
+     * revision; movies left out have no feedback any more. Used to recover from missed events
+     * and from a feedback-service whose revisions started over.
+     */
+    public int resyncRatings(List<RatingEvent> currentRatings) {
+        logger.info("Resynchronizing ratings of {} movies", currentRatings.size());
+        Map<Long, RatingEvent> latest = latestPerMovie(currentRatings);
+        for (Long id : movieRepository.findIdsWithFeedback()) {
+            latest.putIfAbsent(id, new RatingEvent(id, 0.0, 0, 0));
+        }
+        List<Long> changed = new ArrayList<>();
+        for (RatingEvent rating : latest.values()) {
+            if (movieRepository.overwriteRatings(rating.getMovieId(), rating.getAverageRating(),
+                    rating.getFeedbackCount(), rating.getRatingRevision()) > 0) {
+                changed.add(rating.getMovieId());
+            }
+        }
+        afterCommit(() -> latest.values().forEach(rating -> movieStatistics.recordRatings(rating.getMovieId(),
+                rating.getAverageRating(), rating.getFeedbackCount(), rating.getRatingRevision(), true)));
+        evictRatedMoviesAfterCommit(changed);
+        return changed.size();
+    }
+    
+    private static Map<Long, RatingEvent> latestPerMovie(List<RatingEvent> events) {
+        Map<Long, RatingEvent> latest = new LinkedHashMap<>();
+        for (RatingEvent event : events) {
+            latest.merge(event.getMovieId(), event,
+                    (current, candidate) -> candidate.getRatingRevision() >= current.getRatingRevision() ? candidate : current);
+        }
+        return latest;
+    }
+    
+    private void evictRatedMoviesAfterCommit(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<String> genres = new HashSet<>();
+        Set<Integer> years = new HashSet<>();
+        for (Movie movie : movieRepository.findAllById(ids)) {
+            genres.add(movie.getGenre());
+            years.add(movie.getReleaseYear());
+        }
+        evictCachesAfterCommit(ids, genres, years);
+    }
+    
+    // Evicts only the entries a write can have changed: the movies themselves and the lists they were or are part of
+    private void evictCachesAfterCommit(Collection<Long> ids, Collection<String> genres, Collection<Integer> years) {
+        afterCommit(() -> {
+            ids.forEach(id -> evict(MOVIE_CACHE, id));
+            evict(ALL_MOVIES_CACHE, "all");
+            genres.forEach(genre -> evict(GENRE_CACHE, genre.toLowerCase(Locale.ROOT)));
+            years.forEach(year -> evict(YEAR_CACHE, year));
+            // Only after the evictions, so a client given the new version can never read a stale cached list
+            collectionVersions.increment(CollectionVersions.MOVIES);
+        });
+    }
+    
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+    
+    // Keeps in-memory structures in step with committed data only
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
\ No newline at end of file
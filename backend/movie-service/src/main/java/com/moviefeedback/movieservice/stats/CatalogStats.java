@@ -0,0 +1,50 @@
+package com.moviefeedback.movieservice.stats;
+
+import java.util.List;
+
+/**
+ * Catalogue figures for the admin dashboard: totals, one entry per genre in genre order, and
+ * the best rated and most rated movies, best first.
+ */
+public class CatalogStats {
+
+    private final GenreStats total;
+    private final List<GenreStats> genres;
+    private final List<MovieFigures> topRated;
+    private final List<MovieFigures> mostRated;
+
+    CatalogStats(GenreStats total, List<GenreStats> genres, List<MovieFigures> topRated, List<MovieFigures> mostRated) {
+        this.total = total;
+        this.genres = genres;
+        this.topRated = topRated;
+        this.mostRated = mostRated;
+    }
+
+    public long getTotalMovies() {
+        return total.getMovies();
+    }
+
+    public long getRatedMovies() {
+        return total.getRatedMovies();
+    }
+
+    public long getFeedbackCount() {
+        return total.getFeedbackCount();
+    }
+
+    public double getAverageRating() {
+        return total.getAverageRating();
+    }
+
+    public List<GenreStats> getGenres() {
+        return genres;
+    }
+
+    public List<MovieFigures> getTopRated() {
+        return topRated;
+    }
+
+    public List<MovieFigures> getMostRated() {
+        return mostRated;
+    }
+}
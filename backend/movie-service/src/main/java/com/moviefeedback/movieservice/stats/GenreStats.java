@@ -0,0 +1,61 @@
+package com.moviefeedback.movieservice.stats;
+
+/**
+ * Movie and rating counts of one genre, or of the whole catalogue. The average rating is
+ * weighted by feedback count, so it is the average of all ratings given to the genre.
+ */
+public class GenreStats {
+
+    private final String genre;
+    private long movies;
+    private long ratedMovies;
+    private long feedbackCount;
+    private double ratingSum;
+
+    GenreStats(String genre) {
+        this.genre = genre;
+    }
+
+    // sign is 1 to add the movie and -1 to take it out again
+    void add(MovieFigures movie, int sign) {
+        movies += sign;
+        if (movie.getFeedbackCount() > 0) {
+            ratedMovies += sign;
+            feedbackCount += sign * movie.getFeedbackCount();
+            ratingSum += sign * movie.getAverageRating() * movie.getFeedbackCount();
+        }
+    }
+
+    GenreStats copy() {
+        GenreStats copy = new GenreStats(genre);
+        copy.movies = movies;
+        copy.ratedMovies = ratedMovies;
+        copy.feedbackCount = feedbackCount;
+        copy.ratingSum = ratingSum;
+        return copy;
+    }
+
+    boolean isEmpty() {
+        return movies == 0;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public long getMovies() {
+        return movies;
+    }
+
+    public long getRatedMovies() {
+        return ratedMovies;
+    }
+
+    public long getFeedbackCount() {
+        return feedbackCount;
+    }
+
+    public double getAverageRating() {
+        return feedbackCount > 0 ? ratingSum / feedbackCount : 0.0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.moviefeedback.movieservice.stats;
+
+import com.moviefeedback.movieservice.model.Movie;
+
+/**
+ * The part of a movie the catalogue statistics are kept from, as of one rating revision.
+ */
+public final class MovieFigures {
+
+    private final long movieId;
+    private final String title;
+    private final String genre;
+    private final double averageRating;
+    private final long feedbackCount;
+    private final long ratingRevision;
+
+    MovieFigures(long movieId, String title, String genre, double averageRating, long feedbackCount,
+                 long ratingRevision) {
+        this.movieId = movieId;
+        this.title = title;
+        this.genre = genre;
+        this.averageRating = averageRating;
+        this.feedbackCount = feedbackCount;
+        this.ratingRevision = ratingRevision;
+    }
+
+    static MovieFigures from(Movie movie) {
+        return new MovieFigures(movie.getId(), movie.getTitle(), movie.getGenre(), movie.getAverageRating(),
+                movie.getFeedbackCount(), movie.getRatingRevision());
+    }
+
+    MovieFigures withRatings(double averageRating, long feedbackCount, long ratingRevision) {
+        return new MovieFigures(movieId, title, genre, averageRating, feedbackCount, ratingRevision);
+    }
+
+    public long getMovieId() {
+        return movieId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public long getFeedbackCount() {
+        return feedbackCount;
+    }
+
+    public long getRatingRevision() {
+        return ratingRevision;
+    }
+}
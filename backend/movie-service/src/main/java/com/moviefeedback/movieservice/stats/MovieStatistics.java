@@ -0,0 +1,170 @@
+package com.moviefeedback.movieservice.stats;
+
+import com.moviefeedback.movieservice.model.Movie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Catalogue statistics kept up to date in memory: counters per genre and bounded heaps of the
+ * best rated and most rated movies. Movie writes and rating events committed by this instance
+ * are applied as they happen; {@link MovieStatisticsLoader} rebuilds everything from the
+ * database at an interval, which picks up writes made through other instances. Reading the
+ * statistics costs the same however many movies there are.
+ */
+@Component
+public class MovieStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieStatistics.class);
+
+    private static final Comparator<MovieFigures> BY_RATING = Comparator.comparingDouble(MovieFigures::getAverageRating)
+            .thenComparingLong(MovieFigures::getFeedbackCount)
+            .thenComparing(MovieFigures::getMovieId, Comparator.reverseOrder());
+    private static final Comparator<MovieFigures> BY_VOLUME = Comparator.comparingLong(MovieFigures::getFeedbackCount)
+            .thenComparingDouble(MovieFigures::getAverageRating)
+            .thenComparing(MovieFigures::getMovieId, Comparator.reverseOrder());
+
+    private final int topSize;
+    private final long topRatedMinCount;
+    private State state;
+    private List<Consumer<State>> journal;
+    private final Object rebuildLock = new Object();
+
+    @Autowired
+    public MovieStatistics(@Value("${stats.top-movies:10}") int topSize,
+                           @Value("${stats.top-rated-min-count:1}") long topRatedMinCount) {
+        this.topSize = topSize;
+        this.topRatedMinCount = Math.max(1, topRatedMinCount);
+        this.state = new State();
+    }
+
+    public void put(Movie movie) {
+        MovieFigures figures = MovieFigures.from(movie);
+        apply(state -> state.put(figures));
+    }
+
+    public void remove(Long movieId) {
+        apply(state -> state.remove(movieId));
+    }
+
+    /**
+     * Applies a movie's rating figures. Unless overwrite is set, figures only replace ones with a
+     * lower revision, as in the movies table.
+     */
+    public void recordRatings(Long movieId, double averageRating, long feedbackCount, long revision, boolean overwrite) {
+        apply(state -> state.recordRatings(movieId, averageRating, feedbackCount, revision, overwrite));
+    }
+
+    /**
+     * Builds the statistics afresh from the given movies and swaps them in. Changes made while
+     * the rebuild is running are replayed on top, so that none are lost.
+     */
+    public void rebuild(Consumer<Consumer<Movie>> movieSource) {
+        // One rebuild at a time, as they share the journal
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+
+            State rebuilt = new State();
+            try {
+                movieSource.accept(movie -> rebuilt.put(MovieFigures.from(movie)));
+            } catch (RuntimeException e) {
+                // The current state stays in use, and changes must stop being journalled
+                synchronized (this) {
+                    journal = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                journal.forEach(change -> change.accept(rebuilt));
+                journal = null;
+                state = rebuilt;
+            }
+            logger.info("Movie statistics rebuilt from {} movies", rebuilt.movies.size());
+        }
+    }
+
+    public synchronized CatalogStats getStats() {
+        List<GenreStats> genres = new ArrayList<>(state.genres.size());
+        state.genres.values().forEach(genre -> genres.add(genre.copy()));
+        return new CatalogStats(state.total.copy(), genres,
+                state.topRated.best(state.movies.values()), state.mostRated.best(state.movies.values()));
+    }
+
+    // Whether changes are being journalled for a rebuild in progress
+    synchronized boolean isRebuilding() {
+        return journal != null;
+    }
+
+    private synchronized void apply(Consumer<State> change) {
+        change.accept(state);
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private final class State {
+
+        private final Map<Long, MovieFigures> movies = new HashMap<>();
+        private final GenreStats total = new GenreStats(null);
+        private final Map<String, GenreStats> genres = new TreeMap<>();
+        private final TopMovies topRated = new TopMovies(BY_RATING,
+                movie -> movie.getFeedbackCount() >= topRatedMinCount, topSize);
+        private final TopMovies mostRated = new TopMovies(BY_VOLUME, movie -> movie.getFeedbackCount() > 0, topSize);
+
+        void put(MovieFigures figures) {
+            MovieFigures previous = movies.get(figures.getMovieId());
+            // The entity's rating columns may predate figures applied from a later event
+            if (previous != null && previous.getRatingRevision() > figures.getRatingRevision()) {
+                figures = figures.withRatings(previous.getAverageRating(), previous.getFeedbackCount(),
+                        previous.getRatingRevision());
+            }
+            replace(previous, figures);
+        }
+
+        void remove(Long movieId) {
+            MovieFigures previous = movies.get(movieId);
+            if (previous != null) {
+                replace(previous, null);
+            }
+        }
+
+        void recordRatings(Long movieId, double averageRating, long feedbackCount, long revision, boolean overwrite) {
+            MovieFigures previous = movies.get(movieId);
+            if (previous != null && (overwrite || revision > previous.getRatingRevision())) {
+                replace(previous, previous.withRatings(averageRating, feedbackCount, revision));
+            }
+        }
+
+        private void replace(MovieFigures previous, MovieFigures current) {
+            if (previous != null) {
+                total.add(previous, -1);
+                GenreStats genre = genres.get(previous.getGenre());
+                genre.add(previous, -1);
+                if (genre.isEmpty()) {
+                    genres.remove(previous.getGenre());
+                }
+                movies.remove(previous.getMovieId());
+            }
+            if (current != null) {
+                total.add(current, 1);
+                genres.computeIfAbsent(current.getGenre(), GenreStats::new).add(current, 1);
+                movies.put(current.getMovieId(), current);
+            }
+            topRated.update(previous, current);
+            mostRated.update(previous, current);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.moviefeedback.movieservice.stats;
+
+import com.moviefeedback.movieservice.service.MovieService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class MovieStatisticsLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovieStatisticsLoader.class);
+
+    private final MovieStatistics movieStatistics;
+    private final MovieService movieService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public MovieStatisticsLoader(MovieStatistics movieStatistics, MovieService movieService,
+                                 PlatformTransactionManager transactionManager) {
+        this.movieStatistics = movieStatistics;
+        this.movieService = movieService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    // Read-write, so that the export reads the primary rather than a lagging read replica
+    @Scheduled(initialDelayString = "${stats.rebuild-interval:PT5M}",
+               fixedDelayString = "${stats.rebuild-interval:PT5M}")
+    public void rebuild() {
+        try {
+            movieStatistics.rebuild(sink -> transactionTemplate.executeWithoutResult(
+                    status -> movieService.exportMovies(sink)));
+        } catch (RuntimeException e) {
+            // The previous statistics stay in use until the next rebuild
+            logger.warn("Could not rebuild movie statistics: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.moviefeedback.movieservice.stats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * The best capacity movies in an order, kept in a bounded min-heap whose head is the movie to
+ * drop when a better one turns up. Changes are applied one movie at a time. Only when a member
+ * of a full heap gets worse can a movie outside it have overtaken it; the heap is then rebuilt
+ * from all movies on the next read.
+ */
+final class TopMovies {
+
+    private final Comparator<MovieFigures> order;
+    private final Predicate<MovieFigures> eligible;
+    private final int capacity;
+    private final PriorityQueue<MovieFigures> heap;
+    private final Map<Long, MovieFigures> members = new HashMap<>();
+    private boolean stale;
+
+    // The order must be total, so that exactly one of two movies is the better one
+    TopMovies(Comparator<MovieFigures> order, Predicate<MovieFigures> eligible, int capacity) {
+        this.order = order;
+        this.eligible = eligible;
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity + 1, order);
+    }
+
+    // previous is the movie's figures before the change and current after it; either may be null
+    void update(MovieFigures previous, MovieFigures current) {
+        if (stale) {
+            return;
+        }
+        long movieId = current != null ? current.getMovieId() : previous.getMovieId();
+        MovieFigures member = members.remove(movieId);
+        if (member != null) {
+            boolean full = heap.size() == capacity;
+            heap.remove(member);
+            boolean stays = current != null && eligible.test(current);
+            if (full && (!stays || order.compare(current, member) < 0)) {
+                stale = true;
+                return;
+            }
+            if (stays) {
+                add(current);
+            }
+        } else if (current != null && eligible.test(current)
+                && (heap.size() < capacity || order.compare(current, heap.peek()) > 0)) {
+            add(current);
+            if (heap.size() > capacity) {
+                members.remove(heap.poll().getMovieId());
+            }
+        }
+    }
+
+    void rebuild(Collection<MovieFigures> movies) {
+        heap.clear();
+        members.clear();
+        stale = false;
+        for (MovieFigures movie : movies) {
+            if (eligible.test(movie) && (heap.size() < capacity || order.compare(movie, heap.peek()) > 0)) {
+                add(movie);
+                if (heap.size() > capacity) {
+                    members.remove(heap.poll().getMovieId());
+                }
+            }
+        }
+    }
+
+    // Best first
+    List<MovieFigures> best(Collection<MovieFigures> movies) {
+        if (stale) {
+            rebuild(movies);
+        }
+        List<MovieFigures> ranked = new ArrayList<>(heap);
+        ranked.sort(order.reversed());
+        return ranked;
+    }
+
+    private void add(MovieFigures movie) {
+        heap.add(movie);
+        members.put(movie.getMovieId(), movie);
+    }
+}
@@ -0,0 +1,11 @@
+CREATE TABLE movies (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000) NOT NULL,
+    genre VARCHAR(255) NOT NULL,
+    release_year INTEGER NOT NULL,
+    director VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,11 @@
+-- Lower-case copies maintained by the database, so case-insensitive lookups can use plain indexes
+ALTER TABLE movies ADD COLUMN title_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(title));
+ALTER TABLE movies ADD COLUMN genre_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(genre));
+
+-- Titles are unique regardless of case
+CREATE UNIQUE INDEX ux_movies_title_lower ON movies (title_lower);
+
+-- Equality filters followed by the (created_at, id) keyset order used for paging
+CREATE INDEX idx_movies_genre_lower_created ON movies (genre_lower, created_at, id);
+CREATE INDEX idx_movies_release_year_created ON movies (release_year, created_at, id);
+CREATE INDEX idx_movies_created ON movies (created_at, id);
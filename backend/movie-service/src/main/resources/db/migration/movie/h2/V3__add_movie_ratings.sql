@@ -0,0 +1,15 @@
+-- Rating figures copied from feedback-service events; rating_revision orders updates per movie
+ALTER TABLE movies ADD COLUMN average_rating DOUBLE PRECISION DEFAULT 0 NOT NULL;
+ALTER TABLE movies ADD COLUMN feedback_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE movies ADD COLUMN rating_revision BIGINT DEFAULT 0 NOT NULL;
+
+-- Top-rated listings read this index from the highest rating down and stop at the limit
+CREATE INDEX idx_movies_average_rating ON movies (average_rating DESC, id DESC);
+
+-- Position of each event consumer in the log it reads
+CREATE TABLE event_offsets (
+    consumer VARCHAR(64) NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (consumer)
+);
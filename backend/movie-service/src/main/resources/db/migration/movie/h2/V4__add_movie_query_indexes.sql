@@ -0,0 +1,8 @@
+-- One index per combination of equality filters (genre, year) and sort key (created, rating, year), each
+-- ending in the sort columns, so every page of a combined query is a bounded index range read
+CREATE INDEX idx_movies_release_year_desc ON movies (release_year DESC, id DESC);
+CREATE INDEX idx_movies_genre_lower_rating ON movies (genre_lower, average_rating DESC, id DESC);
+CREATE INDEX idx_movies_genre_lower_year_desc ON movies (genre_lower, release_year DESC, id DESC);
+CREATE INDEX idx_movies_release_year_rating ON movies (release_year, average_rating DESC, id DESC);
+CREATE INDEX idx_movies_genre_lower_year_created ON movies (genre_lower, release_year, created_at, id);
+CREATE INDEX idx_movies_genre_lower_year_rating ON movies (genre_lower, release_year, average_rating DESC, id DESC);
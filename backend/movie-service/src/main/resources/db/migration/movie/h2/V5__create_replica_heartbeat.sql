@@ -0,0 +1,9 @@
+-- Single row the application stamps with the current time on the primary; reading it back from a
+-- read replica shows how far that replica is behind
+CREATE TABLE replica_heartbeat (
+    id INT NOT NULL,
+    beat_millis BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, 0);
@@ -0,0 +1,3 @@
+-- Id of the log an offset was read from, so an offset is not applied to another log whose ids
+-- start over
+ALTER TABLE event_offsets ADD COLUMN log_id VARCHAR(36);
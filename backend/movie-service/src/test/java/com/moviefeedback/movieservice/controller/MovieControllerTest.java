@@ -0,0 +1,147 @@
+package com.moviefeedback.movieservice.controller;
+
+import com.moviefeedback.movieservice.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "rating-events.enabled=false",
+        "eureka.client.enabled=false"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class MovieControllerTest {
+
+    private static final String TITLE_PREFIX = "Controller Test Movie";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private MovieRepository movieRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM movies WHERE title LIKE ?", TITLE_PREFIX + "%");
+    }
+
+    @Test
+    void getAllMovies_WhenETagStillMatches_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        String eTag = eTagOf("/api/movies");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/movies").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void getAllMovies_AfterMovieCreated_ShouldReturnNewETag() throws Exception {
+        // Arrange
+        String eTag = eTagOf("/api/movies");
+
+        // Act
+        createMovie(TITLE_PREFIX + " ETag");
+
+        // Assert
+        String newETag = mockMvc.perform(get("/api/movies").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+    }
+
+    @Test
+    void getAllMovies_WhenFollowingNextCursor_ShouldReturnTheFollowingPage() throws Exception {
+        // Arrange
+        createMovie(TITLE_PREFIX + " Page One");
+        createMovie(TITLE_PREFIX + " Page Two");
+        String cursor = mockMvc.perform(get("/api/movies").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(MovieController.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/movies").param("limit", "1").param("cursor", cursor))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getAllMovies_WhenCursorIsTampered_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/movies").param("limit", "2").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllMovies_WhenCursorBelongsToAnotherSortOrder_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        createMovie(TITLE_PREFIX + " Created One");
+        createMovie(TITLE_PREFIX + " Created Two");
+        String createdCursor = mockMvc.perform(get("/api/movies").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(MovieController.NEXT_CURSOR_HEADER);
+        assertNotNull(createdCursor);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/movies").param("sort", "rating").param("limit", "1").param("cursor", createdCursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createMovie_WhenDuplicateTitleSlipsPastTheCheck_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        createMovie(TITLE_PREFIX + " Duplicate");
+        // As if a concurrent create had not committed yet when the check ran
+        doReturn(false).when(movieRepository).existsByTitleIgnoreCase(anyString());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/movies")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(movieJson(TITLE_PREFIX + " DUPLICATE")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void createMovie(String title) throws Exception {
+        mockMvc.perform(post("/api/movies")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(movieJson(title)))
+                .andExpect(status().isCreated());
+    }
+
+    private static String movieJson(String title) {
+        return "{\"title\":\"" + title + "\",\"description\":\"Created by a controller test\","
+                + "\"genre\":\"Drama\",\"releaseYear\":2010,\"director\":\"Test Director\"}";
+    }
+
+    private String eTagOf(String uri) throws Exception {
+        String eTag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+}
@@ -0,0 +1,125 @@
+package com.moviefeedback.movieservice.datasource;
+
+import com.moviefeedback.datasource.ReplicaLagMonitor;
+import com.moviefeedback.datasource.ReplicaRoutingDataSource;
+import com.moviefeedback.movieservice.model.Movie;
+import com.moviefeedback.movieservice.service.MovieService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs movie-service against two embedded databases, one as the primary and one as its read
+ * replica. Nothing replicates between them, so each test writes the replica's rows and
+ * heartbeat itself to play the part of replication.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "read-replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        // Checks run only when a test asks for one
+        "read-replicas.check-interval=PT1H",
+        "rating-events.enabled=false",
+        "eureka.client.enabled=false"
+})
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    // The replica gets its schema from replication in production
+    @BeforeAll
+    static void createReplicaSchema() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "password")
+                .locations("classpath:db/migration/movie/h2")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(routingDataSource.getReplicas().get("replica-0"));
+        primary.update("DELETE FROM movies");
+        replica.update("DELETE FROM movies");
+    }
+
+    @Test
+    void readOnlyMethod_WhenReplicaIsCurrent_ShouldReadFromReplica() {
+        // Arrange
+        insertMovie(replica, "Replicated Movie");
+        replicateHeartbeat(0);
+        replicaLagMonitor.checkReplicas();
+
+        // Act
+        List<Movie> movies = movieService.getMoviesByDirector("Routing Director");
+
+        // Assert
+        assertEquals(List.of("replica-0"), routingDataSource.getAvailableReplicas());
+        assertEquals(1, movies.size());
+        assertEquals("Replicated Movie", movies.get(0).getTitle());
+    }
+
+    @Test
+    void readOnlyMethod_WhenReplicaLagsBehind_ShouldFallBackToPrimary() {
+        // Arrange
+        insertMovie(replica, "Replicated Movie");
+        replicateHeartbeat(60_000);
+        replicaLagMonitor.checkReplicas();
+
+        // Act
+        List<Movie> movies = movieService.getMoviesByDirector("Routing Director");
+
+        // Assert
+        assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+        assertTrue(movies.isEmpty());
+    }
+
+    @Test
+    void writeMethod_WhenReplicaIsCurrent_ShouldWriteToPrimary() {
+        // Arrange
+        replicateHeartbeat(0);
+        replicaLagMonitor.checkReplicas();
+        Movie movie = new Movie("Primary Movie", "Written through the service", "Drama", 2020, "Routing Director");
+
+        // Act
+        movieService.createMovie(movie);
+
+        // Assert
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM movies", Integer.class));
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM movies", Integer.class));
+    }
+
+    // Stands in for replication having caught up to lagMillis ago
+    private void replicateHeartbeat(long lagMillis) {
+        replica.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1",
+                System.currentTimeMillis() - lagMillis);
+    }
+
+    private static void insertMovie(JdbcTemplate database, String title) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        database.update("INSERT INTO movies (title, description, genre, release_year, director, created_at, "
+                + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", title, "Description", "Drama", 2020, "Routing Director", now, now);
+    }
+}
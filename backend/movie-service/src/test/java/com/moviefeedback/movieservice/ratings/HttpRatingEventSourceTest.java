@@ -0,0 +1,103 @@
+package com.moviefeedback.movieservice.ratings;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HttpRatingEventSourceTest {
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    private HttpServer first;
+    private HttpServer second;
+    private HttpRatingEventSource eventSource;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        first = feedbackInstance("log-first");
+        second = feedbackInstance("log-second");
+        eventSource = new HttpRatingEventSource(RestClient.builder(), discoveryClient,
+                "http://feedback-service", Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.stop(0);
+        second.stop(0);
+    }
+
+    @Test
+    void fetchEvents_WhenSeveralInstancesAreRegistered_ShouldKeepReadingTheSameLog() {
+        // Arrange
+        when(discoveryClient.getInstances("feedback-service")).thenReturn(List.of(instance(first), instance(second)));
+        String pinnedLog = eventSource.fetchEvents(0, 0L, 10).getLogId();
+        when(discoveryClient.getInstances("feedback-service")).thenReturn(List.of(instance(second), instance(first)));
+
+        // Act
+        List<String> logIds = List.of(eventSource.fetchEvents(0, 0L, 10).getLogId(),
+                eventSource.fetchEvents(0, 0L, 10).getLogId());
+
+        // Assert
+        assertNotNull(pinnedLog);
+        assertEquals(List.of(pinnedLog, pinnedLog), logIds);
+    }
+
+    @Test
+    void fetchEvents_WhenPinnedInstanceDeregisters_ShouldMoveToAnotherLog() {
+        // Arrange
+        when(discoveryClient.getInstances("feedback-service")).thenReturn(List.of(instance(first), instance(second)));
+        String pinnedLog = eventSource.fetchEvents(0, 0L, 10).getLogId();
+        HttpServer remaining = pinnedLog.equals("log-first") ? second : first;
+        when(discoveryClient.getInstances("feedback-service")).thenReturn(List.of(instance(remaining)));
+
+        // Act
+        RatingEventPage page = eventSource.fetchEvents(0, 0L, 10);
+
+        // Assert
+        assertNotEquals(pinnedLog, page.getLogId());
+        assertEquals(7L, page.getLastEventId());
+        assertEquals(2, page.getShardCount());
+    }
+
+    private static HttpServer feedbackInstance(String logId) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/feedback/events", exchange -> {
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add(HttpRatingEventSource.LAST_EVENT_ID_HEADER, "7");
+            exchange.getResponseHeaders().add(HttpRatingEventSource.SHARD_COUNT_HEADER, "2");
+            exchange.getResponseHeaders().add(HttpRatingEventSource.EVENT_LOG_ID_HEADER, logId);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static ServiceInstance instance(HttpServer server) {
+        return new DefaultServiceInstance("feedback-service:" + server.getAddress().getPort(), "feedback-service",
+                "localhost", server.getAddress().getPort(), false);
+    }
+}
@@ -0,0 +1,214 @@
+package com.moviefeedback.movieservice.ratings;
+
+import com.moviefeedback.movieservice.model.EventOffset;
+import com.moviefeedback.movieservice.repository.EventOffsetRepository;
+import com.moviefeedback.movieservice.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingEventConsumerTest {
+
+    @Mock
+    private RatingEventSource eventSource;
+
+    @Mock
+    private MovieService movieService;
+
+    @Mock
+    private EventOffsetRepository offsetRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RatingEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new RatingEventConsumer(eventSource, movieService, offsetRepository, transactionManager,
+                "movie-service:8081", 2);
+    }
+
+    @Test
+    void pollBatch_WhenEventsAreWaiting_ShouldApplyThemAndAdvanceOffset() {
+        // Arrange
+        EventOffset offset = new EventOffset("movie-service:8081");
+        offset.setLastEventId(10L);
+        List<RatingEvent> events = List.of(event(11L, 1L, 1), event(12L, 2L, 1));
+        when(offsetRepository.findById("movie-service:8081")).thenReturn(Optional.of(offset));
+        when(eventSource.fetchEvents(0, 10L, 2)).thenReturn(new RatingEventPage(events, 15L));
+
+        // Act
+        boolean more = consumer.pollBatch(0);
+
+        // Assert
+        assertTrue(more);
+        verify(movieService).updateRatings(events);
+        verify(offsetRepository).save(offset);
+        assertEquals(12L, offset.getLastEventId());
+    }
+
+    @Test
+    void pollBatch_WhenLogEndsBeforeOffset_ShouldResyncAndRewindOffset() {
+        // Arrange
+        EventOffset offset = new EventOffset("movie-service:8081");
+        offset.setLastEventId(500L);
+        List<RatingEvent> currentRatings = List.of(new RatingEvent(1L, 4.0, 3, 2));
+        when(offsetRepository.findById("movie-service:8081")).thenReturn(Optional.of(offset));
+        when(eventSource.fetchEvents(0, 500L, 2)).thenReturn(new RatingEventPage(List.of(), 3L));
+        when(eventSource.fetchCurrentRatings()).thenReturn(currentRatings);
+
+        // Act
+        boolean more = consumer.pollBatch(0);
+
+        // Assert
+        assertFalse(more);
+        verify(movieService).resyncRatings(currentRatings);
+        verify(movieService, never()).updateRatings(any());
+        ArgumentCaptor<EventOffset> saved = ArgumentCaptor.forClass(EventOffset.class);
+        verify(offsetRepository).save(saved.capture());
+        assertEquals(3L, saved.getValue().getLastEventId());
+    }
+
+    @Test
+    void pollBatch_WhenShardIsNotTheFirst_ShouldKeepAnOffsetOfItsOwn() {
+        // Arrange
+        List<RatingEvent> events = List.of(event(1L, 3L, 1));
+        when(offsetRepository.findById("movie-service:8081#1")).thenReturn(Optional.empty());
+        when(eventSource.fetchEvents(1, 0L, 2)).thenReturn(new RatingEventPage(events, 1L, 2));
+
+        // Act
+        boolean more = consumer.pollBatch(1);
+
+        // Assert
+        assertFalse(more);
+        verify(movieService).updateRatings(events);
+        ArgumentCaptor<EventOffset> saved = ArgumentCaptor.forClass(EventOffset.class);
+        verify(offsetRepository).save(saved.capture());
+        assertEquals("movie-service:8081#1", saved.getValue().getConsumer());
+        assertEquals(1L, saved.getValue().getLastEventId());
+    }
+
+    @Test
+    void pollBatch_WhenLogChanges_ShouldResyncOnceAndFollowTheNewLog() {
+        // Arrange
+        EventOffset offset = new EventOffset("movie-service:8081");
+        offset.setLastEventId(10L);
+        offset.setLogId("log-a");
+        List<RatingEvent> currentRatings = List.of(new RatingEvent(1L, 4.0, 3, 2));
+        List<RatingEvent> otherLogEvents = List.of(event(11L, 1L, 1), event(12L, 2L, 1));
+        List<RatingEvent> nextEvents = List.of(event(41L, 3L, 5));
+        when(offsetRepository.findById("movie-service:8081")).thenReturn(Optional.of(offset));
+        when(eventSource.fetchEvents(0, 10L, 2)).thenReturn(new RatingEventPage(otherLogEvents, 40L, 1, "log-b"));
+        when(eventSource.fetchEvents(0, 40L, 2)).thenReturn(new RatingEventPage(nextEvents, 41L, 1, "log-b"));
+        when(eventSource.fetchCurrentRatings()).thenReturn(currentRatings);
+
+        // Act
+        boolean moreAfterChange = consumer.pollBatch(0);
+        boolean moreAfterResync = consumer.pollBatch(0);
+
+        // Assert
+        assertFalse(moreAfterChange);
+        assertFalse(moreAfterResync);
+        verify(movieService, times(1)).resyncRatings(currentRatings);
+        verify(movieService, never()).updateRatings(otherLogEvents);
+        verify(movieService).updateRatings(nextEvents);
+        assertEquals(41L, offset.getLastEventId());
+        assertEquals("log-b", offset.getLogId());
+    }
+
+    @Test
+    void pollBatch_WhenOffsetHasNoLogYet_ShouldResyncAndRecordTheLog() {
+        // Arrange
+        EventOffset offset = new EventOffset("movie-service:8081");
+        offset.setLastEventId(10L);
+        when(offsetRepository.findById("movie-service:8081")).thenReturn(Optional.of(offset));
+        when(eventSource.fetchEvents(0, 10L, 2)).thenReturn(new RatingEventPage(List.of(), 10L, 1, "log-a"));
+        when(eventSource.fetchCurrentRatings()).thenReturn(List.of());
+
+        // Act
+        consumer.pollBatch(0);
+
+        // Assert
+        verify(movieService).resyncRatings(List.of());
+        verify(offsetRepository).save(offset);
+        assertEquals(10L, offset.getLastEventId());
+        assertEquals("log-a", offset.getLogId());
+    }
+
+    @Test
+    void pollBatch_WhenFirstReadingALog_ShouldApplyEventsAndRecordTheLog() {
+        // Arrange
+        List<RatingEvent> events = List.of(event(1L, 3L, 1));
+        when(offsetRepository.findById("movie-service:8081")).thenReturn(Optional.empty());
+        when(eventSource.fetchEvents(0, 0L, 2)).thenReturn(new RatingEventPage(events, 1L, 1, "log-a"));
+
+        // Act
+        consumer.pollBatch(0);
+
+        // Assert
+        verify(movieService).updateRatings(events);
+        verify(eventSource, never()).fetchCurrentRatings();
+        ArgumentCaptor<EventOffset> saved = ArgumentCaptor.forClass(EventOffset.class);
+        verify(offsetRepository).save(saved.capture());
+        assertEquals("log-a", saved.getValue().getLogId());
+    }
+
+    @Test
+    void resync_WhenFeedbackServiceIsNotRegistered_ShouldNotThrow() {
+        // Arrange
+        when(eventSource.fetchCurrentRatings())
+                .thenThrow(new IllegalStateException("No instances available for feedback-service"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> consumer.resyncOnStartup());
+        verify(movieService, never()).resyncRatings(any());
+    }
+
+    @Test
+    void poll_WhenFeedbackServiceIsNotRegistered_ShouldNotThrowOrMoveOffset() {
+        // Arrange
+        when(offsetRepository.findById("movie-service:8081")).thenReturn(Optional.empty());
+        when(eventSource.fetchEvents(0, 0L, 2))
+                .thenThrow(new IllegalStateException("No instances available for feedback-service"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> consumer.poll());
+        verify(movieService, never()).updateRatings(any());
+        verify(offsetRepository, never()).save(any());
+    }
+
+    @Test
+    void pollBatch_WhenResyncFails_ShouldKeepTheOffset() {
+        // Arrange
+        EventOffset offset = new EventOffset("movie-service:8081");
+        offset.setLastEventId(500L);
+        when(offsetRepository.findById("movie-service:8081")).thenReturn(Optional.of(offset));
+        when(eventSource.fetchEvents(0, 500L, 2)).thenReturn(new RatingEventPage(List.of(), 3L));
+        when(eventSource.fetchCurrentRatings())
+                .thenThrow(new IllegalStateException("No instances available for feedback-service"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> consumer.pollBatch(0));
+        verify(offsetRepository, never()).save(any());
+        assertEquals(500L, offset.getLastEventId());
+    }
+
+    private static RatingEvent event(Long id, Long movieId, long revision) {
+        RatingEvent event = new RatingEvent(movieId, 4.0, 1, revision);
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,187 @@
+package com.moviefeedback.movieservice.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN on the SQL Hibernate generates for each repository query and checks that H2
+ * plans it with the intended index from the Flyway migrations rather than a table scan.
+ * Substring searches (director contains, keyword search) cannot use a B-tree index and are
+ * served by the in-memory search index instead, so they are not covered here.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.moviefeedback.movieservice.repository.MovieRepositoryIndexTest$SqlRecorder")
+class MovieRepositoryIndexTest {
+
+    private static final Sort CREATED_AT_ORDER = Sort.by("createdAt", "id");
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rows.add(new Object[] {"Movie " + i, "Description " + i, i % 2 == 0 ? "Drama" : "Comedy", 1950 + i % 70,
+                    "Director " + i % 20, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO movies (title, description, genre, release_year, director, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void findByTitleIgnoreCase_ShouldUseUniqueLowerCaseTitleIndex() {
+        // Act
+        String plan = explain(() -> movieRepository.findByTitleIgnoreCase("MOVIE 7"), "MOVIE 7");
+
+        // Assert
+        assertUsesIndex(plan, "UX_MOVIES_TITLE_LOWER");
+    }
+
+    @Test
+    void existsByTitleIgnoreCase_ShouldUseUniqueLowerCaseTitleIndex() {
+        // Act
+        String plan = explain(() -> movieRepository.existsByTitleIgnoreCase("Movie 7"), "Movie 7");
+
+        // Assert
+        assertUsesIndex(plan, "UX_MOVIES_TITLE_LOWER");
+    }
+
+    @Test
+    void findByGenreIgnoreCase_ShouldUseGenreIndex() {
+        // Act
+        String listPlan = explain(() -> movieRepository.findByGenreIgnoreCase("DRAMA"), "DRAMA");
+        String pagePlan = explain(() -> movieRepository.findByGenreIgnoreCase("DRAMA", ScrollPosition.keyset(),
+                CREATED_AT_ORDER, Limit.of(10)), "drama", 11);
+
+        // Assert
+        assertUsesIndex(listPlan, "IDX_MOVIES_GENRE_LOWER_CREATED");
+        assertUsesIndex(pagePlan, "IDX_MOVIES_GENRE_LOWER_CREATED");
+    }
+
+    @Test
+    void findByReleaseYear_ShouldUseReleaseYearIndex() {
+        // Act
+        String listPlan = explain(() -> movieRepository.findByReleaseYear(1999), 1999);
+        String pagePlan = explain(() -> movieRepository.findByReleaseYear(1999, ScrollPosition.keyset(),
+                CREATED_AT_ORDER, Limit.of(10)), 1999, 11);
+
+        // Assert: neither ORDER BY starts with release_year, so H2 takes the narrowest index led by it
+        assertUsesIndex(listPlan, "IDX_MOVIES_RELEASE_YEAR_DESC");
+        assertUsesIndex(pagePlan, "IDX_MOVIES_RELEASE_YEAR_DESC");
+    }
+
+    @Test
+    void findBy_ShouldReadPagesInCreatedAtIndexOrder() {
+        // Act
+        String plan = explain(() -> movieRepository.findBy(ScrollPosition.keyset(), CREATED_AT_ORDER, Limit.of(10)), 11);
+
+        // Assert
+        assertUsesIndex(plan, "IDX_MOVIES_CREATED");
+    }
+
+    @Test
+    void findTopRated_ShouldReadAverageRatingIndexFromTheTop() {
+        // Act
+        String plan = explain(() -> movieRepository.findTopRated(3.5, 1, Limit.of(10)), 3.5, 1, 10);
+
+        // Assert
+        assertUsesIndex(plan, "IDX_MOVIES_AVERAGE_RATING");
+    }
+
+    @Test
+    void findByQuery_ShouldReadEachFilterAndSortCombinationInIndexOrder() {
+        // Arrange
+        MovieQuery byGenre = query("Drama", null, MovieQuery.SortKey.RATING);
+        MovieQuery byYear = query(null, 1999, MovieQuery.SortKey.RATING);
+        MovieQuery byGenreAndYear = query("Drama", 1999, MovieQuery.SortKey.CREATED);
+        MovieQuery byGenreSortedByYear = query("Drama", null, MovieQuery.SortKey.YEAR);
+
+        // Act
+        String genrePlan = explain(() -> movieRepository.findBy(byGenre, ScrollPosition.keyset(), Limit.of(10)),
+                "drama", 11);
+        String yearPlan = explain(() -> movieRepository.findBy(byYear, ScrollPosition.keyset(), Limit.of(10)),
+                1999, 11);
+        String genreAndYearPlan = explain(() -> movieRepository.findBy(byGenreAndYear, ScrollPosition.keyset(),
+                Limit.of(10)), "drama", 1999, 11);
+        String yearOrderPlan = explain(() -> movieRepository.findBy(byGenreSortedByYear, ScrollPosition.keyset(),
+                Limit.of(10)), "drama", 11);
+
+        // Assert
+        assertReadsIndexInOrder(genrePlan, "IDX_MOVIES_GENRE_LOWER_RATING");
+        assertReadsIndexInOrder(yearPlan, "IDX_MOVIES_RELEASE_YEAR_RATING");
+        assertReadsIndexInOrder(genreAndYearPlan, "IDX_MOVIES_GENRE_LOWER_YEAR_CREATED");
+        assertReadsIndexInOrder(yearOrderPlan, "IDX_MOVIES_GENRE_LOWER_YEAR_DESC");
+    }
+
+    @Test
+    void findByQuery_WhenScrollingPastFirstPage_ShouldStayInIndexOrder() {
+        // Arrange
+        MovieQuery byGenre = query("Drama", null, MovieQuery.SortKey.RATING);
+        KeysetScrollPosition after = ScrollPosition.forward(Map.of("averageRating", 3.0, "id", 100L));
+
+        // Act
+        String plan = explain(() -> movieRepository.findBy(byGenre, after, Limit.of(10)),
+                "drama", 3.0, 3.0, 100L, 11);
+
+        // Assert
+        assertReadsIndexInOrder(plan, "IDX_MOVIES_GENRE_LOWER_RATING");
+    }
+
+    private static MovieQuery query(String genre, Integer year, MovieQuery.SortKey sortKey) {
+        MovieQuery query = new MovieQuery();
+        query.setGenre(genre);
+        query.setReleaseYear(year);
+        query.setSortKey(sortKey);
+        return query;
+    }
+
+    // A page is only a bounded read when the database can take rows in index order and stop at the limit
+    private static void assertReadsIndexInOrder(String plan, String indexName) {
+        assertUsesIndex(plan, indexName);
+        assertTrue(plan.contains("index sorted"), () -> "Expected rows in index order in plan:\n" + plan);
+    }
+
+    private String explain(Runnable query, Object... parameters) {
+        SqlRecorder.STATEMENTS.clear();
+        query.run();
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), "Expected exactly one statement");
+        return jdbcTemplate.queryForObject("EXPLAIN " + SqlRecorder.STATEMENTS.get(0), String.class, parameters);
+    }
+
+    private static void assertUsesIndex(String plan, String indexName) {
+        assertTrue(plan.contains(indexName), () -> "Expected " + indexName + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), () -> "Unexpected table scan in plan:\n" + plan);
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
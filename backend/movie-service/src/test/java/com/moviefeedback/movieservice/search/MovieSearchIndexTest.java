@@ -0,0 +1,113 @@
+package com.moviefeedback.movieservice.search;
+
+import com.moviefeedback.movieservice.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieSearchIndexTest {
+
+    private MovieSearchIndex movieSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        movieSearchIndex = new MovieSearchIndex(200);
+        movieSearchIndex.rebuild(sink -> {
+            sink.accept(movie(1L, "The Matrix", "A hacker learns the truth about reality", "Lana Wachowski"));
+            sink.accept(movie(2L, "Inception", "A thief enters dreams to plant an idea", "Christopher Nolan"));
+            sink.accept(movie(3L, "Interstellar", "Explorers travel through a wormhole", "Christopher Nolan"));
+            sink.accept(movie(4L, "Memento", "A man pieces together a matrix of clues", "Christopher Nolan"));
+        });
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveDescriptionMatches() {
+        // Act
+        List<Long> results = movieSearchIndex.search("matrix");
+
+        // Assert
+        assertEquals(List.of(1L, 4L), results);
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesAndSubstrings() {
+        // Act & Assert
+        assertEquals(List.of(3L), movieSearchIndex.search("inter"));
+        assertEquals(List.of(3L), movieSearchIndex.search("stellar"));
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        // Act
+        List<Long> results = movieSearchIndex.search("Incepton");
+
+        // Assert
+        assertEquals(List.of(2L), results);
+    }
+
+    @Test
+    void search_ShouldRequireEveryKeywordToMatch() {
+        // Act & Assert
+        assertEquals(List.of(2L, 3L, 4L), movieSearchIndex.search("christopher nolan"));
+        assertEquals(List.of(2L), movieSearchIndex.search("nolan dreams"));
+        assertTrue(movieSearchIndex.search("nolan hacker").isEmpty());
+    }
+
+    @Test
+    void index_ShouldReplacePreviousTermsOfUpdatedMovie() {
+        // Act
+        movieSearchIndex.index(movie(1L, "The Green Mile", "A guard on death row", "Frank Darabont"));
+
+        // Assert
+        assertEquals(List.of(4L), movieSearchIndex.search("matrix"));
+        assertEquals(List.of(1L), movieSearchIndex.search("darabont"));
+    }
+
+    @Test
+    void remove_ShouldDropMovieFromResults() {
+        // Act
+        movieSearchIndex.remove(2L);
+
+        // Assert
+        assertTrue(movieSearchIndex.search("inception").isEmpty());
+        assertEquals(List.of(3L, 4L), movieSearchIndex.search("nolan"));
+    }
+
+    @Test
+    void canServe_ShouldRejectKeywordsWithoutTerms() {
+        // Act & Assert
+        assertTrue(movieSearchIndex.canServe("nolan"));
+        assertFalse(movieSearchIndex.canServe("  ?! "));
+        assertFalse(new MovieSearchIndex(200).canServe("nolan"));
+    }
+
+    @Test
+    void canServe_ShouldLeaveShortTermsToTheDatabase() {
+        // Act & Assert
+        assertFalse(movieSearchIndex.canServe("ar"));
+        assertFalse(movieSearchIndex.canServe("nolan a"));
+        assertTrue(movieSearchIndex.canServe("nolan the"));
+    }
+
+    @Test
+    void rebuild_WhenSourceFails_ShouldKeepTheIndexAndStopJournalling() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> movieSearchIndex.rebuild(sink -> {
+            sink.accept(movie(5L, "Dunkirk", "Soldiers wait on a beach", "Christopher Nolan"));
+            throw new IllegalStateException("database unavailable");
+        }));
+
+        // Assert
+        assertFalse(movieSearchIndex.isRebuilding());
+        assertEquals(List.of(2L, 3L, 4L), movieSearchIndex.search("nolan"));
+    }
+
+    private static Movie movie(Long id, String title, String description, String director) {
+        Movie movie = new Movie(title, description, "Drama", 2000, director);
+        movie.setId(id);
+        return movie;
+    }
+}
@@ -1,13 +1,21 @@
 package com.moviefeedback.movieservice.service;
 
 import com.moviefeedback.movieservice.model.Movie;
+import com.moviefeedback.movieservice.ratings.RatingEvent;
 import com.moviefeedback.movieservice.repository.MovieRepository;
+import com.moviefeedback.movieservice.search.MovieSearchIndex;
+import com.moviefeedback.movieservice.stats.MovieStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -15,6 +23,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +32,21 @@ class MovieServiceTest {
     @Mock
     private MovieRepository movieRepository;
 
+    @Mock
+    private MovieSearchIndex movieSearchIndex;
+
+    @Mock
+    private MovieStatistics movieStatistics;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private CollectionVersions collectionVersions;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private MovieService movieService;
 
@@ -93,6 +117,7 @@ class MovieServiceTest {
         assertEquals(testMovie, createdMovie);
         verify(movieRepository).existsByTitleIgnoreCase("Test Movie");
         verify(movieRepository).save(testMovie);
+        verify(movieSearchIndex).index(testMovie);
     }
 
     @Test
@@ -108,6 +133,8 @@ class MovieServiceTest {
         assertEquals("Movie with title 'Test Movie' already exists", exception.getMessage());
         verify(movieRepository).existsByTitleIgnoreCase("Test Movie");
         verify(movieRepository, never()).save(any(Movie.class));
+        assertEquals(1.0, meterRegistry.get(MovieService.REJECTED_METRIC)
+                .tags("operation", "createMovie", "reason", "duplicate_title").counter().count());
     }
 
     @Test
@@ -134,6 +161,30 @@ class MovieServiceTest {
         verify(movieRepository).save(any(Movie.class));
     }
 
+    @Test
+    void updateMovie_WhenGenreAndYearChange_ShouldEvictOldAndNewListEntries() {
+        // Arrange
+        Movie updatedMovie = new Movie("Test Movie", "A test movie description", "Drama", 2024, "Test Director");
+        Cache cache = mock(Cache.class);
+
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(testMovie));
+        when(movieRepository.save(any(Movie.class))).thenReturn(testMovie);
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+
+        // Act
+        movieService.updateMovie(1L, updatedMovie);
+
+        // Assert
+        verify(cache).evict(1L);
+        verify(cache).evict("all");
+        verify(cache).evict("action");
+        verify(cache).evict("drama");
+        verify(cache).evict(2023);
+        verify(cache).evict(2024);
+        verify(cacheManager, times(2)).getCache(MovieService.GENRE_CACHE);
+        verify(collectionVersions).increment(CollectionVersions.MOVIES);
+    }
+
     @Test
     void updateMovie_WhenMovieDoesNotExist_ShouldThrowException() {
         // Arrange
@@ -160,6 +211,7 @@ class MovieServiceTest {
         // Assert
         verify(movieRepository).existsById(1L);
         verify(movieRepository).deleteById(1L);
+        verify(movieSearchIndex).remove(1L);
     }
 
     @Test
@@ -191,6 +243,23 @@ class MovieServiceTest {
         verify(movieRepository).searchMovies("test");
     }
 
+    @Test
+    void searchMovies_WhenIndexIsReady_ShouldReturnMoviesInRankedOrder() {
+        // Arrange
+        Movie otherMovie = new Movie("Other Test", "Another description", "Drama", 2020, "Someone");
+        otherMovie.setId(2L);
+        when(movieSearchIndex.canServe("test")).thenReturn(true);
+        when(movieSearchIndex.search("test")).thenReturn(Arrays.asList(2L, 1L));
+        when(movieRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(testMovie, otherMovie));
+
+        // Act
+        List<Movie> actualMovies = movieService.searchMovies("test");
+
+        // Assert
+        assertEquals(Arrays.asList(otherMovie, testMovie), actualMovies);
+        verify(movieRepository, never()).searchMovies(any());
+    }
+
     @Test
     void getMoviesByGenre_ShouldReturnMoviesByGenre() {
         // Arrange
@@ -232,4 +301,23 @@ class MovieServiceTest {
         assertEquals(expectedMovies, actualMovies);
         verify(movieRepository).findByDirectorIgnoreCaseContaining("Test");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void updateRatings_ShouldStoreNewestFiguresPerMovieAndEvictItsCaches() {
+        // Arrange
+        Cache cache = mock(Cache.class);
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+        when(movieRepository.findAllById(any())).thenReturn(List.of(testMovie));
+
+        // Act
+        movieService.updateRatings(List.of(new RatingEvent(1L, 4.0, 1, 1), new RatingEvent(1L, 3.0, 2, 2)));
+
+        // Assert
+        verify(movieRepository).updateRatingsIfNewer(1L, 3.0, 2, 2);
+        verify(movieRepository, never()).updateRatingsIfNewer(1L, 4.0, 1, 1);
+        verify(cache).evict(1L);
+        verify(cache).evict("action");
+        verify(cache).evict(2023);
+        verify(collectionVersions).increment(CollectionVersions.MOVIES);
+    }
+}
@@ -0,0 +1,127 @@
+package com.moviefeedback.movieservice.stats;
+
+import com.moviefeedback.movieservice.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieStatisticsTest {
+
+    private MovieStatistics movieStatistics;
+
+    @BeforeEach
+    void setUp() {
+        movieStatistics = new MovieStatistics(2, 1);
+        movieStatistics.rebuild(sink -> {
+            sink.accept(movie(1L, "Action", 4.0, 10, 1));
+            sink.accept(movie(2L, "Action", 2.0, 30, 1));
+            sink.accept(movie(3L, "Drama", 5.0, 2, 1));
+            sink.accept(movie(4L, "Drama", 0.0, 0, 0));
+        });
+    }
+
+    @Test
+    void getStats_ShouldWeighGenreAveragesByFeedbackCount() {
+        // Act
+        CatalogStats stats = movieStatistics.getStats();
+
+        // Assert
+        assertEquals(4, stats.getTotalMovies());
+        assertEquals(3, stats.getRatedMovies());
+        assertEquals(42, stats.getFeedbackCount());
+        assertEquals((40.0 + 60.0 + 10.0) / 42, stats.getAverageRating(), 1e-9);
+        GenreStats action = stats.getGenres().get(0);
+        assertEquals("Action", action.getGenre());
+        assertEquals(2.5, action.getAverageRating(), 1e-9);
+        GenreStats drama = stats.getGenres().get(1);
+        assertEquals(2, drama.getMovies());
+        assertEquals(1, drama.getRatedMovies());
+        assertEquals(List.of(3L, 1L), ids(stats.getTopRated()));
+        assertEquals(List.of(2L, 1L), ids(stats.getMostRated()));
+    }
+
+    @Test
+    void recordRatings_ShouldOnlyApplyNewerRevisionsUnlessOverwriting() {
+        // Act
+        movieStatistics.recordRatings(4L, 4.5, 50, 2, false);
+        movieStatistics.recordRatings(4L, 1.0, 1, 1, false);
+        movieStatistics.recordRatings(3L, 1.0, 1, 0, true);
+
+        // Assert
+        CatalogStats stats = movieStatistics.getStats();
+        assertEquals(List.of(4L, 1L), ids(stats.getTopRated()));
+        assertEquals(List.of(4L, 2L), ids(stats.getMostRated()));
+        assertEquals((4.5 * 50 + 1.0) / 51, stats.getGenres().get(1).getAverageRating(), 1e-9);
+    }
+
+    @Test
+    void recordRatings_WhenTopMovieDropsBelowOneOutsideTheHeap_ShouldRankTheOutsiderAbove() {
+        // Act: movie 1 falls from second place behind movie 2, which was not in the top two
+        movieStatistics.recordRatings(1L, 1.0, 10, 2, false);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), ids(movieStatistics.getStats().getTopRated()));
+    }
+
+    @Test
+    void remove_ShouldTakeTheMovieOutOfItsGenreAndTheTopLists() {
+        // Act
+        movieStatistics.remove(2L);
+
+        // Assert
+        CatalogStats stats = movieStatistics.getStats();
+        assertEquals(3, stats.getTotalMovies());
+        assertEquals(4.0, stats.getGenres().get(0).getAverageRating(), 1e-9);
+        assertEquals(List.of(1L, 3L), ids(stats.getMostRated()));
+    }
+
+    @Test
+    void put_WhenGenreChanges_ShouldMoveTheMovieAndKeepNewerRatings() {
+        // Arrange
+        movieStatistics.recordRatings(3L, 3.0, 4, 2, false);
+
+        // Act: the entity still carries the figures of revision 1
+        movieStatistics.put(movie(3L, "Comedy", 5.0, 2, 1));
+
+        // Assert
+        CatalogStats stats = movieStatistics.getStats();
+        assertEquals(List.of("Action", "Comedy", "Drama"), stats.getGenres().stream().map(GenreStats::getGenre).toList());
+        assertEquals(3.0, stats.getGenres().get(1).getAverageRating(), 1e-9);
+        assertEquals(4, stats.getGenres().get(1).getFeedbackCount());
+    }
+
+    private static List<Long> ids(List<MovieFigures> movies) {
+        return movies.stream().map(MovieFigures::getMovieId).toList();
+    }
+
+    @Test
+    void rebuild_WhenSourceFails_ShouldKeepTheStatisticsAndStopJournalling() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> movieStatistics.rebuild(sink -> {
+            sink.accept(movie(5L, "Comedy", 3.0, 1, 1));
+            throw new IllegalStateException("Database unavailable");
+        }));
+        movieStatistics.put(movie(6L, "Comedy", 4.0, 1, 1));
+
+        // Assert
+        assertFalse(movieStatistics.isRebuilding());
+        CatalogStats stats = movieStatistics.getStats();
+        assertEquals(5, stats.getTotalMovies());
+        assertEquals(1, stats.getGenres().stream().filter(genre -> genre.getGenre().equals("Comedy"))
+                .findFirst().orElseThrow().getMovies());
+    }
+
+    private static Movie movie(Long id, String genre, double averageRating, long feedbackCount, long revision) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Movie " + id);
+        movie.setGenre(genre);
+        movie.setAverageRating(averageRating);
+        movie.setFeedbackCount(feedbackCount);
+        movie.setRatingRevision(revision);
+        return movie;
+    }
+}
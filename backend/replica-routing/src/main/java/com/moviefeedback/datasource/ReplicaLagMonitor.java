@@ -0,0 +1,96 @@
+package com.moviefeedback.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how far each read replica is behind the primary and tells the routing data source
+ * which replicas may serve reads. Every check writes the current time into the primary's
+ * replica_heartbeat row and reads the row back from each replica; the difference is the lag,
+ * rounded up to the check interval. A replica that is further behind than maxLag, or that
+ * cannot be queried, gets no reads until a later check finds it caught up.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String LAG_METRIC = "datasource.replica.lag";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, Double> lagMillis = new ConcurrentHashMap<>();
+    private final Duration maxLag;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, Duration maxLag, Duration queryTimeout,
+                             MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.primary = jdbcTemplate(routingDataSource.getPrimary(), queryTimeout);
+        this.maxLag = maxLag;
+        routingDataSource.getReplicas().forEach((name, dataSource) -> {
+            replicas.put(name, jdbcTemplate(dataSource, queryTimeout));
+            // NaN while the replica cannot be queried
+            lagMillis.put(name, Double.NaN);
+            Gauge.builder(LAG_METRIC, lagMillis, lags -> lags.get(name))
+                    .description("Time a read replica is behind the primary, in milliseconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    private static JdbcTemplate jdbcTemplate(DataSource dataSource, Duration queryTimeout) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+        return jdbcTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${read-replicas.check-interval:PT1S}")
+    public void checkReplicas() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", now);
+        } catch (DataAccessException e) {
+            // Without a fresh heartbeat every replica would look further behind on each check
+            logger.warn("Could not write the replica heartbeat: {}", e.getMessage());
+            return;
+        }
+
+        List<String> available = new ArrayList<>();
+        replicas.forEach((name, replica) -> {
+            Double lag = measureLag(name, replica, now);
+            lagMillis.put(name, lag == null ? Double.NaN : lag);
+            if (lag != null && lag <= maxLag.toMillis()) {
+                available.add(name);
+            }
+        });
+
+        List<String> previous = routingDataSource.getAvailableReplicas();
+        if (!previous.equals(available)) {
+            logger.info("Read replicas available: {} (was {})", available, previous);
+        }
+        routingDataSource.setAvailableReplicas(available);
+    }
+
+    private Double measureLag(String name, JdbcTemplate replica, long now) {
+        try {
+            Long beat = replica.queryForObject("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+            return beat == null ? null : (double) Math.max(0, now - beat);
+        } catch (DataAccessException e) {
+            logger.debug("Could not read the heartbeat of replica {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.moviefeedback.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with one that routes read-only transactions to the
+ * replicas listed in read-replicas.urls. Without replicas the auto-configured pool is kept and
+ * every query goes to the primary. The replicas are expected to receive the primary's schema
+ * and data, including the replica_heartbeat table, through the database's own replication;
+ * Flyway only migrates the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "read-replicas.urls")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${read-replicas.urls}") List<String> urls,
+                                                             @Value("${read-replicas.username:${spring.datasource.username:}}") String username,
+                                                             @Value("${read-replicas.password:${spring.datasource.password:}}") String password,
+                                                             @Value("${read-replicas.pool-size:10}") int poolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // Same pool settings as the auto-configured data source would have had
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // The primary's pool is metered by the Hikari metrics auto-configuration
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${read-replicas.max-lag:PT5S}") Duration maxLag,
+                                               @Value("${read-replicas.check-timeout:PT1S}") Duration checkTimeout) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, maxLag, checkTimeout, meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.moviefeedback.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections taken inside read-only transactions to the read replicas, in turn, and all
+ * others to the primary. Only replicas marked available by {@link ReplicaLagMonitor} are used;
+ * with none available, read-only transactions fall back to the primary.
+ *
+ * <p>The routing decision is made when the connection is taken, so the data source has to be
+ * wrapped in a LazyConnectionDataSourceProxy: transaction managers take the connection before
+ * they publish the transaction's read-only flag.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> available = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this.replicas = Map.copyOf(replicas);
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        // An unknown key must never silently end up on the primary or another replica
+        setLenientFallback(false);
+    }
+
+    public DataSource getPrimary() {
+        return getResolvedDefaultDataSource();
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public List<String> getAvailableReplicas() {
+        return available;
+    }
+
+    void setAvailableReplicas(List<String> names) {
+        available = List.copyOf(names);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        List<String> candidates = available;
+        if (candidates.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    // Closes the primary's and the replicas' pools with the application context
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -3,11 +3,14 @@ import { Link } from 'react-router-dom';
 import { Card, Row, Col, Button, Table, Badge, Spinner } from 'react-bootstrap';
 import { toast } from 'react-toastify';
 import { FaPlus, FaEdit, FaTrash, FaStar } from 'react-icons/fa';
-import { movieAPI, feedbackAPI } from '../services/api';
+import { movieAPI, feedbackAPI, compositeAPI } from '../services/api';
 
 const AdminDashboard = () => {
   const [movies, setMovies] = useState([]);
   const [feedback, setFeedback] = useState([]);
+  const [genreRatings, setGenreRatings] = useState([]);
+  const [topRated, setTopRated] = useState([]);
+  const [mostRated, setMostRated] = useState([]);
   const [loading, setLoading] = useState(true);
   const [stats, setStats] = useState({
     totalMovies: 0,
@@ -23,26 +26,23 @@ const AdminDashboard = () => {
     try {
       setLoading(true);
       
-      // Load movies and feedback in parallel
-      const [moviesResponse, feedbackResponse] = await Promise.all([
+      // The figures are computed by the services; only the management table needs every movie
+      const [moviesResponse, dashboardResponse] = await Promise.all([
         movieAPI.getAll(),
-        feedbackAPI.getAll()
+        compositeAPI.getDashboard()
       ]);
+      const dashboard = dashboardResponse.data;
       
       setMovies(moviesResponse.data);
-      setFeedback(feedbackResponse.data);
-      
-      // Calculate stats
-      const totalMovies = moviesResponse.data.length;
-      const totalFeedback = feedbackResponse.data.length;
-      const averageRating = totalFeedback > 0 
-        ? feedbackResponse.data.reduce((sum, f) => sum + f.rating, 0) / totalFeedback 
-        : 0;
+      setFeedback(dashboard.recentFeedback || []);
+      setGenreRatings((dashboard.genres || []).filter((genre) => genre.feedbackCount > 0));
+      setTopRated(dashboard.topRated || []);
+      setMostRated(dashboard.mostRated || []);
       
       setStats({
-        totalMovies,
-        totalFeedback,
-        averageRating: Math.round(averageRating * 10) / 10
+        totalMovies: dashboard.totalMovies ?? moviesResponse.data.length,
+        totalFeedback: dashboard.totalFeedback ?? 0,
+        averageRating: Math.round((dashboard.averageRating || 0) * 10) / 10
       });
       
     } catch (error) {
@@ -148,6 +148,73 @@ const AdminDashboard = () => {
         </Col>
       </Row>
 
+      {/* Ratings by Genre */}
+      {genreRatings.length > 0 && (
+        <Card className="mb-4">
+          <Card.Header>
+            <h5>📊 Ratings by Genre</h5>
+          </Card.Header>
+          <Card.Body>
+            <Table responsive striped>
+              <thead>
+                <tr>
+                  <th>Genre</th>
+                  <th>Ratings</th>
+                  <th>Average</th>
+                </tr>
+              </thead>
+              <tbody>
+                {genreRatings.map((genre) => (
+                  <tr key={genre.genre}>
+                    <td>
+                      <Badge bg="secondary">{genre.genre}</Badge>
+                    </td>
+                    <td>{genre.feedbackCount}</td>
+                    <td>
+                      {renderStars(Math.round(genre.averageRating))}
+                      <span className="text-muted ms-2">({genre.averageRating.toFixed(1)}/5.0)</span>
+                    </td>
+                  </tr>
+                ))}
+              </tbody>
+            </Table>
+          </Card.Body>
+        </Card>
+      )}
+
+      {/* Top Movies */}
+      {(topRated.length > 0 || mostRated.length > 0) && (
+        <Row className="mb-4">
+          {[['🏆 Top Rated', topRated], ['🔥 Most Rated', mostRated]].map(([title, list]) => (
+            <Col md={6} key={title}>
+              <Card>
+                <Card.Header>
+                  <h5>{title}</h5>
+                </Card.Header>
+                <Card.Body>
+                  <Table responsive striped size="sm">
+                    <tbody>
+                      {list.map((movie) => (
+                        <tr key={movie.movieId}>
+                          <td>
+                            <strong>{movie.title}</strong>
+                          </td>
+                          <td>
+                            {renderStars(Math.round(movie.averageRating))}
+                            <span className="text-muted ms-2">({movie.averageRating.toFixed(1)})</span>
+                          </td>
+                          <td>{movie.feedbackCount} ratings</td>
+                        </tr>
+                      ))}
+                    </tbody>
+                  </Table>
+                </Card.Body>
+              </Card>
+            </Col>
+          ))}
+        </Row>
+      )}
+
       {/* Movies Table */}
       <Card className="mb-4">
         <Card.Header>
@@ -221,7 +288,7 @@ const AdminDashboard = () => {
                 </tr>
               </thead>
               <tbody>
-                {feedback.slice(0, 10).map((item) => (
+                {feedback.map((item) => (
                   <tr key={item.id}>
                     <td>
                       <strong>{item.visitorName}</strong>
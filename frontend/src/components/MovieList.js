@@ -3,37 +3,46 @@ import { Card, Row, Col, Form, Button, Badge, Spinner } from 'react-bootstrap';
 import { Link } from 'react-router-dom';
 import { toast } from 'react-toastify';
 import { FaStar, FaSearch, FaPlus } from 'react-icons/fa';
-import { movieAPI, feedbackAPI } from '../services/api';
+import { movieAPI } from '../services/api';
+
+const PAGE_SIZE = 30;
 
 const MovieList = () => {
   const [movies, setMovies] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const [filterGenre, setFilterGenre] = useState('');
   const [filterYear, setFilterYear] = useState('');
-  const [averageRatings, setAverageRatings] = useState({});
+  const [minRating, setMinRating] = useState('');
+  const [sort, setSort] = useState('created');
 
   useEffect(() => {
     loadMovies();
   }, []);
 
-  const loadMovies = async () => {
+  // All filters go to the server as one query, so each page is read from a single index
+  const queryParams = (filters) => {
+    const params = { sort: filters.sort, limit: PAGE_SIZE };
+    if (filters.genre.trim()) {
+      params.genre = filters.genre.trim();
+    }
+    if (filters.year.trim()) {
+      params.year = parseInt(filters.year);
+    }
+    if (filters.minRating) {
+      params.minRating = parseFloat(filters.minRating);
+    }
+    return params;
+  };
+
+  const loadMovies = async (filters = { genre: filterGenre, year: filterYear, minRating, sort }) => {
     try {
       setLoading(true);
-      const response = await movieAPI.getAll();
+      const response = await movieAPI.query(queryParams(filters));
       setMovies(response.data);
-      
-      // Load average ratings for each movie
-      const ratings = {};
-      for (const movie of response.data) {
-        try {
-          const ratingResponse = await feedbackAPI.getAverageRatingByMovieId(movie.id);
-          ratings[movie.id] = ratingResponse.data;
-        } catch (error) {
-          ratings[movie.id] = 0;
-        }
-      }
-      setAverageRatings(ratings);
+      setNextCursor(response.headers['x-next-cursor'] || null);
     } catch (error) {
       toast.error('Failed to load movies');
       console.error('Error loading movies:', error);
@@ -42,58 +51,47 @@ const MovieList = () => {
     }
   };
 
-  const handleSearch = async () => {
-    if (!searchTerm.trim()) {
-      loadMovies();
-      return;
-    }
-
+  const loadMore = async () => {
     try {
-      setLoading(true);
-      const response = await movieAPI.search(searchTerm);
-      setMovies(response.data);
+      setLoadingMore(true);
+      const params = queryParams({ genre: filterGenre, year: filterYear, minRating, sort });
+      const response = await movieAPI.query({ ...params, cursor: nextCursor });
+      setMovies((loaded) => [...loaded, ...response.data]);
+      setNextCursor(response.headers['x-next-cursor'] || null);
     } catch (error) {
-      toast.error('Search failed');
-      console.error('Error searching movies:', error);
+      toast.error('Failed to load more movies');
+      console.error('Error loading more movies:', error);
     } finally {
-      setLoading(false);
+      setLoadingMore(false);
     }
   };
 
-  const handleFilterByGenre = async () => {
-    if (!filterGenre.trim()) {
+  const handleSearch = async () => {
+    if (!searchTerm.trim()) {
       loadMovies();
       return;
     }
 
     try {
       setLoading(true);
-      const response = await movieAPI.getByGenre(filterGenre);
+      const response = await movieAPI.search(searchTerm);
       setMovies(response.data);
+      setNextCursor(null);
     } catch (error) {
-      toast.error('Filter failed');
-      console.error('Error filtering movies:', error);
+      toast.error('Search failed');
+      console.error('Error searching movies:', error);
     } finally {
       setLoading(false);
     }
   };
 
-  const handleFilterByYear = async () => {
-    if (!filterYear.trim()) {
-      loadMovies();
-      return;
-    }
-
-    try {
-      setLoading(true);
-      const response = await movieAPI.getByYear(parseInt(filterYear));
-      setMovies(response.data);
-    } catch (error) {
-      toast.error('Filter failed');
-      console.error('Error filtering movies:', error);
-    } finally {
-      setLoading(false);
-    }
+  const clearFilters = () => {
+    setSearchTerm('');
+    setFilterGenre('');
+    setFilterYear('');
+    setMinRating('');
+    setSort('created');
+    loadMovies({ genre: '', year: '', minRating: '', sort: 'created' });
   };
 
   const renderStars = (rating) => {
@@ -152,42 +150,56 @@ const MovieList = () => {
                 </div>
               </Form.Group>
             </Col>
-            <Col md={4}>
+            <Col md={2}>
               <Form.Group className="mb-3">
-                <Form.Label>Filter by Genre</Form.Label>
-                <div className="d-flex">
-                  <Form.Control
-                    type="text"
-                    placeholder="Enter genre..."
-                    value={filterGenre}
-                    onChange={(e) => setFilterGenre(e.target.value)}
-                    onKeyPress={(e) => e.key === 'Enter' && handleFilterByGenre()}
-                  />
-                  <Button variant="outline-secondary" onClick={handleFilterByGenre}>
-                    Filter
-                  </Button>
-                </div>
+                <Form.Label>Genre</Form.Label>
+                <Form.Control
+                  type="text"
+                  placeholder="Any genre"
+                  value={filterGenre}
+                  onChange={(e) => setFilterGenre(e.target.value)}
+                  onKeyPress={(e) => e.key === 'Enter' && loadMovies()}
+                />
               </Form.Group>
             </Col>
-            <Col md={4}>
+            <Col md={2}>
               <Form.Group className="mb-3">
-                <Form.Label>Filter by Year</Form.Label>
-                <div className="d-flex">
-                  <Form.Control
-                    type="number"
-                    placeholder="Enter year..."
-                    value={filterYear}
-                    onChange={(e) => setFilterYear(e.target.value)}
-                    onKeyPress={(e) => e.key === 'Enter' && handleFilterByYear()}
-                  />
-                  <Button variant="outline-secondary" onClick={handleFilterByYear}>
-                    Filter
-                  </Button>
-                </div>
+                <Form.Label>Year</Form.Label>
+                <Form.Control
+                  type="number"
+                  placeholder="Any year"
+                  value={filterYear}
+                  onChange={(e) => setFilterYear(e.target.value)}
+                  onKeyPress={(e) => e.key === 'Enter' && loadMovies()}
+                />
+              </Form.Group>
+            </Col>
+            <Col md={2}>
+              <Form.Group className="mb-3">
+                <Form.Label>Minimum Rating</Form.Label>
+                <Form.Select value={minRating} onChange={(e) => setMinRating(e.target.value)}>
+                  <option value="">Any</option>
+                  {[1, 2, 3, 4].map((rating) => (
+                    <option key={rating} value={rating}>{rating}+ stars</option>
+                  ))}
+                </Form.Select>
+              </Form.Group>
+            </Col>
+            <Col md={2}>
+              <Form.Group className="mb-3">
+                <Form.Label>Sort By</Form.Label>
+                <Form.Select value={sort} onChange={(e) => setSort(e.target.value)}>
+                  <option value="created">Recently added</option>
+                  <option value="rating">Highest rated</option>
+                  <option value="year">Newest release</option>
+                </Form.Select>
               </Form.Group>
             </Col>
           </Row>
-          <Button variant="outline-primary" onClick={loadMovies}>
+          <Button variant="primary" className="me-2" onClick={() => loadMovies()}>
+            Apply Filters
+          </Button>
+          <Button variant="outline-primary" onClick={clearFilters}>
             Clear Filters
           </Button>
         </Card.Body>
@@ -211,9 +223,9 @@ const MovieList = () => {
                 <div className="mb-3">
                   <strong>Average Rating:</strong>
                   <div className="mt-1">
-                    {renderStars(Math.round(averageRatings[movie.id] || 0))}
+                    {renderStars(Math.round(movie.averageRating || 0))}
                     <span className="ms-2">
-                      ({averageRatings[movie.id]?.toFixed(1) || '0.0'}/5.0)
+                      ({movie.averageRating?.toFixed(1) || '0.0'}/5.0)
                     </span>
                   </div>
                 </div>
@@ -236,6 +248,14 @@ const MovieList = () => {
         ))}
       </Row>
 
+      {nextCursor && (
+        <div className="text-center mb-4">
+          <Button variant="outline-secondary" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </Button>
+        </div>
+      )}
+
       {movies.length === 0 && (
         <div className="text-center mt-5">
           <h4>No movies found</h4>
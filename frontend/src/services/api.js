@@ -20,6 +20,11 @@ export const movieAPI = {
   getByGenre: (genre) => api.get(`/api/movies/genre/${genre}`),
   getByYear: (year) => api.get(`/api/movies/year/${year}`),
   getByDirector: (director) => api.get(`/api/movies/director/${director}`),
+  getTopRated: (params) => api.get('/api/movies/top-rated', { params }),
+  // Combined genre/year/minRating filters with sort=created|rating|year; pass the X-Next-Cursor header back as cursor
+  query: (params) => api.get('/api/movies', { params }),
+  // Movie with rating stats and newest feedback in one call; parts that timed out are listed in `unavailable`
+  getOverview: (id) => api.get(`/api/composite/movies/${id}`),
 };
 
 // Feedback API
@@ -35,7 +40,23 @@ export const feedbackAPI = {
   getByRatingGreaterThanEqual: (rating) => api.get(`/api/feedback/rating/gte/${rating}`),
   getAverageRatingByMovieId: (movieId) => api.get(`/api/feedback/movie/${movieId}/average-rating`),
   getFeedbackCountByMovieId: (movieId) => api.get(`/api/feedback/movie/${movieId}/count`),
-  getRecentFeedbackByMovieId: (movieId) => api.get(`/api/feedback/movie/${movieId}/recent`),
+  getRecentFeedbackByMovieId: (movieId, limit) => api.get(`/api/feedback/movie/${movieId}/recent`, { params: { limit } }),
+  getRatingSummaries: (movieIds) => api.post('/api/feedback/ratings/summary', movieIds),
+  getAllRatingSummaries: () => api.get('/api/feedback/ratings/summary'),
+};
+
+// Computed from periodic feedback snapshots; from and to are ISO dates
+export const analyticsAPI = {
+  getRatingsOverTime: (params) => api.get('/api/feedback/analytics/ratings-over-time', { params }),
+  getTopMovies: (params) => api.get('/api/feedback/analytics/top-movies', { params }),
+  getDistribution: (params) => api.get('/api/feedback/analytics/distribution', { params }),
+  getDistributions: (groups, params) => api.post('/api/feedback/analytics/distribution', groups, { params }),
+};
+
+// Composed by the gateway from both services; parts that timed out are listed in `unavailable`
+export const compositeAPI = {
+  // Totals, per-genre ratings, top-rated and most-rated movies and the newest feedback
+  getDashboard: () => api.get('/api/composite/dashboard'),
 };
 
 export default api; 
\ No newline at end of file
@@ -47,6 +47,12 @@ fi
 # Build backend services
 print_status "Building backend services..."
 
+# Install the read replica routing module movie-service and feedback-service depend on
+print_status "Installing Replica Routing..."
+cd backend/replica-routing
+mvn clean install -DskipTests
+cd ../..
+
 # Build Movie Service
 print_status "Building Movie Service..."
 cd backend/movie-service
@@ -0,0 +1,165 @@
+#!/bin/bash
+
+# Movie Feedback System Load Test
+# Compares thread-per-request (platform threads) against virtual threads for one service.
+# Each mode starts the service on its own, runs the same load at increasing concurrency and
+# prints throughput and latency percentiles side by side.
+#
+# Usage: ./scripts/load-test.sh [movie|feedback] [duration] [concurrency levels...]
+#   e.g. ./scripts/load-test.sh movie 30s 50 200 800 2000
+#
+# Requirements: Java 21, Maven, curl and hey (https://github.com/rakyll/hey).
+# Both modes run on the persistent profile against the same H2 database file, seeded with
+# SEED_ROWS rows (default 5000) on the first start. The requests are keyset-paged queries
+# that are not cached, so every request takes a database connection: movies sorted by rating,
+# or the feedback listing. Security is switched off for the runs: with basic auth every request
+# spends far more CPU on its BCrypt password check than on the query, the same in both modes.
+
+set -e
+
+SERVICE=${1:-movie}
+DURATION=${2:-30s}
+shift 2 2>/dev/null || shift $#
+LEVELS=${@:-50 200 800 2000}
+SEED_ROWS=${SEED_ROWS:-5000}
+
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${GREEN}[INFO]${NC} $1"
+}
+
+print_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+case "$SERVICE" in
+    movie)
+        MODULE=backend/movie-service
+        PORT=8081
+        URL="http://localhost:$PORT/api/movies?sort=rating&limit=50"
+        ;;
+    feedback)
+        MODULE=backend/feedback-service
+        PORT=8082
+        URL="http://localhost:$PORT/api/feedback?limit=50"
+        ;;
+    *)
+        print_error "Unknown service '$SERVICE', expected movie or feedback"
+        exit 1
+        ;;
+esac
+
+for tool in java mvn curl hey; do
+    if ! command -v $tool &> /dev/null; then
+        print_error "$tool is not installed. Please install it and try again."
+        exit 1
+    fi
+done
+
+if ! java -version 2>&1 | grep -qE 'version "(2[1-9]|[3-9][0-9])'; then
+    print_error "Java 21 or newer is required for virtual threads."
+    exit 1
+fi
+
+print_status "Installing backend/replica-routing..."
+(cd backend/replica-routing && mvn -q install -DskipTests)
+
+print_status "Building $MODULE with the java21 profile..."
+(cd "$MODULE" && mvn -q clean package -DskipTests -Pjava21)
+JAR=$(ls "$MODULE"/target/*-exec.jar | head -1)
+
+SECURITY_AUTO_CONFIGURATION=org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration,\
+org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration,\
+org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration
+
+RESULTS=$(mktemp)
+DATA_DIR=$(mktemp -d)
+APP_PID=
+
+stop_service() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap 'stop_service; rm -rf "$DATA_DIR"' EXIT
+
+# Rows are added by an extra Flyway migration, as the services accept no writes without a CSRF
+# token; the second mode finds them already applied in the database file
+write_seed_migration() {
+    mkdir -p "$DATA_DIR/seed"
+    if [ "$SERVICE" = movie ]; then
+        cat > "$DATA_DIR/seed/V1000__load_test_seed.sql" <<SQL
+INSERT INTO movies (title, description, genre, release_year, director, created_at, updated_at, average_rating,
+                    feedback_count)
+SELECT 'Load test movie ' || X, 'Seeded by load-test.sh', 'Drama', 1950 + MOD(X, 75), 'Director ' || MOD(X, 100),
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'),
+       MOD(X * 37, 41) / 10.0, MOD(X, 50)
+FROM SYSTEM_RANGE(1, $SEED_ROWS);
+SQL
+    else
+        cat > "$DATA_DIR/seed/V1000__load_test_seed.sql" <<SQL
+INSERT INTO feedback (id, movie_id, visitor_name, comment, rating, created_at, updated_at)
+SELECT X, MOD(X, 100) + 1, 'visitor' || X, 'Seeded by load-test.sh', MOD(X, 5) + 1,
+       DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00')
+FROM SYSTEM_RANGE(1, $SEED_ROWS);
+ALTER SEQUENCE feedback_seq RESTART WITH $((SEED_ROWS + 1));
+SQL
+    fi
+}
+write_seed_migration
+
+run_mode() {
+    local mode=$1
+    local profiles=$2
+
+    print_status "Starting $SERVICE service with $mode threads..."
+    java -jar "$JAR" \
+        --spring.profiles.active="$profiles" \
+        --storage.data-dir="$DATA_DIR" \
+        --spring.flyway.locations="classpath:db/migration/$SERVICE/{vendor},filesystem:$DATA_DIR/seed" \
+        --eureka.client.enabled=false \
+        --spring.autoconfigure.exclude="$SECURITY_AUTO_CONFIGURATION" \
+        --spring.jpa.show-sql=false \
+        --logging.level.root=WARN \
+        --logging.level.org.springframework.web=WARN \
+        --logging.level.com.moviefeedback=WARN > "/tmp/load-test-$SERVICE-$mode.log" 2>&1 &
+    APP_PID=$!
+
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+        if ! kill -0 "$APP_PID" 2>/dev/null; then
+            print_error "Service failed to start, see /tmp/load-test-$SERVICE-$mode.log"
+            exit 1
+        fi
+        sleep 1
+    done
+
+    # Warm up the JIT and connection pool before measuring
+    hey -z 10s -c 50 "$URL" > /dev/null
+
+    for level in $LEVELS; do
+        print_status "$mode: $level concurrent clients for $DURATION"
+        hey -z "$DURATION" -c "$level" "$URL" | awk -v mode="$mode" -v level="$level" '
+            /Requests\/sec/ { rps = $2 }
+            /50%+ in/ { p50 = $3 * 1000 }
+            /95%+ in/ { p95 = $3 * 1000 }
+            /99%+ in/ { p99 = $3 * 1000 }
+            /\[[45][0-9][0-9]\]|Error distribution/ { errors = "yes" }
+            END { printf "%-9s %8s %12.1f %10.1f %10.1f %10.1f %7s\n", mode, level, rps, p50, p95, p99, errors ? "yes" : "no" }' >> "$RESULTS"
+    done
+
+    stop_service
+}
+
+run_mode platform persistent
+run_mode virtual persistent,virtual-threads
+
+echo ""
+print_status "Results for $URL (latencies in ms)"
+printf "%-9s %8s %12s %10s %10s %10s %7s\n" mode clients "req/s" p50 p95 p99 errors
+sort -k2,2n -k1,1 "$RESULTS"
+rm -f "$RESULTS"
@@ -47,6 +47,12 @@ echo.
 REM Create a temporary directory for logs
 if not exist "logs" mkdir logs
 
+REM Install the read replica routing module movie-service and feedback-service depend on
+echo [INFO] Installing Replica Routing...
+pushd backend\replica-routing
+call mvn -q install -DskipTests
+popd
+
 REM Start Eureka Server
 echo [INFO] Starting Eureka Server...
 start "Eureka Server" cmd /k "cd /d %CD%\backend\eureka-server && echo Starting Eureka Server... && mvn spring-boot:run"